@@ -1,8 +1,10 @@
 package com.ghostchu.quickshop.addon.bluemap;
 
 import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.api.event.*;
 import com.ghostchu.quickshop.api.localization.text.TextManager;
 import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.api.shop.ShopSnapshot;
 import de.bluecolored.bluemap.api.BlueMapAPI;
 import de.bluecolored.bluemap.api.BlueMapMap;
 import de.bluecolored.bluemap.api.BlueMapWorld;
@@ -11,17 +13,35 @@ import de.bluecolored.bluemap.api.markers.POIMarker;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class Main extends JavaPlugin implements Listener {
+    private static final String MARKER_SET_ID = "quickshop-hikari-shops";
+    private static final String MARKER_ID_PREFIX = "quickshop-hikari-shop";
     static Main instance;
+    /**
+     * Hash of the rendered marker of each shop, used to skip the markers that have nothing changed.
+     */
+    private final Map<Long, Integer> markerStates = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyShops = ConcurrentHashMap.newKeySet();
+    private final Set<Long> removedShops = ConcurrentHashMap.newKeySet();
+    private volatile boolean fullRefreshRequested = true;
     private QuickShop plugin;
     private BlueMapAPI blueMapAPI;
 
@@ -44,9 +64,60 @@ public final class Main extends JavaPlugin implements Listener {
             getLogger().info("Found BlueMap loaded! Hooking!");
             this.blueMapAPI = blueMapAPI;
             createMarkerSet();
-            Bukkit.getScheduler().runTaskTimerAsynchronously(this, this::updateAllMarkers, 1, getConfig().getInt("refresh-per-seconds") * 20L);
+            markerStates.clear();
+            fullRefreshRequested = true;
+            Bukkit.getScheduler().runTaskTimerAsynchronously(this, this::flushMarkers, 1, getConfig().getInt("refresh-per-seconds") * 20L);
+            // Stock may change without any shop event (e.g. owner refills the container), so diff all markers sometimes.
+            long fullRefreshInterval = Math.max(1, getConfig().getLong("full-refresh-per-seconds", 300)) * 20L;
+            Bukkit.getScheduler().runTaskTimerAsynchronously(this, () -> fullRefreshRequested = true, fullRefreshInterval, fullRefreshInterval);
         });
         BlueMapAPI.onDisable(api -> Bukkit.getScheduler().cancelTasks(this));
+        Bukkit.getPluginManager().registerEvents(this, this);
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onEvent(QSConfigurationReloadEvent event) {
+        fullRefreshRequested = true;
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onEvent(ShopCreateSuccessEvent event) {
+        markDirty(event.getShop());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEvent(ShopDeleteEvent event) {
+        dirtyShops.remove(event.getShop().getShopId());
+        removedShops.add(event.getShop().getShopId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEvent(ShopPriceChangeEvent event) {
+        markDirty(event.getShop());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEvent(ShopItemChangeEvent event) {
+        markDirty(event.getShop());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEvent(ShopOwnershipTransferEvent event) {
+        markDirty(event.getShop());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEvent(ShopSuccessPurchaseEvent event) {
+        markDirty(event.getShop());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEvent(ShopTypeChangeEvent event) {
+        markDirty(event.getShop());
+    }
+
+    private void markDirty(@NotNull Shop shop) {
+        dirtyShops.add(shop.getShopId());
     }
 
     @NotNull
@@ -68,42 +139,103 @@ public final class Main extends JavaPlugin implements Listener {
                 .build();
     }
 
-    private void updateAllMarkers() {
-        blueMapAPI.getWorlds().forEach(bWorld -> bWorld.getMaps().forEach(bMap -> bMap.getMarkerSets().remove("quickshop-hikari-shops")));
-        plugin.getShopManager().getAllShops().forEach(this::updateShopMarker);
+    /**
+     * Render the changed shops and only replace the markers that really changed.
+     * BlueMap marker sets are thread-safe, so the whole flush runs off the main thread.
+     */
+    private void flushMarkers() {
+        if (blueMapAPI == null) {
+            return;
+        }
+        List<ShopSnapshot> targets;
+        Set<Long> removals = new HashSet<>(removedShops);
+        removedShops.removeAll(removals);
+        boolean fullRefresh = fullRefreshRequested;
+        if (fullRefresh) {
+            fullRefreshRequested = false;
+            dirtyShops.clear();
+            targets = plugin.getShopManager().getShopSnapshots();
+        } else {
+            List<Long> shopIds = new ArrayList<>(dirtyShops);
+            dirtyShops.removeAll(shopIds);
+            targets = plugin.getShopManager().getShopSnapshots(shopIds);
+        }
+        for (Long shopId : removals) {
+            removeShopMarker(shopId);
+        }
+        Set<Long> alive = new HashSet<>();
+        for (ShopSnapshot shop : targets) {
+            if (removals.contains(shop.getShopId())) {
+                continue;
+            }
+            alive.add(shop.getShopId());
+            try {
+                updateShopMarker(shop);
+            } catch (IllegalStateException e) {
+                // The item of the unloaded shop is corrupt, it will be removed once loaded
+                getLogger().warning("Failed to render the marker of shop " + shop.getShopId() + ": " + e.getMessage());
+            }
+        }
+        if (fullRefresh) {
+            for (Long shopId : new ArrayList<>(markerStates.keySet())) {
+                if (!alive.contains(shopId)) {
+                    removeShopMarker(shopId);
+                }
+            }
+        }
+    }
+
+    private void removeShopMarker(long shopId) {
+        markerStates.remove(shopId);
+        blueMapAPI.getWorlds().forEach(bWorld -> bWorld.getMaps().forEach(bMap -> {
+            MarkerSet markerSet = bMap.getMarkerSets().get(MARKER_SET_ID);
+            if (markerSet != null) {
+                markerSet.getMarkers().remove(MARKER_ID_PREFIX + shopId);
+            }
+        }));
     }
 
-    public void updateShopMarker(Shop shop) {
-        Optional<BlueMapWorld> bWorld = blueMapAPI.getWorld(shop.getLocation().getWorld());
+    public void updateShopMarker(ShopSnapshot shop) {
+        World world = Bukkit.getWorld(shop.getWorld());
+        if (world == null) {
+            return;
+        }
+        Optional<BlueMapWorld> bWorld = blueMapAPI.getWorld(world);
         if (bWorld.isEmpty()) {
             return;
         }
+        String markerName = fillPlaceholders(getConfig().getString("marker-label"), shop);
+        String desc = fillPlaceholders(getConfig().getString("marker-detail"), shop);
+        int state = Objects.hash(markerName, desc, shop.getX(), shop.getY(), shop.getZ());
+        if (Objects.equals(markerStates.get(shop.getShopId()), state)) {
+            return;
+        }
         for (BlueMapMap map : bWorld.get().getMaps()) {
-            MarkerSet markerSet = map.getMarkerSets().computeIfAbsent("quickshop-hikari-shops", (key) -> createMarkerSet());
-            String markerName = fillPlaceholders(getConfig().getString("marker-label"), shop);
-            String desc = fillPlaceholders(getConfig().getString("marker-detail"), shop);
+            MarkerSet markerSet = map.getMarkerSets().computeIfAbsent(MARKER_SET_ID, (key) -> createMarkerSet());
             POIMarker marker = POIMarker.builder()
                     .label(markerName)
-                    .position(shop.getLocation().getX(),
-                            shop.getLocation().getY(),
-                            shop.getLocation().getZ())
+                    .position(shop.getX(),
+                            shop.getY(),
+                            shop.getZ())
                     .maxDistance(getConfig().getDouble("max-distance"))
                     .detail(desc)
                     .styleClasses()
                     .build();
-            markerSet.getMarkers().put("quickshop-hikari-shop" + shop.getShopId(), marker);
+            markerSet.getMarkers().put(MARKER_ID_PREFIX + shop.getShopId(), marker);
         }
+        markerStates.put(shop.getShopId(), state);
     }
 
-    private String fillPlaceholders(String s, Shop shop) {
-        Location loc = shop.getLocation();
-        String x = String.valueOf(loc.getX());
-        String y = String.valueOf(loc.getY());
-        String z = String.valueOf(loc.getZ());
-        s = s.replace("%owner%", plain(shop.ownerName()));
+    private String fillPlaceholders(String s, ShopSnapshot shop) {
+        String x = String.valueOf((double) shop.getX());
+        String y = String.valueOf((double) shop.getY());
+        String z = String.valueOf((double) shop.getZ());
+        String owner = shop.isUnlimited() ? plain(text().of("admin-shop").forLocale()) : shop.getOwner().getDisplay();
+        s = s.replace("%owner%", owner);
         s = s.replace("%item%", shop.getItem().getType().name());
         s = s.replace("%price%", String.valueOf(shop.getPrice()));
-        s = s.replace("%stock%", String.valueOf(shop.getRemainingStock()));
+        // -2 means the shop inventory never counted
+        s = s.replace("%stock%", shop.getStock() == -2 ? getConfig().getString("unknown-stock", "unknown") : String.valueOf(shop.getStock()));
         s = s.replace("%type%", shop.getShopType().name());
         s = s.replace("%location%", x + "," + y + "," + z);
         return s;
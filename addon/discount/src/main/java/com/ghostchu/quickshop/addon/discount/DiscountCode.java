@@ -14,6 +14,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DiscountCode {
     private final String code;
@@ -33,8 +34,9 @@ public class DiscountCode {
         this.codeType = codeType;
         this.rate = rate;
         this.maxUsage = maxUsage;
-        this.usages = usages;
-        this.shopScope = shopScope;
+        this.usages = new ConcurrentHashMap<>(usages);
+        this.shopScope = ConcurrentHashMap.newKeySet();
+        this.shopScope.addAll(shopScope);
         this.threshold = threshold;
         this.expiredTime = expiredTime;
     }
@@ -46,8 +48,8 @@ public class DiscountCode {
         this.rate = rate;
         this.maxUsage = maxUsage;
         this.threshold = threshold;
-        this.usages = new HashMap<>();
-        this.shopScope = new HashSet<>();
+        this.usages = new ConcurrentHashMap<>();
+        this.shopScope = ConcurrentHashMap.newKeySet();
         this.expiredTime = expiredTime;
     }
 
@@ -137,7 +139,11 @@ public class DiscountCode {
         if (codeType != CodeType.SPECIFIC_SHOPS) {
             throw new IllegalStateException("Cannot add shop to code scope, because this code is not a specific shop code.");
         }
-        return this.shopScope.add(shop.getShopId());
+        return addShopToScope(shop.getShopId());
+    }
+
+    public boolean addShopToScope(long shopId) {
+        return this.shopScope.add(shopId);
     }
 
     public double getThreshold() {
@@ -160,18 +166,30 @@ public class DiscountCode {
         if (total < threshold) {
             return total;
         }
-        if (getRemainsUsage(player) - 1 < 0) {
+        // Check and consume the usage atomically, concurrent purchases cannot overuse the code
+        boolean[] consumed = new boolean[1];
+        usages.compute(player, (key, usage) -> {
+            int used = usage == null ? 0 : usage;
+            if (maxUsage != -1 && used + 1 > maxUsage) {
+                return usage;
+            }
+            consumed[0] = true;
+            return used + 1;
+        });
+        if (!consumed[0]) {
             return total;
         }
-        if (usages.containsKey(player)) {
-            int usage = usages.get(player);
-            usages.put(player, usage + 1);
-        } else {
-            usages.put(player, 1);
-        }
         return rate.apply(total);
     }
 
+    public int getUsage(@NotNull UUID player) {
+        return usages.getOrDefault(player, 0);
+    }
+
+    public void setUsage(@NotNull UUID player, int usage) {
+        usages.put(player, usage);
+    }
+
     public boolean isExpired() {
         if (expiredTime == -1) {
             return false;
@@ -199,7 +217,11 @@ public class DiscountCode {
     }
 
     public Set<Long> getShopScope() {
-        return shopScope;
+        return Collections.unmodifiableSet(shopScope);
+    }
+
+    public boolean removeShopFromScope(long shopId) {
+        return this.shopScope.remove(shopId);
     }
 
     @NotNull
@@ -0,0 +1,33 @@
+package com.ghostchu.quickshop.addon.discount;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * A single record in the discount code change log.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DiscountCodeChange {
+    private Operation op;
+    private String code;
+    /**
+     * The serialized code, only for {@link Operation#PUT}
+     */
+    private String data;
+    /**
+     * The player and the absolute usage count, only for {@link Operation#USAGE}
+     */
+    private UUID player;
+    private int usage;
+
+    public enum Operation {
+        PUT,
+        REMOVE,
+        USAGE
+    }
+}
@@ -3,28 +3,53 @@ package com.ghostchu.quickshop.addon.discount;
 import com.ghostchu.quickshop.QuickShop;
 import com.ghostchu.quickshop.addon.discount.type.CodeCreationResponse;
 import com.ghostchu.quickshop.addon.discount.type.CodeType;
+import com.ghostchu.quickshop.common.util.JsonUtil;
+import com.ghostchu.quickshop.util.logger.Log;
+import com.google.gson.JsonParseException;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 
+/**
+ * Discount codes storage.
+ * <p>
+ * Codes are indexed by name, owner and applicable shop. Every change is appended to the change log (data.log)
+ * instead of rewriting the whole file, and the log will be compacted into the snapshot (data.yml) periodically.
+ */
 public class DiscountCodeManager {
     public static final String NAME_REG_EXP = "[a-zA-Z0-9_]*";
-    private final Set<DiscountCode> codes = Collections.synchronizedSet(new HashSet<>());
+    private static final int COMPACT_THRESHOLD = 1000;
+    private final Map<String, DiscountCode> codes = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<String>> ownerIndex = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> shopIndex = new ConcurrentHashMap<>();
     private final Pattern namePattern = Pattern.compile(NAME_REG_EXP);
     private final Main main;
     private final File file;
-    private YamlConfiguration config;
+    private final File logFile;
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "QuickShop-Addon-Discount-IO"));
+    private BufferedWriter logWriter;
+    private int logLength;
 
     public DiscountCodeManager(Main main) throws IOException {
         this.main = main;
         this.file = new File(main.getDataFolder(), "data.yml");
+        this.logFile = new File(main.getDataFolder(), "data.log");
         initDatabase();
         cleanExpiredCodes();
     }
@@ -33,46 +58,261 @@ public class DiscountCodeManager {
         if (!this.file.exists()) {
             this.file.createNewFile();
         }
-        this.config = YamlConfiguration.loadConfiguration(this.file);
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(this.file);
         this.codes.clear();
-        this.codes.addAll(this.config.getStringList("codes").stream()
+        this.ownerIndex.clear();
+        this.shopIndex.clear();
+        config.getStringList("codes").stream()
                 .map(DiscountCode::fromString)
                 .filter(Objects::nonNull)
-                .toList());
+                .forEach(this::index);
+        if (this.logFile.exists()) {
+            int replayed = 0;
+            for (String line : Files.readAllLines(this.logFile.toPath(), StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    replay(JsonUtil.getGson().fromJson(line, DiscountCodeChange.class));
+                    replayed++;
+                } catch (JsonParseException e) {
+                    // The last line may be partially written if the server crashed
+                    main.getLogger().log(Level.WARNING, "Skipping broken discount code change log line: " + line, e);
+                }
+            }
+            Log.debug("Replayed " + replayed + " discount code changes.");
+        }
+        // Fold the replayed changes into snapshot, this also opens a fresh change log
+        writeSnapshot();
+    }
+
+    private void replay(@Nullable DiscountCodeChange change) {
+        if (change == null || change.getOp() == null || change.getCode() == null) {
+            return;
+        }
+        switch (change.getOp()) {
+            case PUT -> {
+                DiscountCode code = DiscountCode.fromString(change.getData());
+                if (code != null) {
+                    unindex(code.getCode());
+                    index(code);
+                }
+            }
+            case REMOVE -> unindex(change.getCode());
+            case USAGE -> {
+                DiscountCode code = getCode(change.getCode());
+                if (code != null && change.getPlayer() != null) {
+                    code.setUsage(change.getPlayer(), change.getUsage());
+                }
+            }
+        }
+    }
+
+    private void index(@NotNull DiscountCode code) {
+        String key = key(code.getCode());
+        codes.put(key, code);
+        ownerIndex.computeIfAbsent(code.getOwner(), k -> ConcurrentHashMap.newKeySet()).add(key);
+        for (Long shopId : code.getShopScope()) {
+            shopIndex.computeIfAbsent(shopId, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    @Nullable
+    private DiscountCode unindex(@NotNull String code) {
+        String key = key(code);
+        DiscountCode removed = codes.remove(key);
+        if (removed == null) {
+            return null;
+        }
+        Set<String> owned = ownerIndex.get(removed.getOwner());
+        if (owned != null) {
+            owned.remove(key);
+        }
+        for (Long shopId : removed.getShopScope()) {
+            Set<String> scoped = shopIndex.get(shopId);
+            if (scoped != null) {
+                scoped.remove(key);
+            }
+        }
+        return removed;
+    }
+
+    @NotNull
+    private static String key(@NotNull String code) {
+        return code.toLowerCase(Locale.ROOT);
     }
 
     public void cleanExpiredCodes() {
-        if (codes.removeIf(DiscountCode::isExpired)) {
-            saveDatabase();
+        for (DiscountCode code : new ArrayList<>(codes.values())) {
+            if (code.isExpired()) {
+                removeCode(code);
+            }
         }
     }
 
+    /**
+     * Append a change to the log, the log will be compacted once it becomes too long.
+     *
+     * @param change The change
+     */
+    private void appendChange(@NotNull DiscountCodeChange change) {
+        String line = JsonUtil.getGson().toJson(change);
+        ioExecutor.execute(() -> {
+            try {
+                logWriter.write(line);
+                logWriter.newLine();
+                logWriter.flush();
+                if (++logLength >= COMPACT_THRESHOLD) {
+                    writeSnapshot();
+                }
+            } catch (IOException e) {
+                main.getLogger().log(Level.WARNING, "Couldn't append the discount code change into database.", e);
+            }
+        });
+    }
+
+    /**
+     * Compact the change log into the snapshot file, off the caller thread.
+     */
     public void saveDatabase() {
+        ioExecutor.execute(() -> {
+            try {
+                writeSnapshot();
+            } catch (IOException e) {
+                main.getLogger().log(Level.WARNING, "Couldn't save the player discount codes status into database.", e);
+            }
+        });
+    }
+
+    /**
+     * Flush all pending changes and compact the change log, then stop the IO thread.
+     */
+    public void shutdown() {
+        ioExecutor.shutdown();
         try {
-            this.config.set("codes", this.codes.stream().map(DiscountCode::saveToString).toList());
-            this.config.save(this.file);
+            if (!ioExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                main.getLogger().warning("Timed out while waiting for discount code changes to be written.");
+            }
+            writeSnapshot();
+            logWriter.close();
         } catch (IOException e) {
             main.getLogger().log(Level.WARNING, "Couldn't save the player discount codes status into database.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("codes", this.codes.values().stream().map(DiscountCode::saveToString).toList());
+        File tmp = new File(this.file.getParentFile(), this.file.getName() + ".tmp");
+        config.save(tmp);
+        Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // Everything in the log has been included by the snapshot
+        if (this.logWriter != null) {
+            this.logWriter.close();
         }
+        this.logWriter = Files.newBufferedWriter(this.logFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.logLength = 0;
     }
 
     @Nullable
-    public DiscountCode getCode(@NotNull String code) {
-        for (DiscountCode discountCode : this.codes) {
-            if (discountCode.getCode().equalsIgnoreCase(code)) {
-                return discountCode;
-            }
+    public DiscountCode getCode(@Nullable String code) {
+        if (code == null) {
+            return null;
         }
-        return null;
+        return codes.get(key(code));
+    }
+
+    @NotNull
+    public Collection<DiscountCode> getCodes() {
+        return Collections.unmodifiableCollection(codes.values());
     }
 
     @NotNull
-    public Set<DiscountCode> getCodes() {
-        return codes;
+    public List<DiscountCode> getCodesByOwner(@NotNull UUID owner) {
+        return resolve(ownerIndex.get(owner));
+    }
+
+    /**
+     * Gets the codes that have the shop in their scope.
+     *
+     * @param shopId The shop id
+     * @return The codes
+     */
+    @NotNull
+    public List<DiscountCode> getCodesByShop(long shopId) {
+        return resolve(shopIndex.get(shopId));
+    }
+
+    @NotNull
+    private List<DiscountCode> resolve(@Nullable Set<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<DiscountCode> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            DiscountCode code = codes.get(key);
+            if (code != null) {
+                result.add(code);
+            }
+        }
+        return result;
     }
 
     public void removeCode(@NotNull DiscountCode discountCode) {
-        codes.remove(discountCode);
+        if (unindex(discountCode.getCode()) != null) {
+            appendChange(new DiscountCodeChange(DiscountCodeChange.Operation.REMOVE, discountCode.getCode(), null, null, 0));
+        }
+    }
+
+    /**
+     * Persist the settings change of the code.
+     *
+     * @param discountCode The code that modified
+     */
+    public void updateCode(@NotNull DiscountCode discountCode) {
+        appendChange(new DiscountCodeChange(DiscountCodeChange.Operation.PUT, discountCode.getCode(), discountCode.saveToString(), null, 0));
+    }
+
+    public boolean addShopToScope(@NotNull DiscountCode discountCode, long shopId) {
+        if (!discountCode.addShopToScope(shopId)) {
+            return false;
+        }
+        shopIndex.computeIfAbsent(shopId, k -> ConcurrentHashMap.newKeySet()).add(key(discountCode.getCode()));
+        updateCode(discountCode);
+        return true;
+    }
+
+    public boolean removeShopFromScope(@NotNull DiscountCode discountCode, long shopId) {
+        if (!discountCode.removeShopFromScope(shopId)) {
+            return false;
+        }
+        Set<String> scoped = shopIndex.get(shopId);
+        if (scoped != null) {
+            scoped.remove(key(discountCode.getCode()));
+        }
+        updateCode(discountCode);
+        return true;
+    }
+
+    /**
+     * Apply the code to the total and record the usage if the code consumed.
+     *
+     * @param discountCode The code
+     * @param player       The player who use the code
+     * @param total        The total before discount
+     * @return The total after discount
+     */
+    public double applyCode(@NotNull DiscountCode discountCode, @NotNull UUID player, double total) {
+        int before = discountCode.getUsage(player);
+        double result = discountCode.apply(player, total);
+        int after = discountCode.getUsage(player);
+        if (before != after) {
+            appendChange(new DiscountCodeChange(DiscountCodeChange.Operation.USAGE, discountCode.getCode(), null, player, after));
+        }
+        return result;
     }
 
     @NotNull
@@ -80,7 +320,7 @@ public class DiscountCodeManager {
         if (!namePattern.matcher(code).matches()) {
             return CodeCreationResponse.REGEX_FAILURE;
         }
-        if (codes.stream().anyMatch(c -> c.getCode().equalsIgnoreCase(code))) {
+        if (codes.containsKey(key(code))) {
             return CodeCreationResponse.CODE_EXISTS;
         }
         if (maxUsage != -1 && maxUsage < 1) {
@@ -100,10 +340,8 @@ public class DiscountCodeManager {
             return CodeCreationResponse.PERMISSION_DENIED;
         }
         DiscountCode discountCode = new DiscountCode(owner, code, codeType, discountRate, maxUsage, threshold, expiredTime);
-        if (!this.codes.add(discountCode)) {
-            return CodeCreationResponse.CODE_EXISTS;
-        }
-        main.getCodeManager().saveDatabase();
+        index(discountCode);
+        updateCode(discountCode);
         return CodeCreationResponse.SUCCESS;
     }
 
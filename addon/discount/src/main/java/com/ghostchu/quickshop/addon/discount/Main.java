@@ -27,7 +27,9 @@ public final class Main extends JavaPlugin implements Listener {
 
     @Override
     public void onDisable() {
-        codeManager.saveDatabase();
+        if (codeManager != null) {
+            codeManager.shutdown();
+        }
         HandlerList.unregisterAll((Plugin) this);
     }
 
@@ -236,9 +236,8 @@ public class DiscountCommand implements CommandHandler<CommandSender> {
                     quickshop.text().of(sender, "no-permission").send();
                     return;
                 }
-                if (code.getShopScope().add(shop.getShopId())) {
+                if (main.getCodeManager().addShopToScope(code, shop.getShopId())) {
                     quickshop.text().of(sender, "addon.discount.discount-code-config-shop-added", shop.getShopId()).send();
-                    main.getCodeManager().saveDatabase();
                 } else {
                     quickshop.text().of(sender, "addon.discount.discount-code-config-shop-add-failure", shop.getShopId()).send();
                 }
@@ -253,9 +252,8 @@ public class DiscountCommand implements CommandHandler<CommandSender> {
                     quickshop.text().of(sender, "no-permission").send();
                     return;
                 }
-                if (code.getShopScope().remove(shop.getShopId())) {
+                if (main.getCodeManager().removeShopFromScope(code, shop.getShopId())) {
                     quickshop.text().of(sender, "addon.discount.discount-code-config-shop-removed", shop.getShopId()).send();
-                    main.getCodeManager().saveDatabase();
                 } else {
                     quickshop.text().of(sender, "addon.discount.discount-code-config-shop-remove-failure", shop.getShopId()).send();
                 }
@@ -280,7 +278,7 @@ public class DiscountCommand implements CommandHandler<CommandSender> {
                     }
                     code.setCodeType(type);
                     quickshop.text().of(sender, "discount-code-config-applied").send();
-                    main.getCodeManager().saveDatabase();
+                    main.getCodeManager().updateCode(code);
                 } catch (IllegalArgumentException e) {
                     quickshop.text().of(sender, "addon.discount.invalid-code-type", newScope).send();
                 }
@@ -300,7 +298,7 @@ public class DiscountCommand implements CommandHandler<CommandSender> {
         ChatSheetPrinter printer = new ChatSheetPrinter(sender);
         printer.printHeader();
         printer.printLine(quickshop.text().of(sender, "addon.discount.discount-code-list").forLocale());
-        main.getCodeManager().getCodes().stream().filter(code -> code.getOwner().equals(((Player) sender).getUniqueId())).forEach(code -> printer.printLine(Component.text(code.getCode()).color(NamedTextColor.AQUA)));
+        main.getCodeManager().getCodesByOwner(p.getUniqueId()).forEach(code -> printer.printLine(Component.text(code.getCode()).color(NamedTextColor.AQUA)));
         printer.printFooter();
     }
     private void listAll(CommandSender sender, String[] passThroughArgs) {
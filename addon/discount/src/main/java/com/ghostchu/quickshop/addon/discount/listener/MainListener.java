@@ -76,7 +76,7 @@ public class MainListener implements Listener {
         switch (codeInstalled.applicableShop(purchaser, shop)) {
             case APPLICABLE -> {
                 double beforeDiscount = event.getTotal();
-                event.setTotal(codeInstalled.apply(purchaser, event.getTotal()));
+                event.setTotal(main.getCodeManager().applyCode(codeInstalled, purchaser, event.getTotal()));
                 double discounted = beforeDiscount - event.getTotal();
                 quickshop.text().of(purchaser, "addon.discount.discount-code-applied-in-purchase", code, quickshop.getEconomy().format(discounted, shop.getLocation().getWorld(), shop.getCurrency())).send();
             }
@@ -85,7 +85,7 @@ public class MainListener implements Listener {
                     quickshop.text().of(purchaser, "addon.discount.discount-code-under-threshold", quickshop.getEconomy().format(codeInstalled.getThreshold(), shop.getLocation().getWorld(), shop.getCurrency())).send();
                 } else {
                     double beforeDiscount = event.getTotal();
-                    event.setTotal(codeInstalled.apply(purchaser, event.getTotal()));
+                    event.setTotal(main.getCodeManager().applyCode(codeInstalled, purchaser, event.getTotal()));
                     double discounted = beforeDiscount - event.getTotal();
                     quickshop.text().of(purchaser, "addon.discount.discount-code-applied-in-purchase", code, quickshop.getEconomy().format(discounted, shop.getLocation().getWorld(), shop.getCurrency())).send();
                 }
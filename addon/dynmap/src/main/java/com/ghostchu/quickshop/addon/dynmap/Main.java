@@ -4,13 +4,16 @@ import com.ghostchu.quickshop.QuickShop;
 import com.ghostchu.quickshop.api.event.*;
 import com.ghostchu.quickshop.api.localization.text.TextManager;
 import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.api.shop.ShopSnapshot;
 import com.ghostchu.quickshop.api.shop.ShopType;
 import com.ghostchu.quickshop.util.PackageUtil;
 import com.ghostchu.quickshop.util.Util;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.world.WorldLoadEvent;
@@ -20,12 +23,29 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.dynmap.DynmapAPI;
 import org.dynmap.markers.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class Main extends JavaPlugin implements Listener {
+    private static final String MARKER_ID_PREFIX = "quickshop-hikari-shop-";
     static Main instance;
     private QuickShop plugin;
     private DynmapAPI dynmapAPI;
     private MarkerAPI markerAPI;
+    /**
+     * Hash of the rendered marker of each shop, used to skip the markers that have nothing changed.
+     */
+    private final Map<Long, Integer> markerStates = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyShops = ConcurrentHashMap.newKeySet();
+    private final Set<Long> removedShops = ConcurrentHashMap.newKeySet();
+    private volatile boolean fullRefreshRequested = true;
 
     @Override
     public void onLoad() {
@@ -44,62 +64,68 @@ public final class Main extends JavaPlugin implements Listener {
         this.dynmapAPI = (DynmapAPI) Bukkit.getPluginManager().getPlugin("dynmap");
         this.markerAPI = this.dynmapAPI.getMarkerAPI();
         Bukkit.getPluginManager().registerEvents(this, this);
-        Bukkit.getScheduler().runTaskLater(this, this::updateAllMarkers, 80);
+        long interval = Math.max(1, getConfig().getLong("refresh-per-seconds", 5)) * 20;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(this, this::flushMarkers, 80, interval);
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(WorldLoadEvent event) {
-        Util.mainThreadRun(this::updateAllMarkers);
+        updateAllMarkers();
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(WorldUnloadEvent event) {
-        Util.mainThreadRun(this::updateAllMarkers);
+        updateAllMarkers();
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(QSConfigurationReloadEvent event) {
-        Util.mainThreadRun(this::updateAllMarkers);
+        updateAllMarkers();
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(ShopCreateSuccessEvent event) {
-        updateShopMarker(event.getShop());
+        markDirty(event.getShop());
     }
 
-    @EventHandler(ignoreCancelled = true)
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onEvent(ShopDeleteEvent event) {
-        Util.mainThreadRun(() -> updateShopMarker(event.getShop()));
+        dirtyShops.remove(event.getShop().getShopId());
+        removedShops.add(event.getShop().getShopId());
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(ShopPriceChangeEvent event) {
-        Util.mainThreadRun(() -> updateShopMarker(event.getShop()));
+        markDirty(event.getShop());
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(ShopItemChangeEvent event) {
-        Util.mainThreadRun(() -> updateShopMarker(event.getShop()));
+        markDirty(event.getShop());
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(ShopOwnershipTransferEvent event) {
-        Util.mainThreadRun(() -> updateShopMarker(event.getShop()));
+        markDirty(event.getShop());
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(ShopSuccessPurchaseEvent event) {
-        Util.mainThreadRun(() -> updateShopMarker(event.getShop()));
+        markDirty(event.getShop());
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(ShopTypeChangeEvent event) {
-        Util.mainThreadRun(() -> updateShopMarker(event.getShop()));
+        markDirty(event.getShop());
     }
 
     @EventHandler(ignoreCancelled = true)
     public void onEvent(ShopNamingEvent event) {
-        Util.mainThreadRun(() -> updateShopMarker(event.getShop()));
+        markDirty(event.getShop());
+    }
+
+    private void markDirty(@NotNull Shop shop) {
+        dirtyShops.add(shop.getShopId());
     }
 
     @NotNull
@@ -126,57 +152,146 @@ public final class Main extends JavaPlugin implements Listener {
         return markerAPI.getMarkerIcon(PackageUtil.parsePackageProperly("marker-icon").asString("chest"));
     }
 
+    /**
+     * Request a full diff of all markers on next flush.
+     */
     public void updateAllMarkers() {
-        MarkerSet markerSet = getMarkerSet();
-        markerSet.getMarkers().forEach(GenericMarker::deleteMarker);
-        for (Shop shop : plugin.getShopManager().getAllShops()) {
-            updateShopMarker(shop);
+        fullRefreshRequested = true;
+    }
+
+    /**
+     * Render the changed shops off the main thread, then apply the markers that really changed in one batch.
+     */
+    private void flushMarkers() {
+        List<ShopSnapshot> targets;
+        Set<Long> removals = new HashSet<>(removedShops);
+        removedShops.removeAll(removals);
+        boolean fullRefresh = fullRefreshRequested;
+        if (fullRefresh) {
+            fullRefreshRequested = false;
+            dirtyShops.clear();
+            targets = plugin.getShopManager().getShopSnapshots();
+        } else {
+            List<Long> shopIds = new ArrayList<>(dirtyShops);
+            dirtyShops.removeAll(shopIds);
+            targets = plugin.getShopManager().getShopSnapshots(shopIds);
+        }
+        List<MarkerState> changed = new ArrayList<>();
+        for (ShopSnapshot shop : targets) {
+            World world = Bukkit.getWorld(shop.getWorld());
+            if (removals.contains(shop.getShopId()) || world == null) {
+                continue;
+            }
+            MarkerState state;
+            try {
+                state = renderMarker(shop, world);
+            } catch (IllegalStateException e) {
+                // The item of the unloaded shop is corrupt, it will be removed once loaded
+                getLogger().warning("Failed to render the marker of shop " + shop.getShopId() + ": " + e.getMessage());
+                continue;
+            }
+            if (!Objects.equals(markerStates.get(state.shopId()), state.hashCode())) {
+                changed.add(state);
+            }
+        }
+        if (changed.isEmpty() && removals.isEmpty() && !fullRefresh) {
+            return;
         }
+        Set<Long> alive = null;
+        if (fullRefresh) {
+            alive = new HashSet<>();
+            for (ShopSnapshot shop : targets) {
+                alive.add(shop.getShopId());
+            }
+        }
+        Set<Long> finalAlive = alive;
+        Util.mainThreadRun(() -> applyMarkers(changed, removals, finalAlive));
     }
 
-    public void updateShopMarker(Shop shop) {
+    private void applyMarkers(@NotNull List<MarkerState> changed, @NotNull Set<Long> removals, @Nullable Set<Long> alive) {
         MarkerSet markerSet = getMarkerSet();
+        for (Long shopId : removals) {
+            Marker marker = markerSet.findMarker(MARKER_ID_PREFIX + shopId);
+            if (marker != null) {
+                marker.deleteMarker();
+            }
+            markerStates.remove(shopId);
+        }
+        if (alive != null) {
+            for (Marker marker : new ArrayList<>(markerSet.getMarkers())) {
+                if (!marker.getMarkerID().startsWith(MARKER_ID_PREFIX)) {
+                    continue;
+                }
+                try {
+                    long shopId = Long.parseLong(marker.getMarkerID().substring(MARKER_ID_PREFIX.length()));
+                    if (!alive.contains(shopId)) {
+                        marker.deleteMarker();
+                        markerStates.remove(shopId);
+                    }
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        for (MarkerState state : changed) {
+            Marker marker = markerSet.findMarker(MARKER_ID_PREFIX + state.shopId());
+            if (marker == null) {
+                marker = markerSet.createMarker(MARKER_ID_PREFIX + state.shopId(),
+                        state.name(),
+                        state.world(),
+                        state.x(),
+                        state.y(),
+                        state.z(),
+                        getShopMarkerIcon(), false);
+            } else {
+                marker.setLabel(state.name());
+                marker.setLocation(state.world(), state.x(), state.y(), state.z());
+            }
+            marker.setDescription(state.description());
+            markerStates.put(state.shopId(), state.hashCode());
+        }
+    }
+
+    @NotNull
+    private MarkerState renderMarker(@NotNull ShopSnapshot shop, @NotNull World world) {
         String shopName = shop.getShopName();
-        String posStr = String.format("%s %s, %s, %s", shop.getLocation().getWorld().getName(), shop.getLocation().getBlockX(), shop.getLocation().getBlockY(), shop.getLocation().getBlockZ());
+        String posStr = String.format("%s %s, %s, %s", shop.getWorld(), shop.getX(), shop.getY(), shop.getZ());
         if (shopName == null) {
             shopName = posStr;
         }
-        Marker marker = markerSet.findMarker("quickshop-hikari-shop-" + shop.getShopId());
+        String ownerName = shop.isUnlimited() ? plain(text().of("admin-shop").forLocale()) : shop.getOwner().getDisplay();
+        String itemName = plain(shop.getItemName());
+        String price = plugin.getShopManager().format(shop.getPrice(), world, shop.getCurrency());
+        int stackingAmount = shop.getShopStackingAmount();
+        String shopType = shop.getShopType() == ShopType.SELLING ? plain(text().of("shop-type.selling").forLocale()) : plain(text().of("shop-type.buying").forLocale());
         String markerName = plain(text().of("addon.dynmap.marker-name",
                 shopName,
-                plain(shop.ownerName()),
-                plain(Util.getItemStackName(shop.getItem())),
-                plugin.getShopManager().format(shop.getPrice(), shop),
-                shop.getShopStackingAmount(),
-                shop.getShopType() == ShopType.SELLING ? plain(text().of("shop-type.selling").forLocale()) : plain(text().of("shop-type.buying").forLocale()),
+                ownerName,
+                itemName,
+                price,
+                stackingAmount,
+                shopType,
                 shop.isUnlimited(),
                 posStr
         ).forLocale());
-        if (marker == null) {
-            marker = markerSet.createMarker("quickshop-hikari-shop-" + shop.getShopId()
-                    , markerName
-                    , shop.getLocation().getWorld().getName(),
-                    shop.getLocation().getX(),
-                    shop.getLocation().getY(),
-                    shop.getLocation().getZ(),
-                    getShopMarkerIcon(), false);
-        } else {
-            marker.setLocation(shop.getLocation().getWorld().getName(),
-                    shop.getLocation().getX(),
-                    shop.getLocation().getY(),
-                    shop.getLocation().getZ());
-        }
         String desc = plain(text().of("addon.dynmap.marker-description",
                 shopName,
-                plain(shop.ownerName()),
-                plain(Util.getItemStackName(shop.getItem())),
-                plugin.getShopManager().format(shop.getPrice(), shop),
-                shop.getShopStackingAmount(),
-                shop.getShopType() == ShopType.SELLING ? plain(text().of("shop-type.selling").forLocale()) : plain(text().of("shop-type.buying").forLocale()),
+                ownerName,
+                itemName,
+                price,
+                stackingAmount,
+                shopType,
                 shop.isUnlimited(),
                 posStr
         ).forLocale());
-        marker.setDescription(desc.replace("\n", "<br/>"));
+        return new MarkerState(shop.getShopId(),
+                shop.getWorld(),
+                shop.getX(),
+                shop.getY(),
+                shop.getZ(),
+                markerName,
+                desc.replace("\n", "<br/>"));
     }
 
+    record MarkerState(long shopId, String world, double x, double y, double z, String name, String description) {
+    }
 }
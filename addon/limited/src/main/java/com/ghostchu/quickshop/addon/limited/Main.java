@@ -1,10 +1,13 @@
 package com.ghostchu.quickshop.addon.limited;
 
 import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.addon.limited.cache.UsageCounterCache;
 import com.ghostchu.quickshop.addon.limited.command.SubCommand_Limit;
+import com.ghostchu.quickshop.addon.limited.database.LimitedDatabaseHelper;
 import com.ghostchu.quickshop.api.command.CommandContainer;
 import com.ghostchu.quickshop.api.event.CalendarEvent;
 import com.ghostchu.quickshop.api.event.ShopClickEvent;
+import com.ghostchu.quickshop.api.event.ShopDeleteEvent;
 import com.ghostchu.quickshop.api.event.ShopPurchaseEvent;
 import com.ghostchu.quickshop.api.event.ShopSuccessPurchaseEvent;
 import com.ghostchu.quickshop.api.localization.text.Text;
@@ -18,21 +21,41 @@ import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.Nullable;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.logging.Level;
 
 public final class Main extends JavaPlugin implements Listener {
     public static Main instance;
     private QuickShop plugin;
 
     private CommandContainer container;
+    private LimitedDatabaseHelper databaseHelper;
+    private UsageCounterCache usageCache;
 
     @Override
     public void onDisable() {
         // Plugin shutdown logic
-        plugin.getCommandManager().unregisterCmd(container);
+        HandlerList.unregisterAll((Plugin) this);
+        if (container != null) {
+            plugin.getCommandManager().unregisterCmd(container);
+        }
+        if (usageCache != null) {
+            usageCache.flush();
+        }
     }
 
     @Override
@@ -40,8 +63,22 @@ public final class Main extends JavaPlugin implements Listener {
         // Plugin startup logic
         instance = this;
         saveDefaultConfig();
-        Bukkit.getPluginManager().registerEvents(this, this);
         this.plugin = QuickShop.getInstance();
+        try {
+            databaseHelper = new LimitedDatabaseHelper(instance, plugin.getSqlManager(), plugin.getDbPrefix());
+        } catch (SQLException e) {
+            getLogger().log(Level.WARNING, "Failed to init database helper", e);
+            Bukkit.getPluginManager().disablePlugin(this);
+            return;
+        }
+        this.usageCache = new UsageCounterCache(this, databaseHelper);
+        Bukkit.getPluginManager().registerEvents(this, this);
+        long flushInterval = Math.max(1, getConfig().getLong("usage-flush-interval", 30)) * 20;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(this, usageCache::flush, flushInterval, flushInterval);
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            migrateLegacyUsages();
+            Bukkit.getOnlinePlayers().forEach(player -> usageCache.load(player.getUniqueId()));
+        });
         this.container = CommandContainer.builder()
                 .prefix("limit")
                 .permission("quickshopaddon.limit.use")
@@ -62,7 +99,7 @@ public final class Main extends JavaPlugin implements Listener {
         int limit = storage.getInt("limit");
         UUID uuid = event.getPurchaser().getUniqueIdIfRealPlayer().orElse(null);
         if (uuid != null) {
-            int playerUsedLimit = storage.getInt("data." + uuid, 0);
+            int playerUsedLimit = usageCache.getUsed(uuid, shop.getShopId());
             if (playerUsedLimit + event.getAmount() > limit) {
                 Text text = plugin.text().of(event.getPurchaser(), "addon.limited.trade-limit-reached-cancel-reason");
                 text.send();
@@ -80,7 +117,7 @@ public final class Main extends JavaPlugin implements Listener {
             return;
         }
         int limit = storage.getInt("limit");
-        int playerUsedLimit = storage.getInt("data." + event.getClicker().getUniqueId(), 0);
+        int playerUsedLimit = usageCache.getUsed(event.getClicker().getUniqueId(), shop.getShopId());
         plugin.text().of(event.getClicker(), "addon.limited.remains-limits", limit - playerUsedLimit).send();
         Log.debug("Shop limit is enabled on this shop. Limit: " + limit + " Used: " + playerUsedLimit);
     }
@@ -95,10 +132,7 @@ public final class Main extends JavaPlugin implements Listener {
         UUID uuid = event.getPurchaser().getUniqueIdIfRealPlayer().orElse(null);
         if (uuid != null) {
             int limit = storage.getInt("limit");
-            int playerUsedLimit = storage.getInt("data." + uuid, 0);
-            playerUsedLimit += event.getAmount();
-            storage.set("data." + uuid, playerUsedLimit);
-            shop.setExtra(this, storage);
+            int playerUsedLimit = usageCache.increment(uuid, shop.getShopId(), getPeriod(storage), event.getAmount());
             Player player = Bukkit.getPlayer(uuid);
             if (player != null) {
                 player.sendTitle(plugin.text().of(player, "addon.limited.titles.title").legacy(),
@@ -113,27 +147,89 @@ public final class Main extends JavaPlugin implements Listener {
                 || event.getCalendarTriggerType() == CalendarEvent.CalendarTriggerType.NOTHING_CHANGED) {
             return;
         }
-        Util.asyncThreadRun(() -> plugin.getShopManager().getAllShops().forEach(shop -> {
-            ConfigurationSection manager = shop.getExtra(this);
-            int limit = manager.getInt("limit");
-            if (limit < 1) {
-                return;
+        // Every row records its shop's period, so a calendar reset is a single UPDATE instead of a shop scan.
+        List<String> periods = new ArrayList<>();
+        for (CalendarEvent.CalendarTriggerType type : CalendarEvent.CalendarTriggerType.values()) {
+            if (event.getCalendarTriggerType().ordinal() >= type.ordinal()) {
+                periods.add(type.name());
             }
-            if (StringUtils.isEmpty(manager.getString("period"))) {
+        }
+        Util.asyncThreadRun(() -> usageCache.resetPeriods(periods));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        // Runs on the login thread, so the trade events on main thread never query the database
+        usageCache.preload(event.getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            usageCache.finishJoin(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerJoin(PlayerJoinEvent event) {
+        usageCache.finishJoin(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void shopDelete(ShopDeleteEvent event) {
+        if (event.isFromMemory()) {
+            return;
+        }
+        long shopId = event.getShop().getShopId();
+        Util.asyncThreadRun(() -> usageCache.resetShop(shopId));
+    }
+
+    @Nullable
+    public String getPeriod(ConfigurationSection storage) {
+        String period = storage.getString("period");
+        if (StringUtils.isEmpty(period)) {
+            return null;
+        }
+        try {
+            return CalendarEvent.CalendarTriggerType.valueOf(period).name();
+        } catch (IllegalArgumentException ignored) {
+            return null;
+        }
+    }
+
+    public UsageCounterCache getUsageCache() {
+        return usageCache;
+    }
+
+    /**
+     * Move the usage counters that stored in shop extra data (data.&lt;uuid&gt;) by legacy versions into usage table.
+     */
+    private void migrateLegacyUsages() {
+        plugin.getShopManager().getAllShops().forEach(shop -> {
+            ConfigurationSection storage = shop.getExtra(this);
+            ConfigurationSection legacy = storage.getConfigurationSection("data");
+            if (legacy == null) {
                 return;
             }
-            try {
-                if (event.getCalendarTriggerType().ordinal() >= CalendarEvent.CalendarTriggerType.valueOf(manager.getString("period")).ordinal()) {
-                    manager.set("data", null);
-                    shop.setExtra(this, manager);
-                    Log.debug("Limit data has been reset. Shop -> " + shop);
+            Map<UUID, Integer> usages = new HashMap<>();
+            for (String key : legacy.getKeys(false)) {
+                try {
+                    usages.put(UUID.fromString(key), legacy.getInt(key));
+                } catch (IllegalArgumentException ignored) {
+                    Log.debug("Skipping invalid limit data key " + key + " in shop " + shop);
                 }
-            } catch (IllegalArgumentException ignored) {
-                Log.debug("Limit data failed to reset. Shop -> " + shop + " type " + manager.getString("period") + " not exists.");
-                manager.set("period", null);
-                shop.setExtra(this, manager);
             }
-        }));
-
+            try {
+                usageCache.importUsages(shop.getShopId(), getPeriod(storage), usages);
+                storage.set("data", null);
+                shop.setExtra(this, storage);
+                Log.debug("Migrated " + usages.size() + " limit usages from shop extra data. Shop -> " + shop);
+            } catch (SQLException e) {
+                getLogger().log(Level.WARNING, "Failed to migrate limit usages of shop " + shop, e);
+            }
+        });
     }
 }
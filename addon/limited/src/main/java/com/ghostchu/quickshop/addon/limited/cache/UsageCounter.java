@@ -0,0 +1,65 @@
+package com.ghostchu.quickshop.addon.limited.cache;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A single player's usage counter on a single shop.
+ */
+public class UsageCounter {
+    private String period;
+    private int used;
+    private boolean dirty;
+
+    public UsageCounter(@Nullable String period, int used) {
+        this.period = period;
+        this.used = used;
+    }
+
+    public synchronized int getUsed() {
+        return used;
+    }
+
+    public synchronized int add(@Nullable String period, int amount) {
+        this.period = period;
+        this.used += amount;
+        this.dirty = true;
+        return this.used;
+    }
+
+    public synchronized void reset() {
+        if (this.used != 0) {
+            this.used = 0;
+            this.dirty = true;
+        }
+    }
+
+    @Nullable
+    public synchronized String getPeriod() {
+        return period;
+    }
+
+    public synchronized void setPeriod(@Nullable String period) {
+        this.period = period;
+    }
+
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    public synchronized void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Take a snapshot for writing back and mark this counter clean.
+     *
+     * @return {period, used}, or null if nothing changed since last snapshot
+     */
+    public synchronized Object @Nullable [] snapshotIfDirty() {
+        if (!dirty) {
+            return null;
+        }
+        dirty = false;
+        return new Object[]{period, used};
+    }
+}
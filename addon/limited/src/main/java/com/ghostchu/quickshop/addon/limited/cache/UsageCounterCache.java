@@ -0,0 +1,211 @@
+package com.ghostchu.quickshop.addon.limited.cache;
+
+import com.ghostchu.quickshop.addon.limited.Main;
+import com.ghostchu.quickshop.addon.limited.database.LimitedDatabaseHelper;
+import com.ghostchu.quickshop.util.logger.Log;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Write-behind cache of players' usage counters.
+ * <p>
+ * Counters are loaded per player (usually while logging in), mutated in memory and
+ * written back to database in batches by {@link #flush()}.
+ * Flush and reset operations are serialized on this cache, so a reset never races a stale write back.
+ */
+public class UsageCounterCache {
+    private final Main plugin;
+    private final LimitedDatabaseHelper databaseHelper;
+    private final Map<UUID, Map<Long, UsageCounter>> counters = new ConcurrentHashMap<>();
+    // Preloaded while logging in but not online yet, must not be evicted by flush
+    private final Set<UUID> joining = ConcurrentHashMap.newKeySet();
+
+    public UsageCounterCache(@NotNull Main plugin, @NotNull LimitedDatabaseHelper databaseHelper) {
+        this.plugin = plugin;
+        this.databaseHelper = databaseHelper;
+    }
+
+    /**
+     * Load the player's counters into cache if not loaded yet.
+     * This method will query the database, call it from async thread if possible.
+     *
+     * @param player The player
+     * @return The player's counters
+     */
+    @NotNull
+    public Map<Long, UsageCounter> load(@NotNull UUID player) {
+        Map<Long, UsageCounter> loaded = counters.get(player);
+        if (loaded != null) {
+            return loaded;
+        }
+        Map<Long, UsageCounter> fromDatabase;
+        try {
+            fromDatabase = new ConcurrentHashMap<>(databaseHelper.loadPlayerUsages(player));
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to load limit usages for player " + player, e);
+            fromDatabase = new ConcurrentHashMap<>();
+        }
+        Map<Long, UsageCounter> exists = counters.putIfAbsent(player, fromDatabase);
+        return exists == null ? fromDatabase : exists;
+    }
+
+    /**
+     * Load the player's counters while the player logging in, and keep them in cache until the player joined.
+     * This method will query the database, call it from async thread.
+     *
+     * @param player The player
+     */
+    public void preload(@NotNull UUID player) {
+        joining.add(player);
+        load(player);
+    }
+
+    /**
+     * Mark the player preloaded by {@link #preload(UUID)} is joined or refused, the counters can be evicted after quit.
+     *
+     * @param player The player
+     */
+    public void finishJoin(@NotNull UUID player) {
+        joining.remove(player);
+    }
+
+    public int getUsed(@NotNull UUID player, long shopId) {
+        UsageCounter counter = getLoaded(player).get(shopId);
+        return counter == null ? 0 : counter.getUsed();
+    }
+
+    public int increment(@NotNull UUID player, long shopId, @Nullable String period, int amount) {
+        return getLoaded(player).computeIfAbsent(shopId, id -> new UsageCounter(period, 0)).add(period, amount);
+    }
+
+    @NotNull
+    private Map<Long, UsageCounter> getLoaded(@NotNull UUID player) {
+        Map<Long, UsageCounter> loaded = counters.get(player);
+        if (loaded != null) {
+            return loaded;
+        }
+        // Counters are preloaded on login, only the players still loading after plugin enabled come here
+        Log.debug("Limit usages of player " + player + " not preloaded, loading them now.");
+        return load(player);
+    }
+
+    /**
+     * Reset the counters which belongs to any of given periods, both in memory and database.
+     *
+     * @param periods The period names
+     */
+    public synchronized void resetPeriods(@NotNull Collection<String> periods) {
+        for (Map<Long, UsageCounter> playerCounters : counters.values()) {
+            for (UsageCounter counter : playerCounters.values()) {
+                if (periods.contains(counter.getPeriod())) {
+                    counter.reset();
+                }
+            }
+        }
+        try {
+            int affected = databaseHelper.resetPeriods(periods);
+            Log.debug("Limit usages has been reset for periods " + periods + ", affected " + affected + " rows.");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to reset limit usages for periods " + periods, e);
+        }
+    }
+
+    /**
+     * Drop all counters of the specific shop, both in memory and database.
+     *
+     * @param shopId The shop id
+     */
+    public synchronized void resetShop(long shopId) {
+        for (Map<Long, UsageCounter> playerCounters : counters.values()) {
+            playerCounters.remove(shopId);
+        }
+        try {
+            databaseHelper.resetShop(shopId);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to reset limit usages for shop " + shopId, e);
+        }
+    }
+
+    /**
+     * Move all counters of the specific shop to another period, both in memory and database.
+     *
+     * @param shopId The shop id
+     * @param period The new period name
+     */
+    public synchronized void setShopPeriod(long shopId, @Nullable String period) {
+        for (Map<Long, UsageCounter> playerCounters : counters.values()) {
+            UsageCounter counter = playerCounters.get(shopId);
+            if (counter != null) {
+                counter.setPeriod(period);
+            }
+        }
+        try {
+            databaseHelper.setShopPeriod(shopId, period);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to update limit period for shop " + shopId, e);
+        }
+    }
+
+    /**
+     * Write all dirty counters back to database, and evict the players that no longer online.
+     */
+    public synchronized void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        List<UsageCounter> written = new ArrayList<>();
+        for (Map.Entry<UUID, Map<Long, UsageCounter>> playerEntry : counters.entrySet()) {
+            String player = playerEntry.getKey().toString();
+            for (Map.Entry<Long, UsageCounter> entry : playerEntry.getValue().entrySet()) {
+                Object[] snapshot = entry.getValue().snapshotIfDirty();
+                if (snapshot == null) {
+                    continue;
+                }
+                rows.add(new Object[]{entry.getKey(), player, snapshot[0], snapshot[1]});
+                written.add(entry.getValue());
+            }
+        }
+        try {
+            databaseHelper.saveUsages(rows);
+            if (!rows.isEmpty()) {
+                Log.debug("Flushed " + rows.size() + " limit usage counters.");
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to flush " + rows.size() + " limit usage counters, will retry later", e);
+            written.forEach(UsageCounter::markDirty);
+            return;
+        }
+        counters.entrySet().removeIf(entry -> Bukkit.getPlayer(entry.getKey()) == null
+                && !joining.contains(entry.getKey())
+                && entry.getValue().values().stream().noneMatch(UsageCounter::isDirty));
+    }
+
+    /**
+     * Import legacy counters that stored in shop extra data.
+     *
+     * @param shopId The shop id
+     * @param period The period name
+     * @param usages The usages mapped by player
+     */
+    public synchronized void importUsages(long shopId, @Nullable String period, @NotNull Map<UUID, Integer> usages) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(usages.size());
+        usages.forEach((player, used) -> {
+            rows.add(new Object[]{shopId, player.toString(), period, used});
+            Map<Long, UsageCounter> playerCounters = counters.get(player);
+            if (playerCounters != null) {
+                playerCounters.put(shopId, new UsageCounter(period, Objects.requireNonNullElse(used, 0)));
+            }
+        });
+        databaseHelper.saveUsages(rows);
+    }
+}
@@ -6,6 +6,7 @@ import com.ghostchu.quickshop.api.command.CommandHandler;
 import com.ghostchu.quickshop.api.command.CommandParser;
 import com.ghostchu.quickshop.api.event.CalendarEvent;
 import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.util.Util;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -44,7 +45,7 @@ public class SubCommand_Limit implements CommandHandler<Player> {
                         quickshop.text().of(sender, "addon.limited.success-setup").send();
                     } else {
                         manager.set("limit", null);
-                        manager.set("data", null);
+                        resetUsages(shop);
                         quickshop.text().of(sender, "addon.limited.success-remove").send();
                     }
                     shop.setExtra(Main.instance, manager);
@@ -54,13 +55,12 @@ public class SubCommand_Limit implements CommandHandler<Player> {
             }
             case "unset" -> {
                 manager.set("limit", null);
-                manager.set("data", null);
+                resetUsages(shop);
                 quickshop.text().of(sender, "addon.limited.success-remove").send();
                 shop.setExtra(Main.instance, manager);
             }
             case "reset" -> {
-                manager.set("data", null);
-                shop.setExtra(Main.instance, manager);
+                resetUsages(shop);
                 quickshop.text().of(sender, "addon.limited.success-reset").send();
             }
             case "period" -> {
@@ -69,6 +69,8 @@ public class SubCommand_Limit implements CommandHandler<Player> {
                     manager.set("period", type.name());
                     quickshop.text().of(sender, "addon.limited.success-setup").send();
                     shop.setExtra(Main.instance, manager);
+                    long shopId = shop.getShopId();
+                    Util.asyncThreadRun(() -> Main.instance.getUsageCache().setShopPeriod(shopId, type.name()));
                 } catch (IllegalArgumentException ignored) {
                     quickshop.text().of(sender, "command.wrong-args", parser.getArgs().get(1)).send();
                 }
@@ -76,6 +78,11 @@ public class SubCommand_Limit implements CommandHandler<Player> {
         }
     }
 
+    private void resetUsages(@NotNull Shop shop) {
+        long shopId = shop.getShopId();
+        Util.asyncThreadRun(() -> Main.instance.getUsageCache().resetShop(shopId));
+    }
+
     @Override
     public @Nullable List<String> onTabComplete(@NotNull Player sender, @NotNull String commandLabel, @NotNull String[] cmdArg) {
         if (cmdArg.length < 2) {
@@ -0,0 +1,102 @@
+package com.ghostchu.quickshop.addon.limited.database;
+
+import cc.carm.lib.easysql.api.SQLManager;
+import cc.carm.lib.easysql.api.SQLQuery;
+import com.ghostchu.quickshop.addon.limited.Main;
+import com.ghostchu.quickshop.addon.limited.cache.UsageCounter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+public class LimitedDatabaseHelper {
+    private final Main plugin;
+
+    public LimitedDatabaseHelper(@NotNull Main plugin, @NotNull SQLManager sqlManager, @NotNull String dbPrefix) throws SQLException {
+        this.plugin = plugin;
+        try {
+            LimitedTables.initializeTables(sqlManager, dbPrefix);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Cannot initialize tables", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Loads all usage counters of the specific player.
+     *
+     * @param player The player
+     * @return The usage counters, mapped by shop id
+     * @throws SQLException Failed to query the database
+     */
+    @NotNull
+    public Map<Long, UsageCounter> loadPlayerUsages(@NotNull UUID player) throws SQLException {
+        Map<Long, UsageCounter> usages = new HashMap<>();
+        try (SQLQuery query = LimitedTables.LIMITED_USAGE.createQuery()
+                .selectColumns("shop", "period", "used")
+                .addCondition("player", player.toString())
+                .build().execute();
+             ResultSet set = query.getResultSet()) {
+            while (set.next()) {
+                usages.put(set.getLong("shop"), new UsageCounter(set.getString("period"), set.getInt("used")));
+            }
+        }
+        return usages;
+    }
+
+    /**
+     * Writes the usage rows to database, existing rows will be replaced.
+     *
+     * @param rows The rows, each row is {shop, player, period, used}
+     * @throws SQLException Failed to write the database
+     */
+    public void saveUsages(@NotNull List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        LimitedTables.LIMITED_USAGE.createReplaceBatch()
+                .setColumnNames("shop", "player", "period", "used")
+                .setAllParams(rows)
+                .execute();
+    }
+
+    /**
+     * Reset the used limit of all rows that belongs to the given periods.
+     *
+     * @param periods The period names
+     * @return affected rows
+     * @throws SQLException Failed to update the database
+     */
+    public int resetPeriods(@NotNull Collection<String> periods) throws SQLException {
+        if (periods.isEmpty()) {
+            return 0;
+        }
+        // Period names are CalendarTriggerType constants, safe to be inlined.
+        String in = periods.stream().map(p -> "'" + p + "'").collect(Collectors.joining(","));
+        return LimitedTables.LIMITED_USAGE.createUpdate()
+                .setColumnValues("used", 0)
+                .addCondition("`period` IN (" + in + ")")
+                .build().execute();
+    }
+
+    public int resetShop(long shopId) throws SQLException {
+        return LimitedTables.LIMITED_USAGE.createDelete()
+                .addCondition("shop", shopId)
+                .build().execute();
+    }
+
+    public int setShopPeriod(long shopId, @Nullable String period) throws SQLException {
+        return LimitedTables.LIMITED_USAGE.createUpdate()
+                .setColumnValues("period", period)
+                .addCondition("shop", shopId)
+                .build().execute();
+    }
+}
@@ -9,19 +9,19 @@ import com.djrapitops.plan.extension.icon.Icon;
 import com.djrapitops.plan.extension.table.Table;
 import com.ghostchu.quickshop.addon.plan.util.DataUtil;
 import com.ghostchu.quickshop.addon.plan.util.DateUtil;
-import com.ghostchu.quickshop.addon.plan.util.MetricQuery;
-import com.ghostchu.quickshop.api.database.ShopMetricRecord;
-import com.ghostchu.quickshop.api.database.bean.DataRecord;
+import com.ghostchu.quickshop.api.database.ShopOperationEnum;
 import com.ghostchu.quickshop.api.shop.Shop;
 import com.ghostchu.quickshop.common.util.CommonUtil;
+import com.ghostchu.quickshop.database.MetricQuery;
 import com.ghostchu.quickshop.database.SimpleDatabaseHelperV2;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.sql.SQLException;
 import java.text.DecimalFormat;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ExecutionException;
 
 @PluginInfo(name = "QuickShop-Hikari", iconName = "credit-card", iconFamily = Family.REGULAR, color = Color.LIGHT_BLUE)
 @TabInfo(tab = "Summary", iconName = "info-circle", iconFamily = Family.SOLID, elementOrder = {})
@@ -47,6 +47,22 @@ public class HikariDataExtension implements DataExtension {
                 CallEvents.SERVER_PERIODICAL};
     }
 
+    @NotNull
+    private List<MetricQuery.PurchaseRecord> queryRecentPurchases(@Nullable String buyer, int limit) {
+        MetricQuery.PurchaseFilter filter = MetricQuery.PurchaseFilter.builder()
+                .from(DateUtil.daysAgo(365))
+                .buyer(buyer)
+                //noinspection deprecation
+                .types(List.of(ShopOperationEnum.PURCHASE, ShopOperationEnum.PURCHASE_BUYING_SHOP, ShopOperationEnum.PURCHASE_SELLING_SHOP))
+                .descending(true)
+                .build();
+        try {
+            return metricQuery.queryPurchases(filter, null, limit).records();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to query the purchase records", e);
+        }
+    }
+
     // ======================= GLOBAL PROVIDERS =======================
 
     @StringProvider(text = "Total shops", description = "How many shops exists on this server", iconName = "hashtable", iconColor = Color.GREEN, priority = 100)
@@ -70,23 +86,13 @@ public class HikariDataExtension implements DataExtension {
                 .columnThree("Shop", Icon.called("shopping-cart").build())
                 .columnFour("Item(amount)", Icon.called("box").build())
                 .columnFive("Balance", Icon.called("money-bill-wave").build());
-        List<ShopMetricRecord> records = this.metricQuery.queryServerPurchaseRecords(DateUtil.daysAgo(365), 1000, true).stream().filter(record -> switch (record.getType()) {
-            //noinspection deprecation
-            case PURCHASE, PURCHASE_BUYING_SHOP, PURCHASE_SELLING_SHOP -> true;
-            default -> false;
-        }).toList();
-        try {
-            LinkedHashMap<ShopMetricRecord, DataRecord> recordsMapped = this.metricQuery.mapToDataRecord(records);
-            recordsMapped.forEach((metric, data) -> {
-                String player = metric.getPlayer();
-                String action = CommonUtil.prettifyText(metric.getType().name());
-                String shop = dataUtil.getShopName(metric, data);
-                String item = dataUtil.getItemName(data) + " (" + metric.getAmount() + ")";
-                String balance = dataUtil.formatEconomy(metric);
-                tableBuilder.addRow(player, action, shop, item, balance);
-            });
-        } catch (ExecutionException | InterruptedException e) {
-            throw new RuntimeException(e);
+        for (MetricQuery.PurchaseRecord record : queryRecentPurchases(null, 1000)) {
+            String player = record.buyer();
+            String action = CommonUtil.prettifyText(record.type().name());
+            String shop = dataUtil.getShopName(record.shopId(), record.data());
+            String item = dataUtil.getItemName(record.data()) + " (" + record.amount() + ")";
+            String balance = dataUtil.formatEconomy(record.shopId(), record.total());
+            tableBuilder.addRow(player, action, shop, item, balance);
         }
         return tableBuilder.build();
     }
@@ -135,22 +141,12 @@ public class HikariDataExtension implements DataExtension {
                 .columnThree("Item(amount)", Icon.called("box").build())
                 .columnFour("Balance", Icon.called("money-bill-wave").build());
 
-        List<ShopMetricRecord> records = this.metricQuery.queryServerPurchaseRecords(DateUtil.daysAgo(365), 50, true).stream().filter(record -> switch (record.getType()) {
-            //noinspection deprecation
-            case PURCHASE, PURCHASE_BUYING_SHOP, PURCHASE_SELLING_SHOP -> true;
-            default -> false;
-        }).toList();
-        try {
-            LinkedHashMap<ShopMetricRecord, DataRecord> recordsMapped = this.metricQuery.mapToDataRecord(records);
-            recordsMapped.forEach((metric, data) -> {
-                String action = CommonUtil.prettifyText(metric.getType().name());
-                String shop = dataUtil.getShopName(metric, data);
-                String item = dataUtil.getItemName(data) + " (" + metric.getAmount() + ")";
-                String balance = dataUtil.formatEconomy(metric);
-                tableBuilder.addRow(action, shop, item, balance);
-            });
-        } catch (ExecutionException | InterruptedException e) {
-            throw new RuntimeException(e);
+        for (MetricQuery.PurchaseRecord record : queryRecentPurchases(playerUUID.toString(), 50)) {
+            String action = CommonUtil.prettifyText(record.type().name());
+            String shop = dataUtil.getShopName(record.shopId(), record.data());
+            String item = dataUtil.getItemName(record.data()) + " (" + record.amount() + ")";
+            String balance = dataUtil.formatEconomy(record.shopId(), record.total());
+            tableBuilder.addRow(action, shop, item, balance);
         }
         return tableBuilder.build();
     }
@@ -1,7 +1,6 @@
 package com.ghostchu.quickshop.addon.plan.util;
 
 import com.ghostchu.quickshop.addon.plan.Main;
-import com.ghostchu.quickshop.api.database.ShopMetricRecord;
 import com.ghostchu.quickshop.api.database.bean.DataRecord;
 import com.ghostchu.quickshop.api.shop.Shop;
 import com.ghostchu.quickshop.common.util.CommonUtil;
@@ -12,6 +11,7 @@ import org.bukkit.Location;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.text.DecimalFormat;
 import java.util.UUID;
@@ -24,17 +24,20 @@ public class DataUtil {
     }
 
     @NotNull
-    public String formatEconomy(@NotNull ShopMetricRecord record) {
-        Shop shop = main.getQuickShop().getShopManager().getShop(record.getShopId());
+    public String formatEconomy(long shopId, double total) {
+        Shop shop = main.getQuickShop().getShopManager().getShop(shopId);
         if (shop == null || main.getQuickShop().getEconomy() == null) {
             DecimalFormat df = new DecimalFormat("#.00");
-            return df.format(record.getTotal());
+            return df.format(total);
         }
-        return main.getQuickShop().getEconomy().format(record.getTotal(), shop.getLocation().getWorld(), shop.getCurrency());
+        return main.getQuickShop().getEconomy().format(total, shop.getLocation().getWorld(), shop.getCurrency());
     }
 
     @NotNull
-    public String getItemName(@NotNull DataRecord dataRecord) {
+    public String getItemName(@Nullable DataRecord dataRecord) {
+        if (dataRecord == null) {
+            return "N/A";
+        }
         ItemStack stack;
         try {
             stack = Util.deserialize(dataRecord.getItem());
@@ -61,13 +64,13 @@ public class DataUtil {
     }
 
     @NotNull
-    public String getShopName(@NotNull ShopMetricRecord record, @NotNull DataRecord dataRecord) {
+    public String getShopName(long shopId, @Nullable DataRecord dataRecord) {
         StringBuilder nameBuilder = new StringBuilder();
-        Shop shop = main.getQuickShop().getShopManager().getShop(record.getShopId());
+        Shop shop = main.getQuickShop().getShopManager().getShop(shopId);
         if (shop == null) {
             nameBuilder.append("[Deleted] ");
         }
-        String shopName = dataRecord.getName();
+        String shopName = dataRecord == null ? null : dataRecord.getName();
         if (shopName != null) {
             nameBuilder.append(ChatColor.stripColor(shopName));
         } else {
@@ -15,7 +15,6 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.util.BoundingBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -31,30 +30,15 @@ public abstract class CompatibilityModule extends JavaPlugin implements Listener
     }
 
     public List<Shop> getShops(@NotNull String worldName, int minX, int minZ, int maxX, int maxZ) {
-        List<Shop> shopsList = new ArrayList<>();
-        for (int x = minX >> 4; x <= maxX >> 4; x++) {
-            for (int z = minZ >> 4; z <= maxZ >> 4; z++) {
-                Map<Location, Shop> shops = this.api.getShopManager().getShops(worldName, x, z);
-                if (shops != null) {
-                    shopsList.addAll(shops.values());
-                }
-            }
-        }
-        BoundingBox boundingBox = new BoundingBox(minX, Integer.MIN_VALUE, minZ, maxX, Integer.MAX_VALUE, maxZ);
-        return shopsList.stream().filter(s -> boundingBox.contains(s.getLocation().toVector())).toList();
+        return this.api.getShopManager().getShopsInRegion(worldName, minX, minZ, maxX, maxZ);
     }
 
     public List<Shop> getShops(@NotNull String worldName, int chunkX, int chunkZ) {
-        List<Shop> shopsList = new ArrayList<>();
-        for (int x = chunkX; x <= chunkX; x++) {
-            for (int z = chunkZ; z <= chunkZ; z++) {
-                Map<Location, Shop> shops = this.api.getShopManager().getShops(worldName, x, z);
-                if (shops != null) {
-                    shopsList.addAll(shops.values());
-                }
-            }
+        Map<Location, Shop> shops = this.api.getShopManager().getShops(worldName, chunkX, chunkZ);
+        if (shops == null) {
+            return new ArrayList<>();
         }
-        return shopsList;
+        return new ArrayList<>(shops.values());
     }
 
     @Override
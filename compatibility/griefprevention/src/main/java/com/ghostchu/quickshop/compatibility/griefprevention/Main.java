@@ -17,7 +17,6 @@ import me.ryanhamshire.GriefPrevention.ClaimPermission;
 import me.ryanhamshire.GriefPrevention.GriefPrevention;
 import me.ryanhamshire.GriefPrevention.events.*;
 import org.bukkit.Bukkit;
-import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -98,15 +97,10 @@ public final class Main extends CompatibilityModule implements Listener {
 
     // If it is the main claim, then we will delete all the shops that were inside of it.
     private void handleMainClaimUnclaimedOrExpired(Claim claim, String logMessage) {
-        for (Chunk chunk : claim.getChunks()) {
-            Map<Location, Shop> shops = getApi().getShopManager().getShops(chunk);
-            if (shops != null) {
-                for (Shop shop : shops.values()) {
-                    if (claim.contains(shop.getLocation(), false, false)) {
-                        getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [System] Claim/SubClaim Unclaimed/Expired: " + logMessage, this.getName(), shop), shop.saveToInfoStorage()));
-                        getApi().getShopManager().deleteShop(shop);
-                    }
-                }
+        for (Shop shop : getShopsInClaim(claim)) {
+            if (claim.contains(shop.getLocation(), false, false)) {
+                getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [System] Claim/SubClaim Unclaimed/Expired: " + logMessage, this.getName(), shop), shop.saveToInfoStorage()));
+                getApi().getShopManager().deleteShop(shop);
             }
         }
     }
@@ -115,20 +109,22 @@ public final class Main extends CompatibilityModule implements Listener {
     // If it is a main claim, then we will remove the shops if the main claim was resized (size was decreased).
     // A shop will be removed if the old claim contains it but the new claim doesn't.
     private void handleMainClaimResized(Claim oldClaim, Claim newClaim) {
-        for (Chunk chunk : oldClaim.getChunks()) {
-            Map<Location, Shop> shops = getApi().getShopManager().getShops(chunk);
-            if (shops != null) {
-                for (Shop shop : shops.values()) {
-                    if (oldClaim.contains(shop.getLocation(), false, false) &&
-                            !newClaim.contains(shop.getLocation(), false, false)) {
-                        getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [Single] Claim Resized: ", this.getName(), shop), shop.saveToInfoStorage()));
-                        getApi().getShopManager().deleteShop(shop);
-                    }
-                }
+        for (Shop shop : getShopsInClaim(oldClaim)) {
+            if (oldClaim.contains(shop.getLocation(), false, false) &&
+                    !newClaim.contains(shop.getLocation(), false, false)) {
+                getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [Single] Claim Resized: ", this.getName(), shop), shop.saveToInfoStorage()));
+                getApi().getShopManager().deleteShop(shop);
             }
         }
     }
 
+    // Only visit the chunks that have shops, Claim#getChunks() would load every chunk of the claim.
+    private List<Shop> getShopsInClaim(Claim claim) {
+        Location lesser = claim.getLesserBoundaryCorner();
+        Location greater = claim.getGreaterBoundaryCorner();
+        return getShops(lesser.getWorld().getName(), lesser.getBlockX(), lesser.getBlockZ(), greater.getBlockX() + 1, greater.getBlockZ() + 1);
+    }
+
     // If it is a subclaim, then we will remove the shops in 2 situations.
     // We will never remove the shops of the claim owner.
     // We will remove a shop if the shop was inside the subclaim but now it is outside the subclaim.
@@ -139,17 +135,12 @@ public final class Main extends CompatibilityModule implements Listener {
     }
 
     private void handleSubClaimResizedHelper(Claim claimVerifyChunks, Claim claimVerifyShop) {
-        for (Chunk chunk : claimVerifyChunks.getChunks()) {
-            Map<Location, Shop> shops = getApi().getShopManager().getShops(chunk);
-            if (shops != null) {
-                for (Shop shop : shops.values()) {
-                    if (!claimVerifyChunks.getOwnerID().equals(shop.getOwner().getUniqueId()) &&
-                            claimVerifyChunks.contains(shop.getLocation(), false, false) &&
-                            !claimVerifyShop.contains(shop.getLocation(), false, false)) {
-                        getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [Single] SubClaim Resized: ", this.getName(), shop), shop.saveToInfoStorage()));
-                        getApi().getShopManager().deleteShop(shop);
-                    }
-                }
+        for (Shop shop : getShopsInClaim(claimVerifyChunks)) {
+            if (!claimVerifyChunks.getOwnerID().equals(shop.getOwner().getUniqueId()) &&
+                    claimVerifyChunks.contains(shop.getLocation(), false, false) &&
+                    !claimVerifyShop.contains(shop.getLocation(), false, false)) {
+                getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [Single] SubClaim Resized: ", this.getName(), shop), shop.saveToInfoStorage()));
+                getApi().getShopManager().deleteShop(shop);
             }
         }
     }
@@ -178,25 +169,19 @@ public final class Main extends CompatibilityModule implements Listener {
         if (event.isGiven()) {
             return;
         }
-        for (Chunk chunk : claim.getChunks()) {
-            Map<Location, Shop> shops = getApi().getShopManager().getShops(chunk);
-            if (shops == null) {
+        for (Shop shop : getShopsInClaim(claim)) {
+            if (claim.getOwnerID().equals(shop.getOwner().getUniqueId())) {
                 continue;
             }
-            for (Shop shop : shops.values()) {
-                if (claim.getOwnerID().equals(shop.getOwner().getUniqueId())) {
-                    continue;
-                }
-                if (event.getIdentifier().equals(shop.getOwner().getUniqueIdIfRealPlayer().orElse(CommonUtil.getNilUniqueId()).toString())) {
-                    getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(event.getChanger()), String.format("[%s Integration]Shop %s deleted caused by [Single] Claim/SubClaim Trust Changed", this.getName(), shop), shop.saveToInfoStorage()));
-                    getApi().getShopManager().deleteShop(shop);
-                } else if (event.getIdentifier().contains(shop.getOwner().getUniqueIdIfRealPlayer().orElse(CommonUtil.getNilUniqueId()).toString())) {
-                    getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(event.getChanger()), String.format("[%s Integration]Shop %s deleted caused by [Group] Claim/SubClaim Trust Changed", this.getName(), shop), shop.saveToInfoStorage()));
-                    getApi().getShopManager().deleteShop(shop);
-                } else if ("all".equals(event.getIdentifier()) || "public".equals(event.getIdentifier())) {
-                    getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(event.getChanger()), String.format("[%s Integration]Shop %s deleted caused by [All/Public] Claim/SubClaim Trust Changed", this.getName(), shop), shop.saveToInfoStorage()));
-                    getApi().getShopManager().deleteShop(shop);
-                }
+            if (event.getIdentifier().equals(shop.getOwner().getUniqueIdIfRealPlayer().orElse(CommonUtil.getNilUniqueId()).toString())) {
+                getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(event.getChanger()), String.format("[%s Integration]Shop %s deleted caused by [Single] Claim/SubClaim Trust Changed", this.getName(), shop), shop.saveToInfoStorage()));
+                getApi().getShopManager().deleteShop(shop);
+            } else if (event.getIdentifier().contains(shop.getOwner().getUniqueIdIfRealPlayer().orElse(CommonUtil.getNilUniqueId()).toString())) {
+                getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(event.getChanger()), String.format("[%s Integration]Shop %s deleted caused by [Group] Claim/SubClaim Trust Changed", this.getName(), shop), shop.saveToInfoStorage()));
+                getApi().getShopManager().deleteShop(shop);
+            } else if ("all".equals(event.getIdentifier()) || "public".equals(event.getIdentifier())) {
+                getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(event.getChanger()), String.format("[%s Integration]Shop %s deleted caused by [All/Public] Claim/SubClaim Trust Changed", this.getName(), shop), shop.saveToInfoStorage()));
+                getApi().getShopManager().deleteShop(shop);
             }
         }
     }
@@ -218,16 +203,11 @@ public final class Main extends CompatibilityModule implements Listener {
     // If it is a subclaim, then we will not remove the shops of the main claim owner.
     // But we will remove all the others.
     private void handleSubClaimUnclaimed(Claim subClaim) {
-        for (Chunk chunk : subClaim.getChunks()) {
-            Map<Location, Shop> shops = getApi().getShopManager().getShops(chunk);
-            if (shops != null) {
-                for (Shop shop : shops.values()) {
-                    if (!subClaim.getOwnerID().equals(shop.getOwner().getUniqueId()) &&
-                            subClaim.contains(shop.getLocation(), false, false)) {
-                        getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [Single] SubClaim Unclaimed", this.getName(), shop), shop.saveToInfoStorage()));
-                        getApi().getShopManager().deleteShop(shop);
-                    }
-                }
+        for (Shop shop : getShopsInClaim(subClaim)) {
+            if (!subClaim.getOwnerID().equals(shop.getOwner().getUniqueId()) &&
+                    subClaim.contains(shop.getLocation(), false, false)) {
+                getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [Single] SubClaim Unclaimed", this.getName(), shop), shop.saveToInfoStorage()));
+                getApi().getShopManager().deleteShop(shop);
             }
         }
     }
@@ -280,16 +260,11 @@ public final class Main extends CompatibilityModule implements Listener {
         if (event.getClaim().parent == null) {
             return;
         }
-        for (Chunk chunk : event.getClaim().getChunks()) {
-            Map<Location, Shop> shops = getApi().getShopManager().getShops(chunk);
-            if (shops != null) {
-                for (Shop shop : shops.values()) {
-                    if (!event.getClaim().getOwnerID().equals(shop.getOwner().getUniqueId()) &&
-                            event.getClaim().contains(shop.getLocation(), false, false)) {
-                        getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [Single] SubClaim Created", this.getName(), shop), shop.saveToInfoStorage()));
-                        getApi().getShopManager().deleteShop(shop);
-                    }
-                }
+        for (Shop shop : getShopsInClaim(event.getClaim())) {
+            if (!event.getClaim().getOwnerID().equals(shop.getOwner().getUniqueId()) &&
+                    event.getClaim().contains(shop.getLocation(), false, false)) {
+                getApi().logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "GriefPrevention", false), String.format("[%s Integration]Shop %s deleted caused by [Single] SubClaim Created", this.getName(), shop), shop.saveToInfoStorage()));
+                getApi().getShopManager().deleteShop(shop);
             }
         }
     }
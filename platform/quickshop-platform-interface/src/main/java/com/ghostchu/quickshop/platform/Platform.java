@@ -91,6 +91,18 @@ public interface Platform {
 
     void sendMessage(@NotNull CommandSender sender, @NotNull Component component);
 
+    /**
+     * Send the same message to multiple receivers, the platform may serialize the component only once for all of them.
+     *
+     * @param receivers The receivers
+     * @param component The message
+     */
+    default void sendMessage(@NotNull Collection<? extends CommandSender> receivers, @NotNull Component component) {
+        for (CommandSender receiver : receivers) {
+            sendMessage(receiver, component);
+        }
+    }
+
     void sendSignTextChange(@NotNull Player player, @NotNull Sign sign, boolean glowing, @NotNull List<Component> components);
 
     void setDisplayName(@NotNull ItemStack stack, @Nullable Component component);
@@ -15,6 +15,7 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.bungeecord.BungeeComponentSerializer;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.md_5.bungee.api.chat.BaseComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
@@ -141,6 +142,18 @@ public abstract class AbstractSpigotPlatform implements Platform {
         sender.spigot().sendMessage(BungeeComponentSerializer.get().serialize(component));
     }
 
+    @Override
+    public void sendMessage(@NotNull Collection<? extends CommandSender> receivers, @NotNull Component component) {
+        if (receivers.isEmpty()) {
+            return;
+        }
+        // Serialize once, the BaseComponents are read-only while sending
+        BaseComponent[] serialized = BungeeComponentSerializer.get().serialize(component);
+        for (CommandSender receiver : receivers) {
+            receiver.spigot().sendMessage(serialized);
+        }
+    }
+
     @Override
     public void shutdown() {
         if (this.audience != null) {
@@ -185,6 +185,14 @@ public interface DatabaseHelper {
      */
     @NotNull CompletableFuture<@NotNull Integer> saveOfflineTransactionMessage(@NotNull UUID player, @NotNull String message, long time);
 
+    /**
+     * Insert the transaction messages in one batch
+     *
+     * @param receiverMessageTime The messages, left is receiver, middle is message content, right is system time
+     * @return affected lines
+     */
+    @NotNull CompletableFuture<@NotNull Integer> saveOfflineTransactionMessageInBatch(@NotNull List<Triple<UUID, String, Long>> receiverMessageTime);
+
     /**
      * Select all messages that saved in the database
      *
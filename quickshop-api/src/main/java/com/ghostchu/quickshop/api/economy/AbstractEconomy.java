@@ -8,6 +8,12 @@ import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Abstract Economy Core
  */
@@ -47,6 +53,75 @@ public abstract class AbstractEconomy implements EconomyCore, Reloadable {
         return false;
     }
 
+    /**
+     * Gets whether this economy can be called from threads other than the server main thread.
+     * QuickShop will commit the economy part of trades off the main thread if it returns true.
+     *
+     * @return true if async-safe
+     */
+    public boolean isAsyncSafe() {
+        return false;
+    }
+
+    /**
+     * Fetches the balances of many accounts at once.
+     * Providers that have a bulk query should override it, the default implementation queries them one by one.
+     *
+     * @param users    The accounts
+     * @param world    The transaction world
+     * @param currency The currency name
+     * @return The balances mapped by account, in the same order as given
+     */
+    @NotNull
+    public Map<QUser, Double> getBalances(@NotNull Collection<QUser> users, @NotNull World world, @Nullable String currency) {
+        Map<QUser, Double> balances = new LinkedHashMap<>();
+        for (QUser user : users) {
+            balances.put(user, getBalance(user, world, currency));
+        }
+        return balances;
+    }
+
+    /**
+     * Settles the balance changes of multiple parties as a whole, e.g. buyer, seller and tax account of a trade.
+     * Negative changes are withdrawn first, then positive changes are deposited, the applied changes will be rolled back
+     * if any of them failed.
+     * Providers that have native multi-party transaction should override it, the default implementation falls back
+     * to withdraw and deposit one by one.
+     *
+     * @param changes  The balance changes mapped by account, negative for withdraw and positive for deposit
+     * @param world    The transaction world
+     * @param currency The currency name
+     * @return true if all changes applied
+     */
+    public boolean settle(@NotNull Map<QUser, Double> changes, @NotNull World world, @Nullable String currency) {
+        if (!isValid()) {
+            return false;
+        }
+        List<Map.Entry<QUser, Double>> ordered = new ArrayList<>(changes.entrySet());
+        ordered.sort(Map.Entry.comparingByValue());
+        List<Map.Entry<QUser, Double>> applied = new ArrayList<>();
+        for (Map.Entry<QUser, Double> change : ordered) {
+            double amount = change.getValue();
+            if (amount == 0) {
+                continue;
+            }
+            boolean success = amount < 0 ? withdraw(change.getKey(), -amount, world, currency) : deposit(change.getKey(), amount, world, currency);
+            if (!success) {
+                for (int i = applied.size() - 1; i >= 0; i--) {
+                    Map.Entry<QUser, Double> rollback = applied.get(i);
+                    if (rollback.getValue() < 0) {
+                        deposit(rollback.getKey(), -rollback.getValue(), world, currency);
+                    } else {
+                        withdraw(rollback.getKey(), rollback.getValue(), world, currency);
+                    }
+                }
+                return false;
+            }
+            applied.add(change);
+        }
+        return true;
+    }
+
     public abstract String getProviderName();
 
     /**
@@ -19,4 +19,15 @@ public interface PostProcessor {
      */
     @NotNull
     Component process(@NotNull Component text, @Nullable CommandSender sender, @Nullable Component... args);
+
+    /**
+     * Whether the result only depends on the text, not the sender or the arguments.
+     * The argument-independent processors are applied once while the message template compiling,
+     * before the arguments filled, and won't be called again while rendering.
+     *
+     * @return true if the processor is argument-independent
+     */
+    default boolean isArgumentIndependent() {
+        return false;
+    }
 }
@@ -193,6 +193,15 @@ public interface Shop {
      */
     int getRemainingStock();
 
+    /**
+     * Gets the immutable snapshot of the shop, can be called from any thread without blocking.
+     * The stock and space in the snapshot are the values counted last time.
+     *
+     * @return The latest snapshot
+     */
+    @NotNull
+    ShopSnapshot getSnapshot();
+
     /**
      * WARNING: This UUID will changed after plugin reload, shop reload or server restart
      * DO NOT USE IT TO STORE DATA!
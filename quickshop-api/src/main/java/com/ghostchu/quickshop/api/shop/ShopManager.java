@@ -173,6 +173,23 @@ public interface ShopManager {
      */
     @Nullable Shop getShop(long shopId);
 
+    /**
+     * Gets the snapshots of all shops, can be called from any thread.
+     *
+     * @return The snapshots
+     */
+    @NotNull
+    List<ShopSnapshot> getShopSnapshots();
+
+    /**
+     * Gets the snapshots of the shops, can be called from any thread.
+     *
+     * @param shopIds The shop ids, the ids not exist are ignored
+     * @return The snapshots
+     */
+    @NotNull
+    List<ShopSnapshot> getShopSnapshots(@NotNull Collection<Long> shopIds);
+
     /**
      * Gets a shop in a specific location
      * ATTENTION: This not include attached shops (double-chest)
@@ -289,6 +306,52 @@ public interface ShopManager {
      */
     @NotNull List<Shop> getShopsInWorld(@NotNull String worldName);
 
+    /**
+     * Get the all shops in the rectangle region of the world.
+     * Only the chunks that contain shops will be visited.
+     *
+     * @param world The world name
+     * @param minX  The min block x (inclusive)
+     * @param minZ  The min block z (inclusive)
+     * @param maxX  The max block x (exclusive)
+     * @param maxZ  The max block z (exclusive)
+     * @return The shops in the region
+     */
+    @NotNull List<Shop> getShopsInRegion(@NotNull String world, int minX, int minZ, int maxX, int maxZ);
+
+    /**
+     * Get the chunks that contain shops in the rectangle chunk region of the world.
+     *
+     * @param world     The world name
+     * @param minChunkX The min chunk x (inclusive)
+     * @param minChunkZ The min chunk z (inclusive)
+     * @param maxChunkX The max chunk x (inclusive)
+     * @param maxChunkZ The max chunk z (inclusive)
+     * @return The chunks that contain shops
+     */
+    @NotNull List<ShopChunk> getShopChunksInRegion(@NotNull String world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ);
+
+    /**
+     * Get the shops affected by the given blocks in one pass, e.g. the block list of an explosion.
+     * A shop is affected if any block is the shop block, the other half of the shop's double chest or a sign attached to the shop.
+     * Blocks in the chunks that have no shops nearby are skipped without reading any block data.
+     *
+     * @param blocks The blocks, usually in the same world
+     * @return The affected shops
+     */
+    @NotNull Set<Shop> getShopsAffectedByBlocks(@NotNull Collection<Block> blocks);
+
+    /**
+     * Fast negative check whether there may be any shop at or next to the block, without allocation.
+     * It is designed for hot events, a true result may be false positive and must be verified by a real lookup.
+     *
+     * @param world  The world name
+     * @param blockX The block x
+     * @param blockZ The block z
+     * @return false if there is definitely no shop within one block
+     */
+    boolean mightHaveShopsAround(@NotNull String world, int blockX, int blockZ);
+
 
     /**
      * Get the tax of the shop
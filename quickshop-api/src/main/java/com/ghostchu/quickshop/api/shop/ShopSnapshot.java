@@ -0,0 +1,110 @@
+package com.ghostchu.quickshop.api.shop;
+
+import com.ghostchu.quickshop.api.obj.QUser;
+import net.kyori.adventure.text.Component;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable copy of the shop state, can be read from any thread.
+ * <p>
+ * The shop publishes a new snapshot every time it changes, use {@link #getVersion()} to check if
+ * something changed since the last read.
+ */
+public interface ShopSnapshot {
+    /**
+     * Gets the shop id
+     *
+     * @return The shop id
+     */
+    long getShopId();
+
+    /**
+     * Gets the name of the world the shop in
+     *
+     * @return The world name
+     */
+    @NotNull
+    String getWorld();
+
+    int getX();
+
+    int getY();
+
+    int getZ();
+
+    /**
+     * Gets the shop owner
+     *
+     * @return The shop owner
+     */
+    @NotNull
+    QUser getOwner();
+
+    /**
+     * Gets the trading item, the item may be decoded on every call if the shop is not loaded
+     *
+     * @return A copy of the trading item
+     */
+    @NotNull
+    ItemStack getItem();
+
+    /**
+     * Gets the fingerprint of the trading item, the snapshots have same fingerprint are trading the same item.
+     * It's the serialized item stored in the shop data, so it can be used to filter the purchase records too.
+     *
+     * @return The item fingerprint
+     */
+    @NotNull
+    String getItemFingerprint();
+
+    /**
+     * Gets the display name of the trading item
+     *
+     * @return The item display name
+     */
+    @NotNull
+    Component getItemName();
+
+    /**
+     * Gets the item stacking amount of the shop, see {@link Shop#getShopStackingAmount()}
+     *
+     * @return The item stacking amount
+     */
+    int getShopStackingAmount();
+
+    double getPrice();
+
+    @NotNull
+    ShopType getShopType();
+
+    @Nullable
+    String getCurrency();
+
+    @Nullable
+    String getShopName();
+
+    boolean isUnlimited();
+
+    /**
+     * Gets the stock when the shop inventory was counted last time
+     *
+     * @return The stock, returns -1 for unlimited shop, returns -2 for never counted
+     */
+    int getStock();
+
+    /**
+     * Gets the space when the shop inventory was counted last time
+     *
+     * @return The space, returns -1 for unlimited shop, returns -2 for never counted
+     */
+    int getSpace();
+
+    /**
+     * Gets the version of the shop state, increases every time the shop changed
+     *
+     * @return The state version
+     */
+    long getVersion();
+}
@@ -0,0 +1,124 @@
+package com.ghostchu.quickshop.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.QuickShopBukkit;
+import com.ghostchu.quickshop.util.Util;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.mockito.Answers;
+import org.mockito.Mockito;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * The in-memory stand-in of the server and plugin for the benchmarks.
+ * <p>
+ * The server is provided by MockBukkit, the plugin is a Mockito mock with real config, logger and data folder,
+ * the rest of the plugin getters return deep stubs. It is created once per forked JVM, so the benchmarks
+ * should be run with one thread (the default).
+ */
+public final class BenchmarkEnvironment {
+    private static BenchmarkEnvironment instance;
+    private final ServerMock server;
+    private final WorldMock world;
+    private final QuickShop plugin;
+    private final YamlConfiguration config;
+    private final File dataFolder;
+
+    private BenchmarkEnvironment() throws IOException, InvalidConfigurationException, ReflectiveOperationException {
+        // Don't reach the Crowdin OTA service while benchmarking text rendering
+        System.setProperty("com.ghostchu.quickshop.localization.text.SimpleTextManager.enableCrowdinOTA", "false");
+        this.server = MockBukkit.mock();
+        this.world = server.addSimpleWorld("world");
+        this.dataFolder = Files.createTempDirectory("quickshop-benchmark").toFile();
+        this.config = loadBundledConfig();
+        // The benchmarks measure the code paths, not the settings
+        config.set("dev-mode", false);
+        config.set("tax-account", "");
+        config.set("unlimited-shop-owner-change", false);
+
+        QuickShopBukkit javaPlugin = Mockito.mock(QuickShopBukkit.class, Answers.RETURNS_DEEP_STUBS);
+        Mockito.when(javaPlugin.getName()).thenReturn("QuickShop-Hikari");
+        Mockito.when(javaPlugin.getDataFolder()).thenReturn(dataFolder);
+        Mockito.when(javaPlugin.getConfig()).thenReturn(config);
+        Mockito.when(javaPlugin.getResource(Mockito.anyString()))
+                .thenAnswer(invocation -> QuickShop.class.getClassLoader().getResourceAsStream(invocation.getArgument(0)));
+
+        this.plugin = Mockito.mock(QuickShop.class, Answers.RETURNS_DEEP_STUBS);
+        Mockito.when(plugin.getJavaPlugin()).thenReturn(javaPlugin);
+        Mockito.when(plugin.getConfig()).thenReturn(config);
+        Mockito.when(plugin.getDataFolder()).thenReturn(dataFolder);
+        Mockito.when(plugin.logger()).thenReturn(LoggerFactory.getLogger("QuickShop-Benchmark"));
+        Mockito.when(plugin.getCrossServerSync()).thenReturn(null);
+
+        Field instanceField = QuickShop.class.getDeclaredField("instance");
+        instanceField.setAccessible(true);
+        instanceField.set(null, plugin);
+        Util.initialize();
+    }
+
+    /**
+     * Get or create the environment, must be called from the benchmark thread since MockBukkit
+     * treats the creating thread as the server main thread.
+     *
+     * @return The environment
+     */
+    @NotNull
+    public static synchronized BenchmarkEnvironment get() {
+        if (instance == null) {
+            try {
+                instance = new BenchmarkEnvironment();
+            } catch (IOException | InvalidConfigurationException | ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to setup the benchmark environment", e);
+            }
+        }
+        return instance;
+    }
+
+    @NotNull
+    private static YamlConfiguration loadBundledConfig() throws IOException, InvalidConfigurationException {
+        YamlConfiguration configuration = new YamlConfiguration();
+        try (InputStream stream = QuickShop.class.getClassLoader().getResourceAsStream("config.yml")) {
+            if (stream == null) {
+                throw new IOException("config.yml not found in classpath");
+            }
+            configuration.loadFromString(new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        return configuration;
+    }
+
+    @NotNull
+    public ServerMock getServer() {
+        return server;
+    }
+
+    @NotNull
+    public WorldMock getWorld() {
+        return world;
+    }
+
+    @NotNull
+    public QuickShop getPlugin() {
+        return plugin;
+    }
+
+    @NotNull
+    public YamlConfiguration getConfig() {
+        return config;
+    }
+
+    @NotNull
+    public File getDataFolder() {
+        return dataFolder;
+    }
+}
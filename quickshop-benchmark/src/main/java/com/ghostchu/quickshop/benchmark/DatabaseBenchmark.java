@@ -0,0 +1,123 @@
+package com.ghostchu.quickshop.benchmark;
+
+import cc.carm.lib.easysql.EasySQL;
+import cc.carm.lib.easysql.api.SQLManager;
+import cc.carm.lib.easysql.hikari.HikariConfig;
+import cc.carm.lib.easysql.hikari.HikariDataSource;
+import cc.carm.lib.easysql.manager.SQLManagerImpl;
+import com.ghostchu.quickshop.api.database.bean.DataRecord;
+import com.ghostchu.quickshop.api.obj.QUser;
+import com.ghostchu.quickshop.database.DataTables;
+import com.ghostchu.quickshop.database.SimpleDatabaseHelperV2;
+import com.ghostchu.quickshop.database.bean.ShopIndexRecord;
+import com.ghostchu.quickshop.database.bean.SimpleDataRecord;
+import com.ghostchu.quickshop.obj.QUserImpl;
+import com.ghostchu.quickshop.util.Util;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.h2.Driver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SimpleDatabaseHelperV2} operations against an in-memory H2 database in MySQL mode,
+ * the same driver and mode the plugin uses for local storage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBenchmark {
+    @Param({"1000"})
+    private int shops;
+    private SQLManager sqlManager;
+    private SimpleDatabaseHelperV2 databaseHelper;
+    private final List<Long> dataIds = new ArrayList<>();
+    private final UUID player = UUID.randomUUID();
+    private int cursor;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment environment = BenchmarkEnvironment.get();
+        Driver.load();
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName(Driver.class.getName());
+        config.setJdbcUrl("jdbc:h2:mem:quickshop-benchmark-" + System.nanoTime() + ";MODE=MYSQL;DB_CLOSE_DELAY=-1");
+        sqlManager = new SQLManagerImpl(new HikariDataSource(config), "QuickShop-Benchmark-SQLManager");
+        sqlManager.executeSQL("SET MODE=MYSQL");
+        databaseHelper = new SimpleDatabaseHelperV2(environment.getPlugin(), sqlManager, "qs_");
+
+        QUser owner = QUserImpl.createFullFilled(player, "Benchmark", true);
+        String item = Util.serialize(new ItemStack(Material.DIAMOND, 1));
+        for (int i = 0; i < shops; i++) {
+            SimpleDataRecord dataRecord = new SimpleDataRecord(owner, item, "Shop " + i, 0, null, i, false, false,
+                    null, "{}", "", "", "", new Date(), "");
+            Map<String, Object> params = dataRecord.generateParams();
+            long dataId = DataTables.DATA.createInsert()
+                    .setColumnNames(new ArrayList<>(params.keySet()))
+                    .setParams(params.values())
+                    .returnGeneratedKey(Long.class)
+                    .execute();
+            long shopId = databaseHelper.createShop(dataId).join();
+            databaseHelper.createShopMap(shopId, new Location(environment.getWorld(), i, 64, i)).join();
+            dataIds.add(dataId);
+        }
+        databaseHelper.updatePlayerProfile(player, "en_us", "Benchmark").join();
+    }
+
+    @TearDown
+    public void tearDown() {
+        EasySQL.shutdownManager(sqlManager);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) % shops;
+        return cursor;
+    }
+
+    @Benchmark
+    public Long locateShopId() {
+        int i = next();
+        return databaseHelper.locateShopId("world", i, 64, i).join();
+    }
+
+    @Benchmark
+    public DataRecord getDataRecord() {
+        return databaseHelper.getDataRecord(dataIds.get(next())).join();
+    }
+
+    @Benchmark
+    public String getPlayerName() {
+        return databaseHelper.getPlayerName(player).join();
+    }
+
+    @Benchmark
+    public Integer updatePlayerProfile() {
+        return databaseHelper.updatePlayerProfile(player, "en_us", "Benchmark").join();
+    }
+
+    @Benchmark
+    public List<ShopIndexRecord> listShopIndexes() {
+        return databaseHelper.listShopIndexes();
+    }
+}
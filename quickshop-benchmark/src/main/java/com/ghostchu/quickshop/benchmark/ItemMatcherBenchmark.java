@@ -0,0 +1,79 @@
+package com.ghostchu.quickshop.benchmark;
+
+import com.ghostchu.quickshop.util.matcher.item.QuickShopItemMatcherImpl;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link QuickShopItemMatcherImpl#matches(ItemStack, ItemStack)}, called for every slot while counting the stock and space.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemMatcherBenchmark {
+    private QuickShopItemMatcherImpl matcher;
+    private ItemStack plain;
+    private ItemStack plainOther;
+    private ItemStack rich;
+    private ItemStack richCopy;
+    private ItemStack richDifferentLore;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment environment = BenchmarkEnvironment.get();
+        matcher = new QuickShopItemMatcherImpl(environment.getPlugin());
+        plain = new ItemStack(Material.DIAMOND, 1);
+        plainOther = new ItemStack(Material.EMERALD, 1);
+        rich = createRich("The first lore line");
+        richCopy = createRich("The first lore line");
+        richDifferentLore = createRich("Another lore line");
+    }
+
+    private ItemStack createRich(String lore) {
+        ItemStack item = new ItemStack(Material.DIAMOND_SWORD, 1);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName("Benchmark Sword");
+        meta.setLore(List.of(lore, "The second lore line"));
+        meta.addEnchant(Enchantment.SHARPNESS, 5, true);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    @Benchmark
+    public boolean plainMatched() {
+        return matcher.matches(plain, plain.clone());
+    }
+
+    @Benchmark
+    public boolean plainTypeMismatched() {
+        return matcher.matches(plain, plainOther);
+    }
+
+    @Benchmark
+    public boolean richMatched() {
+        return matcher.matches(rich, richCopy);
+    }
+
+    @Benchmark
+    public boolean richLoreMismatched() {
+        return matcher.matches(rich, richDifferentLore);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ghostchu.quickshop.benchmark;
+
+import com.ghostchu.quickshop.util.Util;
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Util#serialize(ItemStack)} and {@link Util#deserialize(String)}, used by every shop save and load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemSerializeBenchmark {
+    private ItemStack plainItem;
+    private ItemStack richItem;
+    private String plainSerialized;
+    private String richSerialized;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.get();
+        plainItem = new ItemStack(Material.DIAMOND, 1);
+        richItem = new ItemStack(Material.DIAMOND_SWORD, 1);
+        ItemMeta meta = richItem.getItemMeta();
+        meta.setDisplayName("Benchmark Sword");
+        meta.setLore(List.of("The first lore line", "The second lore line"));
+        meta.addEnchant(Enchantment.SHARPNESS, 5, true);
+        richItem.setItemMeta(meta);
+        plainSerialized = Util.serialize(plainItem);
+        richSerialized = Util.serialize(richItem);
+    }
+
+    @Benchmark
+    public String serializePlain() {
+        return Util.serialize(plainItem);
+    }
+
+    @Benchmark
+    public String serializeRich() {
+        return Util.serialize(richItem);
+    }
+
+    @Benchmark
+    public ItemStack deserializePlain() throws InvalidConfigurationException {
+        return Util.deserialize(plainSerialized);
+    }
+
+    @Benchmark
+    public ItemStack deserializeRich() throws InvalidConfigurationException {
+        return Util.deserialize(richSerialized);
+    }
+}
@@ -0,0 +1,49 @@
+package com.ghostchu.quickshop.benchmark;
+
+import com.ghostchu.quickshop.util.logger.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * The overhead of {@link Log} calls those sprinkled over the hot paths, with dev-mode disabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogBenchmark {
+    private int counter;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.get();
+    }
+
+    @Benchmark
+    public void debugWithCaller() {
+        Log.debug("Benchmark message " + counter++);
+    }
+
+    @Benchmark
+    public void debugWithoutCaller() {
+        Log.debug(Level.INFO, "Benchmark message " + counter++, null);
+    }
+
+    @Benchmark
+    public Log.Caller captureCaller() {
+        return Log.Caller.create();
+    }
+}
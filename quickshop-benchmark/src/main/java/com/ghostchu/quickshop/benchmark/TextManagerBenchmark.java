@@ -0,0 +1,53 @@
+package com.ghostchu.quickshop.benchmark;
+
+import com.ghostchu.quickshop.localization.text.SimpleTextManager;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SimpleTextManager#of(String, Object...)} rendering, used by every message and sign line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextManagerBenchmark {
+    private SimpleTextManager textManager;
+    private Component itemName;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment environment = BenchmarkEnvironment.get();
+        textManager = new SimpleTextManager(environment.getPlugin());
+        itemName = Component.text("Diamond");
+    }
+
+    @Benchmark
+    public Component renderWithoutArgs() {
+        return textManager.of("no-permission").forLocale("en_us");
+    }
+
+    @Benchmark
+    public Component renderWithArgs() {
+        return textManager.of("player-bought-from-your-store", "Benchmark", 64, itemName, "$640.00").forLocale("en_us");
+    }
+
+    @Benchmark
+    public Component renderFallbackLocale() {
+        // Not bundled, falls back to the default language
+        return textManager.of("player-bought-from-your-store", "Benchmark", 64, itemName, "$640.00").forLocale("xx_xx");
+    }
+}
@@ -0,0 +1,63 @@
+package com.ghostchu.quickshop.shop;
+
+import com.ghostchu.quickshop.api.obj.QUser;
+import com.ghostchu.quickshop.benchmark.BenchmarkEnvironment;
+import com.ghostchu.quickshop.database.bean.SimpleDataRecord;
+import com.ghostchu.quickshop.obj.QUserImpl;
+import com.ghostchu.quickshop.util.Util;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShopLoader.DataRawDatabaseInfo} parsing, done once per shop while loading the shops.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShopDataParseBenchmark {
+    private SimpleDataRecord dataRecord;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.get();
+        QUser owner = QUserImpl.createFullFilled(UUID.randomUUID(), "Benchmark", true);
+        ItemStack item = new ItemStack(Material.DIAMOND_SWORD, 1);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName("Benchmark Sword");
+        meta.setLore(List.of("The first lore line", "The second lore line"));
+        item.setItemMeta(meta);
+        String permissions = "{\"" + UUID.randomUUID() + "\":\"quickshop.staff\"}";
+        String extra = "QuickShop:\n  limit: 64\n";
+        dataRecord = new SimpleDataRecord(owner, Util.serialize(item), "Benchmark", 0, null, 100, false, false,
+                null, permissions, extra, "", "", new Date(), "");
+    }
+
+    @Benchmark
+    public ShopLoader.DataRawDatabaseInfo parseEager() {
+        return new ShopLoader.DataRawDatabaseInfo(dataRecord, false);
+    }
+
+    @Benchmark
+    public ShopLoader.DataRawDatabaseInfo parseLazy() {
+        return new ShopLoader.DataRawDatabaseInfo(dataRecord, true);
+    }
+}
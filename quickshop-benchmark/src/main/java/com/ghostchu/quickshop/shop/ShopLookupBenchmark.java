@@ -0,0 +1,81 @@
+package com.ghostchu.quickshop.shop;
+
+import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.benchmark.BenchmarkEnvironment;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The location index lookups of {@link AbstractShopManager}, called by almost every interaction and inventory event.
+ * <p>
+ * The shops are Mockito mocks, none of their methods are called by the measured lookups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShopLookupBenchmark {
+    @Param({"10000"})
+    private int shops;
+    private SimpleShopManager shopManager;
+    private Location[] shopLocations;
+    private Location[] emptyLocations;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment environment = BenchmarkEnvironment.get();
+        World world = environment.getWorld();
+        shopManager = new SimpleShopManager(environment.getPlugin());
+        shopLocations = new Location[shops];
+        emptyLocations = new Location[shops];
+        int side = (int) Math.ceil(Math.sqrt(shops));
+        for (int i = 0; i < shops; i++) {
+            // A few shops per chunk like a typical market street
+            Location location = new Location(world, (i % side) * 5, 64, (i / side) * 5);
+            Shop shop = Mockito.mock(Shop.class);
+            Mockito.when(shop.getLocation()).thenReturn(location);
+            shopManager.addShopToLookupTable(shop);
+            shopLocations[i] = location.clone().add(0.5, 0.5, 0.5);
+            emptyLocations[i] = location.clone().add(0, 1, 0);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) % shops;
+        return cursor;
+    }
+
+    @Benchmark
+    public Shop getShopHit() {
+        return shopManager.getShop(shopLocations[next()], true);
+    }
+
+    @Benchmark
+    public Shop getShopMiss() {
+        return shopManager.getShop(emptyLocations[next()], true);
+    }
+
+    @Benchmark
+    public Map<Location, Shop> getShopsInChunk() {
+        Location location = shopLocations[next()];
+        return shopManager.getShops(location.getWorld().getName(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+}
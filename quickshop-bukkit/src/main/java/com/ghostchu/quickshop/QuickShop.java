@@ -31,6 +31,7 @@ import com.ghostchu.quickshop.api.shop.display.DisplayType;
 import com.ghostchu.quickshop.command.QuickShopCommand;
 import com.ghostchu.quickshop.command.SimpleCommandManager;
 import com.ghostchu.quickshop.common.util.CommonUtil;
+import com.ghostchu.quickshop.common.util.ExecutorProfile;
 import com.ghostchu.quickshop.common.util.JsonUtil;
 import com.ghostchu.quickshop.common.util.QuickExecutor;
 import com.ghostchu.quickshop.database.DatabaseIOUtil;
@@ -71,9 +72,12 @@ import com.ghostchu.quickshop.shop.SimpleShopPermissionManager;
 import com.ghostchu.quickshop.shop.controlpanel.SimpleShopControlPanel;
 import com.ghostchu.quickshop.shop.controlpanel.SimpleShopControlPanelManager;
 import com.ghostchu.quickshop.shop.display.AbstractDisplayItem;
+import com.ghostchu.quickshop.shop.display.DisplayCheckScheduler;
 import com.ghostchu.quickshop.shop.display.virtual.VirtualDisplayItemManager;
 import com.ghostchu.quickshop.shop.inventory.BukkitInventoryWrapperManager;
 import com.ghostchu.quickshop.shop.signhooker.SignHooker;
+import com.ghostchu.quickshop.sync.CrossServerSync;
+import com.ghostchu.quickshop.sync.SyncTransport;
 import com.ghostchu.quickshop.util.DonationInfo;
 import com.ghostchu.quickshop.util.FastPlayerFinder;
 import com.ghostchu.quickshop.util.ItemMarker;
@@ -101,7 +105,9 @@ import com.ghostchu.quickshop.util.updater.NexusManager;
 import com.ghostchu.quickshop.watcher.CalendarWatcher;
 import com.ghostchu.quickshop.watcher.DisplayAutoDespawnWatcher;
 import com.ghostchu.quickshop.watcher.LogWatcher;
+import com.ghostchu.quickshop.watcher.OfflineMessageWatcher;
 import com.ghostchu.quickshop.watcher.OngoingFeeWatcher;
+import com.ghostchu.quickshop.watcher.ShopDataEvictWatcher;
 import com.ghostchu.quickshop.watcher.ShopDataSaveWatcher;
 import com.ghostchu.quickshop.watcher.SignUpdateWatcher;
 import com.ghostchu.quickshop.watcher.UpdateWatcher;
@@ -212,6 +218,9 @@ public class QuickShop implements QuickShopAPI, Reloadable {
     private boolean display = true;
     @Getter
     private int displayItemCheckTicks;
+    @Nullable
+    @Getter
+    private DisplayCheckScheduler displayCheckScheduler;
     /**
      * The economy we hook into for transactions
      */
@@ -290,6 +299,11 @@ public class QuickShop implements QuickShopAPI, Reloadable {
     @Getter
     private ShopDataSaveWatcher shopSaveWatcher;
     @Getter
+    private OfflineMessageWatcher offlineMessageWatcher;
+    @Getter
+    @Nullable
+    private CrossServerSync crossServerSync;
+    @Getter
     private SignHooker signHooker;
     @Getter
     private BungeeListener bungeeListener;
@@ -646,6 +660,7 @@ public class QuickShop implements QuickShopAPI, Reloadable {
         }
         logger.info("Reading the configuration...");
         initConfiguration();
+        loadExecutorProfiles();
         logger.info("Contributors: {}", CommonUtil.list2String(javaPlugin.getDescription().getAuthors()));
         logger.info("Original author: Netherfoam, Timtower, KaiNoMood, sandtechnology");
         logger.info("Let's start loading the plugin");
@@ -691,9 +706,21 @@ public class QuickShop implements QuickShopAPI, Reloadable {
         //shopContainerWatcher = new ShopContainerWatcher();
         shopSaveWatcher = new ShopDataSaveWatcher(this);
         shopSaveWatcher.runTaskTimerAsynchronously(javaPlugin, 0, 20L * 60L * 5L);
+        offlineMessageWatcher = new OfflineMessageWatcher(this);
+        long messageWindow = Math.max(1, getConfig().getLong("offline-message-coalesce-window", 5));
+        offlineMessageWatcher.runTaskTimerAsynchronously(javaPlugin, 20L * messageWindow, 20L * messageWindow);
         /* Load all shops. */
         shopLoader = new ShopLoader(this);
         shopLoader.loadShops();
+        SyncTransport syncTransport = CrossServerSync.createTransport(this);
+        if (syncTransport != null) {
+            crossServerSync = new CrossServerSync(this, syncTransport);
+            crossServerSync.start();
+        }
+        long evictAfter = getConfig().getLong("lazy-shop-loading.evict-after", 30);
+        if (getConfig().getBoolean("lazy-shop-loading.enabled", true) && evictAfter > 0) {
+            new ShopDataEvictWatcher(this, evictAfter).runTaskTimer(javaPlugin, 20L * 60L * 5L, 20L * 60L * 5L);
+        }
         QuickExecutor.getCommonExecutor().submit(this::bakeShopsOwnerCache);
         logger.info("Registering listeners...");
         this.interactionController = new InteractionController(this);
@@ -730,6 +757,32 @@ public class QuickShop implements QuickShopAPI, Reloadable {
     }
 
 
+    private void loadExecutorProfiles() {
+        boolean virtualThreads = getConfig().getBoolean("executor.virtual-threads", true);
+        int databaseConcurrency = getConfig().getInt("executor.database-concurrency", 0);
+        if (databaseConcurrency <= 0) {
+            // The database isn't set up yet, read the pool size from the config, Hikari uses 10 if it isn't set
+            databaseConcurrency = getConfig().getInt("database.properties.maximumPoolSize", 10);
+            if (databaseConcurrency <= 0) {
+                databaseConcurrency = 10;
+            }
+        }
+        // Keep the history queries and batch saving under a quarter of the connections, so they can't starve the trading queries
+        int slowQueryConcurrency = Math.max(1, databaseConcurrency / 4);
+        int profileIoConcurrency = Math.max(1, getConfig().getInt("executor.profile-io-concurrency", 16));
+        Map<String, ExecutorProfile> profiles = new HashMap<>();
+        profiles.put(QuickExecutor.HIKARICP, new ExecutorProfile(virtualThreads, databaseConcurrency, databaseConcurrency));
+        profiles.put(QuickExecutor.SHOP_HISTORY_QUERY, new ExecutorProfile(virtualThreads, slowQueryConcurrency, slowQueryConcurrency));
+        profiles.put(QuickExecutor.SHOP_SAVE, new ExecutorProfile(virtualThreads, slowQueryConcurrency, slowQueryConcurrency));
+        profiles.put(QuickExecutor.PRIMARY_PROFILE_IO, new ExecutorProfile(virtualThreads, profileIoConcurrency, profileIoConcurrency));
+        profiles.put(QuickExecutor.SECONDARY_PROFILE_IO, new ExecutorProfile(virtualThreads, 2, 2));
+        QuickExecutor.applyProfiles(profiles);
+        if (virtualThreads && !QuickExecutor.isVirtualThreadSupported()) {
+            logger.info("Virtual threads require Java 21 or newer, using platform thread pools for the I/O executors.");
+        }
+        Log.debug("Executor profiles: " + QuickExecutor.getProfiles());
+    }
+
     private void loadErrorReporter() {
         try {
             if (!getConfig().getBoolean("auto-report-errors")) {
@@ -866,15 +919,8 @@ public class QuickShop implements QuickShopAPI, Reloadable {
                     logger.error("Shop.display-items-check-ticks is too low! It may cause HUGE lag! Pick a number > 3000");
                 }
                 logger.info("Registering DisplayCheck task....");
-                Bukkit.getScheduler().runTaskTimer(javaPlugin, () -> {
-                    for (Shop shop : getShopManager().getLoadedShops()) {
-                        //Shop may be deleted or unloaded when iterating
-                        if (!shop.isLoaded()) {
-                            continue;
-                        }
-                        shop.checkDisplay();
-                    }
-                }, 1L, getDisplayItemCheckTicks());
+                this.displayCheckScheduler = new DisplayCheckScheduler(this, getDisplayItemCheckTicks(), getConfig().getLong("shop.display-items-check-time-budget", 2));
+                Bukkit.getScheduler().runTaskTimer(javaPlugin, displayCheckScheduler, 1L, 1L);
             } else if (getDisplayItemCheckTicks() == 0) {
                 logger.info("shop.display-items-check-ticks was set to 0. Display Check has been disabled");
             } else {
@@ -1048,10 +1094,19 @@ public class QuickShop implements QuickShopAPI, Reloadable {
             Bukkit.getOnlinePlayers().forEach(player -> this.bungeeListener.notifyForCancel(player));
             this.bungeeListener.unregister();
         }
+        if (this.crossServerSync != null) {
+            logger.info("Stopping cross-server sync...");
+            this.crossServerSync.stop();
+        }
         if (getShopSaveWatcher() != null) {
             logger.info("Stopping shop auto save...");
             getShopSaveWatcher().cancel();
         }
+        if (this.offlineMessageWatcher != null) {
+            logger.info("Saving pending offline messages...");
+            this.offlineMessageWatcher.cancel();
+            this.offlineMessageWatcher.flush();
+        }
         if (getShopManager() != null) {
             logger.info("Saving all in-memory changed shops...");
             List<CompletableFuture<Void>> futures = getShopManager().getAllShops().stream().filter(Shop::isDirty).map(Shop::update).toList();
@@ -1059,6 +1114,10 @@ public class QuickShop implements QuickShopAPI, Reloadable {
             CompletableFuture.allOf(completableFutures)
                     .join();
         }
+        if (shopLoader != null) {
+            logger.info("Writing shop snapshot...");
+            shopLoader.saveSnapshot();
+        }
         /* Remove all display items, and any dupes we can find */
         if (shopManager != null) {
             logger.info("Cleaning up shop manager...");
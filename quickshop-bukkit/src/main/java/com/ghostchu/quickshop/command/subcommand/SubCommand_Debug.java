@@ -8,7 +8,9 @@ import com.ghostchu.quickshop.QuickShop;
 import com.ghostchu.quickshop.api.command.CommandHandler;
 import com.ghostchu.quickshop.api.command.CommandParser;
 import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.common.util.MonitoredExecutorService;
 import com.ghostchu.quickshop.common.util.QuickExecutor;
+import com.ghostchu.quickshop.papi.PAPICache;
 import com.ghostchu.quickshop.shop.SimpleShopManager;
 import com.ghostchu.quickshop.shop.cache.SimpleShopCache;
 import com.ghostchu.quickshop.shop.display.AbstractDisplayItem;
@@ -16,6 +18,7 @@ import com.ghostchu.quickshop.util.MsgUtil;
 import com.ghostchu.quickshop.util.Util;
 import com.ghostchu.quickshop.util.performance.BatchBukkitExecutor;
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
 import com.google.common.hash.Hashing;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -71,6 +74,8 @@ public class SubCommand_Debug implements CommandHandler<CommandSender> {
         subParamMapping.put("toggle-db-debugmode", this::handleToggleDbDebugMode);
         subParamMapping.put("dump-hikaricp-status", this::handleDumpHikariCPStatus);
         subParamMapping.put("set-hikaricp-capacity", this::handleSetHikariCPCapacity);
+        subParamMapping.put("dump-executor-status", this::handleDumpExecutorStatus);
+        subParamMapping.put("dump-papi-cache-status", this::handleDumpPAPICacheStatus);
         subParamMapping.put("item-info", this::handleItemInfo);
         subParamMapping.put("mark-all-shops-dirty", this::handleShopsDirtyAndSave);
         subParamMapping.put("clean-display-entities", this::handleDisplayEntities);
@@ -201,6 +206,30 @@ public class SubCommand_Debug implements CommandHandler<CommandSender> {
         }
     }
 
+    private void handleDumpExecutorStatus(CommandSender sender, List<String> subParams) {
+        for (MonitoredExecutorService.Stats stats : QuickExecutor.getStats()) {
+            sender.sendMessage(stats.name() + " (" + (stats.virtualThreads() ? "virtual" : "platform")
+                    + ", max concurrency: " + (stats.maxConcurrency() > 0 ? stats.maxConcurrency() : "unlimited") + ")");
+            sender.sendMessage("  Queued: " + stats.queued() + ", Active: " + stats.active()
+                    + ", Completed: " + stats.completed() + ", Failed: " + stats.failed());
+            sender.sendMessage("  Wait avg/max: " + stats.avgWaitMillis() + "ms/" + stats.maxWaitMillis()
+                    + "ms, Run avg/max: " + stats.avgRunMillis() + "ms/" + stats.maxRunMillis() + "ms");
+        }
+    }
+
+    private void handleDumpPAPICacheStatus(CommandSender sender, List<String> subParams) {
+        if (plugin.getQuickShopPAPI() == null) {
+            sender.sendMessage("PlaceHolderAPI support not enabled.");
+            return;
+        }
+        PAPICache cache = plugin.getQuickShopPAPI().getManager().getCache();
+        CacheStats stats = cache.getStats();
+        sender.sendMessage("Entries: " + cache.getSize() + ", Default TTL: " + cache.getExpiredTime() + "ms, Overrides: " + cache.getExpiredTimeOverrides());
+        sender.sendMessage("Hit rate: " + String.format("%.2f", stats.hitRate() * 100) + "%, Hit: " + stats.hitCount() + ", Miss: " + stats.missCount());
+        sender.sendMessage("Load: " + stats.loadCount() + ", Load failed: " + stats.loadExceptionCount() + ", Eviction: " + stats.evictionCount()
+                + ", Avg load penalty: " + String.format("%.2f", stats.averageLoadPenalty() / 1_000_000) + "ms");
+    }
+
     private void handleToggleDbDebugMode(CommandSender sender, List<String> subParams) {
         plugin.getSqlManager().setDebugMode(!plugin.getSqlManager().isDebugMode());
         sender.sendMessage("Db Debug Mode: " + plugin.getSqlManager().isDebugMode());
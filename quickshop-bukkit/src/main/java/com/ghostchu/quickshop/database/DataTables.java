@@ -136,6 +136,16 @@ public enum DataTables {
         table.setIndex(IndexType.PRIMARY_KEY, null, "tagger", "shop", "tag");
     }),
 
+    SYNC_EVENTS("sync_events", (table) -> {
+        table.addAutoIncrementColumn("id", true);
+        table.addColumn("time", "DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP");
+        table.addColumn("origin", "VARCHAR(36) NOT NULL"); // SENDER SERVER UNIQUE ID
+        table.addColumn("type", "VARCHAR(32) NOT NULL"); // MESSAGE TYPE (use enum name)
+        table.addColumn("target", "VARCHAR(255) NOT NULL"); // SHOP ID OR PLAYER UUID
+        table.addColumn("payload", "TEXT NOT NULL");
+        table.addColumn("version", "BIGINT NOT NULL");
+    }),
+
     /**
      * Modifications logs table.
      * <p>This table contains shop's modifications like:
@@ -3,6 +3,7 @@ package com.ghostchu.quickshop.database;
 import cc.carm.lib.easysql.api.SQLQuery;
 import com.ghostchu.quickshop.QuickShop;
 import com.ghostchu.quickshop.common.util.CommonUtil;
+import com.ghostchu.quickshop.shop.ShopDataSnapshot;
 import com.ghostchu.quickshop.util.Util;
 import com.ghostchu.quickshop.util.logger.Log;
 import lombok.Data;
@@ -85,6 +86,8 @@ public class DatabaseIOUtil {
     }
 
     public void importTables(@NotNull File zipFile) throws SQLException, ClassNotFoundException {
+        // The data rows will be replaced, the snapshot is no longer valid
+        ShopDataSnapshot.discard(QuickShop.getInstance());
         // Import from CSV
         for (DataTables table : DataTables.values()) {
             Log.debug("Purging table " + table.getName());
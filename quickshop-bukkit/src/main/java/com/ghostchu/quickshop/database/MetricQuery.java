@@ -5,19 +5,25 @@ import com.ghostchu.quickshop.QuickShop;
 import com.ghostchu.quickshop.api.database.ShopMetricRecord;
 import com.ghostchu.quickshop.api.database.ShopOperationEnum;
 import com.ghostchu.quickshop.api.database.bean.DataRecord;
+import com.ghostchu.quickshop.api.obj.QUser;
+import com.ghostchu.quickshop.database.bean.SimpleDataRecord;
 import com.ghostchu.quickshop.obj.QUserImpl;
 import com.ghostchu.quickshop.util.logger.Log;
+import com.ghostchu.quickshop.util.performance.PerfMonitor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.sql.*;
 import java.util.*;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 public class MetricQuery {
+    private static final int BATCH_SIZE = 500;
     private final SimpleDatabaseHelperV2 databaseHelper;
     private final QuickShop plugin;
 
@@ -48,7 +54,7 @@ public class MetricQuery {
                 .inTable(databaseHelper.getPrefix() + "log_transaction")
                 .addTimeCondition("time", startTime, null)
                 .selectColumns()
-                .setLimit(1000)
+                .setLimit(limit > 0 ? (int) Math.min(limit, Integer.MAX_VALUE) : 1000)
                 .orderBy("id", !descending).build().execute()) {
             ResultSet set = query.getResultSet();
             while (set.next()) {
@@ -74,16 +80,32 @@ public class MetricQuery {
 
     // Use LinkedHashMap forced because we need keep the order.
     public @NotNull LinkedHashMap<ShopMetricRecord, DataRecord> mapToDataRecord(@NotNull List<ShopMetricRecord> metricRecords) throws ExecutionException, InterruptedException {
-        // map ShopMetricRecord#getShopId to DataRecord with blocking future
+        // Fetch the current data records of the shops in batches, instead of two queries per record
+        Map<Long, DataRecord> shopDataRecords = new HashMap<>();
+        List<Long> shopIds = metricRecords.stream().map(ShopMetricRecord::getShopId).distinct().toList();
+        for (int i = 0; i < shopIds.size(); i += BATCH_SIZE) {
+            List<Long> batch = shopIds.subList(i, Math.min(i + BATCH_SIZE, shopIds.size()));
+            String sql = "SELECT s.`id` AS `qs_shop_id`, d.* FROM " + DataTables.SHOPS.getName() + " s JOIN " + DataTables.DATA.getName()
+                    + " d ON d.`id` = s.`data` WHERE s.`id` IN (" + placeholders(batch.size()) + ")";
+            try (Connection connection = databaseHelper.getManager().getConnection();
+                 PreparedStatement ps = connection.prepareStatement(sql)) {
+                setParams(ps, new ArrayList<>(batch));
+                try (ResultSet set = ps.executeQuery()) {
+                    while (set.next()) {
+                        shopDataRecords.put(set.getLong("qs_shop_id"), new SimpleDataRecord(plugin.getPlayerFinder(), set));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new ExecutionException("Failed to query the data records", e);
+            }
+        }
         LinkedHashMap<ShopMetricRecord, DataRecord> dataRecords = new LinkedHashMap<>();
         for (ShopMetricRecord metricRecord : metricRecords) {
-            long shopId = metricRecord.getShopId();
-            Long dataId = databaseHelper.locateShopDataId(shopId).get();
-            if (dataId == null) {
-                Log.debug("dataId is null for shopId " + shopId);
+            DataRecord dataRecord = shopDataRecords.get(metricRecord.getShopId());
+            if (dataRecord == null) {
+                Log.debug("dataId is null for shopId " + metricRecord.getShopId());
                 continue;
             }
-            DataRecord dataRecord = databaseHelper.getDataRecord(dataId).get();
             dataRecords.put(metricRecord, dataRecord);
         }
         return dataRecords;
@@ -100,6 +122,8 @@ public class MetricQuery {
                 .setLimit(limit)
                 .orderBy("id", !descending).build().execute()) {
             ResultSet set = query.getResultSet();
+            // Most records are from a few buyers, don't look up the same buyer again and again
+            Map<String, QUser> buyers = new HashMap<>();
             while (set.next()) {
                 //"time", "shop", "data", "buyer", "type", "amount", "money", "tax"
                 ShopMetricRecord record = ShopMetricRecord.builder()
@@ -109,7 +133,7 @@ public class MetricQuery {
                         .total(set.getDouble("money"))
                         .tax(set.getDouble("tax"))
                         .amount(set.getInt("amount"))
-                        .player(QUserImpl.createSync(plugin.getPlayerFinder(), set.getString("buyer")))
+                        .player(buyers.computeIfAbsent(set.getString("buyer"), buyer -> QUserImpl.createSync(plugin.getPlayerFinder(), buyer)))
                         .build();
                 list.add(record);
             }
@@ -120,6 +144,229 @@ public class MetricQuery {
         return list;
     }
 
+    /**
+     * Query the purchase records matching the filter, with their data records fetched in the same query.
+     * <p>
+     * Pages are located by the purchase id (keyset pagination), so the deep pages are as fast as the first page.
+     *
+     * @param filter The filter
+     * @param cursor The {@link PurchasePage#nextCursor()} of previous page, null for the first page
+     * @param limit  The max records of the page
+     * @return The page of purchase records, the buyers are not resolved, see {@link #resolveBuyers(Collection)}
+     * @throws SQLException if failed to query
+     */
+    @NotNull
+    public PurchasePage queryPurchases(@NotNull PurchaseFilter filter, @Nullable Long cursor, int limit) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringJoiner where = buildConditions(filter, params);
+        if (cursor != null) {
+            where.add(filter.isDescending() ? "p.`id` < ?" : "p.`id` > ?");
+            params.add(cursor);
+        }
+        int pageSize = Math.max(1, limit);
+        String sql = "SELECT p.`id` AS `purchase_id`, p.`time` AS `purchase_time`, p.`shop` AS `purchase_shop`, p.`data` AS `purchase_data`, "
+                + "p.`buyer` AS `purchase_buyer`, p.`type` AS `purchase_type`, p.`amount` AS `purchase_amount`, p.`money` AS `purchase_money`, p.`tax` AS `purchase_tax`, d.* "
+                + "FROM " + DataTables.LOG_PURCHASE.getName() + " p LEFT JOIN " + DataTables.DATA.getName() + " d ON d.`id` = p.`data`"
+                + where + " ORDER BY p.`id` " + (filter.isDescending() ? "DESC" : "ASC") + " LIMIT " + pageSize;
+        List<PurchaseRecord> records = new ArrayList<>(Math.min(pageSize, 1000));
+        try (PerfMonitor perfMonitor = new PerfMonitor("Query purchases");
+             Connection connection = databaseHelper.getManager().getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            perfMonitor.setContext("filter=" + filter + ", cursor=" + cursor + ", limit=" + pageSize);
+            setParams(ps, params);
+            try (ResultSet set = ps.executeQuery()) {
+                while (set.next()) {
+                    DataRecord dataRecord = set.getString("owner") == null ? null : new SimpleDataRecord(plugin.getPlayerFinder(), set);
+                    records.add(new PurchaseRecord(
+                            set.getLong("purchase_id"),
+                            set.getTimestamp("purchase_time").getTime(),
+                            set.getLong("purchase_shop"),
+                            set.getLong("purchase_data"),
+                            set.getString("purchase_buyer"),
+                            ShopOperationEnum.valueOf(set.getString("purchase_type")),
+                            set.getInt("purchase_amount"),
+                            set.getDouble("purchase_money"),
+                            set.getDouble("purchase_tax"),
+                            dataRecord));
+                }
+            }
+        }
+        Long nextCursor = records.size() < pageSize ? null : records.get(records.size() - 1).id();
+        return new PurchasePage(records, nextCursor);
+    }
+
+    /**
+     * Count and sum the purchase records matching the filter in database.
+     *
+     * @param filter The filter
+     * @return The summary
+     * @throws SQLException if failed to query
+     */
+    @NotNull
+    public PurchaseSummary summarizePurchases(@NotNull PurchaseFilter filter) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringJoiner where = buildConditions(filter, params);
+        String sql = "SELECT COUNT(*) AS `count`, COALESCE(SUM(p.`amount`), 0) AS `amount`, COALESCE(SUM(p.`money`), 0) AS `money`, COALESCE(SUM(p.`tax`), 0) AS `tax` "
+                + "FROM " + DataTables.LOG_PURCHASE.getName() + " p"
+                + (filter.needDataRecord() ? " JOIN " + DataTables.DATA.getName() + " d ON d.`id` = p.`data`" : "")
+                + where;
+        try (PerfMonitor perfMonitor = new PerfMonitor("Summarize purchases");
+             Connection connection = databaseHelper.getManager().getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            perfMonitor.setContext("filter=" + filter);
+            setParams(ps, params);
+            try (ResultSet set = ps.executeQuery()) {
+                if (!set.next()) {
+                    return new PurchaseSummary(0, 0, 0, 0);
+                }
+                return new PurchaseSummary(set.getLong("count"), set.getLong("amount"), set.getDouble("money"), set.getDouble("tax"));
+            }
+        }
+    }
+
+    /**
+     * Resolve the buyers of the records, each distinct buyer resolved only once.
+     *
+     * @param records The records
+     * @return The serialized buyer to QUser mapping, the buyers failed to resolve are absent
+     */
+    @NotNull
+    public CompletableFuture<Map<String, QUser>> resolveBuyers(@NotNull Collection<PurchaseRecord> records) {
+        Map<String, CompletableFuture<QUser>> futures = new HashMap<>();
+        for (PurchaseRecord record : records) {
+            futures.computeIfAbsent(record.buyer(), buyer -> QUserImpl.createAsync(plugin.getPlayerFinder(), buyer));
+        }
+        return CompletableFuture.allOf(futures.values().stream()
+                        .map(future -> future.exceptionally(throwable -> null))
+                        .toArray(CompletableFuture[]::new))
+                .thenApply(v -> {
+                    Map<String, QUser> resolved = new HashMap<>();
+                    futures.forEach((buyer, future) -> {
+                        QUser qUser = future.exceptionally(throwable -> null).join();
+                        if (qUser != null) {
+                            resolved.put(buyer, qUser);
+                        }
+                    });
+                    return resolved;
+                });
+    }
+
+    @NotNull
+    private StringJoiner buildConditions(@NotNull PurchaseFilter filter, @NotNull List<Object> params) {
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "");
+        where.setEmptyValue("");
+        if (filter.getShops() != null && !filter.getShops().isEmpty()) {
+            where.add("p.`shop` IN (" + placeholders(filter.getShops().size()) + ")");
+            params.addAll(filter.getShops());
+        }
+        if (filter.getBuyer() != null) {
+            where.add("p.`buyer` = ?");
+            params.add(filter.getBuyer());
+        }
+        if (filter.getTypes() != null && !filter.getTypes().isEmpty()) {
+            where.add("p.`type` IN (" + placeholders(filter.getTypes().size()) + ")");
+            filter.getTypes().forEach(type -> params.add(type.name()));
+        }
+        if (filter.getFrom() != null) {
+            where.add("p.`time` >= ?");
+            params.add(new Timestamp(filter.getFrom().getTime()));
+        }
+        if (filter.getTo() != null) {
+            where.add("p.`time` < ?");
+            params.add(new Timestamp(filter.getTo().getTime()));
+        }
+        if (filter.getOwner() != null) {
+            where.add("d.`owner` = ?");
+            params.add(filter.getOwner());
+        }
+        if (filter.getItem() != null) {
+            where.add("d.`item` = ?");
+            params.add(filter.getItem());
+        }
+        return where;
+    }
+
+    @NotNull
+    private static String placeholders(int size) {
+        return String.join(",", Collections.nCopies(size, "?"));
+    }
+
+    private static void setParams(@NotNull PreparedStatement ps, @NotNull List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * The conditions of purchase records, null fields are not filtered.
+     */
+    @Data
+    @Builder
+    public static class PurchaseFilter {
+        /**
+         * The shop ids
+         */
+        @Nullable
+        private Collection<Long> shops;
+        /**
+         * The serialized buyer, see {@link QUser#serialize()}
+         */
+        @Nullable
+        private String buyer;
+        /**
+         * The serialized shop owner at the time of purchase, see {@link QUser#serialize()}
+         */
+        @Nullable
+        private String owner;
+        /**
+         * The serialized item at the time of purchase, same as {@link com.ghostchu.quickshop.api.shop.ShopSnapshot#getItemFingerprint()}
+         */
+        @Nullable
+        private String item;
+        @Nullable
+        private Collection<ShopOperationEnum> types;
+        /**
+         * Inclusive
+         */
+        @Nullable
+        private Date from;
+        /**
+         * Exclusive
+         */
+        @Nullable
+        private Date to;
+        private boolean descending;
+
+        private boolean needDataRecord() {
+            return owner != null || item != null;
+        }
+    }
+
+    /**
+     * A purchase record.
+     *
+     * @param id     The record id, used as the pagination cursor
+     * @param time   The purchase time in milliseconds
+     * @param shopId The shop id
+     * @param dataId The data id of the shop at the time of purchase
+     * @param buyer  The serialized buyer
+     * @param type   The operation type
+     * @param amount The item amount
+     * @param total  The total money
+     * @param tax    The tax
+     * @param data   The data record of the shop at the time of purchase, null if it no longer exists
+     */
+    public record PurchaseRecord(long id, long time, long shopId, long dataId, @NotNull String buyer,
+                                 @NotNull ShopOperationEnum type, int amount, double total, double tax,
+                                 @Nullable DataRecord data) {
+    }
+
+    public record PurchasePage(@NotNull List<PurchaseRecord> records, @Nullable Long nextCursor) {
+    }
+
+    public record PurchaseSummary(long count, long amount, double total, double tax) {
+    }
+
     @Data
     @AllArgsConstructor
     @Builder
@@ -18,12 +18,15 @@ import com.ghostchu.quickshop.api.shop.cache.ShopInventoryCountCache;
 import com.ghostchu.quickshop.common.util.CommonUtil;
 import com.ghostchu.quickshop.common.util.JsonUtil;
 import com.ghostchu.quickshop.common.util.QuickExecutor;
+import com.ghostchu.quickshop.database.bean.ShopIndexRecord;
 import com.ghostchu.quickshop.database.bean.SimpleDataRecord;
 import com.ghostchu.quickshop.shop.ContainerShop;
 import com.ghostchu.quickshop.shop.cache.SimpleShopInventoryCountCache;
 import com.ghostchu.quickshop.util.PackageUtil;
 import com.ghostchu.quickshop.util.logger.Log;
 import com.ghostchu.quickshop.util.performance.PerfMonitor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.Triple;
 import org.bukkit.Location;
@@ -37,6 +40,7 @@ import java.sql.*;
 import java.util.Date;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A Util to execute all SQLs.
@@ -53,6 +57,11 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
 
     private final int LATEST_DATABASE_VERSION = 16;
 
+    private final Cache<UUID, Optional<String>> localeCache = CacheBuilder.newBuilder()
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .maximumSize(5000)
+            .build();
+
     public SimpleDatabaseHelperV2(@NotNull QuickShop plugin, @NotNull SQLManager manager, @NotNull String prefix) throws Exception {
         this.plugin = plugin;
         this.manager = manager;
@@ -328,6 +337,10 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
     @Override
     @NotNull
     public CompletableFuture<@Nullable String> getPlayerLocale(@NotNull UUID uuid) {
+        Optional<String> cached = localeCache.getIfPresent(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.orElse(null));
+        }
         return DataTables.PLAYERS.createQuery()
                 .addCondition("uuid", uuid.toString())
                 .selectColumns("locale")
@@ -335,10 +348,12 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
                 .build()
                 .executeFuture(sqlQuery -> {
                             ResultSet set = sqlQuery.getResultSet();
+                            String locale = null;
                             if (set.next()) {
-                                return set.getString("locale");
+                                locale = set.getString("locale");
                             }
-                            return null;
+                            localeCache.put(uuid, Optional.ofNullable(locale));
+                            return locale;
                         }
                 );
     }
@@ -456,7 +471,7 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
                 int y = rs.getInt("y");
                 int z = rs.getInt("z");
                 DataRecord dataRecord = new SimpleDataRecord(plugin.getPlayerFinder(), rs);
-                InfoRecord infoRecord = new ShopInfo(shopId, world, x, y, z);
+                InfoRecord infoRecord = new ShopIndexRecord(shopId, rs.getLong("data"), world, x, y, z);
                 shopRecords.add(new ShopRecord(dataRecord, infoRecord));
             }
         } catch (SQLException e) {
@@ -465,6 +480,54 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
         return shopRecords;
     }
 
+    /**
+     * List the location and data id of all shops, the shop data won't be fetched.
+     *
+     * @return The shop indexes
+     */
+    @NotNull
+    public List<ShopIndexRecord> listShopIndexes() {
+        List<ShopIndexRecord> indexes = new ArrayList<>();
+        String SQL = "SELECT " + DataTables.SHOPS.getName() + ".id AS shop_id, " + DataTables.SHOPS.getName() + ".data AS data_id, world, x, y, z FROM " + DataTables.SHOPS.getName()
+                + " INNER JOIN " + DataTables.SHOP_MAP.getName()
+                + " ON " + DataTables.SHOP_MAP.getName() + ".shop = " + DataTables.SHOPS.getName() + ".id";
+        try (SQLQuery query = manager.createQuery().withPreparedSQL(SQL).execute()) {
+            ResultSet rs = query.getResultSet();
+            while (rs.next()) {
+                indexes.add(new ShopIndexRecord(rs.getLong("shop_id"), rs.getLong("data_id"), rs.getString("world"), rs.getInt("x"), rs.getInt("y"), rs.getInt("z")));
+            }
+        } catch (SQLException e) {
+            plugin.logger().error("Failed to list shop indexes", e);
+        }
+        return indexes;
+    }
+
+    /**
+     * Fetch the data records by the data ids.
+     *
+     * @param dataIds The data ids
+     * @return The data records mapped by data id, the records those not exists won't be included
+     */
+    @NotNull
+    public Map<Long, DataRecord> listDataRecords(@NotNull Collection<Long> dataIds) {
+        Map<Long, DataRecord> records = new HashMap<>();
+        List<Long> ids = new ArrayList<>(dataIds);
+        // Keep the IN list in a size that all databases are happy with
+        for (int from = 0; from < ids.size(); from += 500) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + 500));
+            String SQL = "SELECT * FROM " + DataTables.DATA.getName() + " WHERE id IN (" + String.join(",", Collections.nCopies(batch.size(), "?")) + ")";
+            try (SQLQuery query = manager.createQuery().withPreparedSQL(SQL).setParams(batch.toArray()).execute()) {
+                ResultSet rs = query.getResultSet();
+                while (rs.next()) {
+                    records.put(rs.getLong("id"), new SimpleDataRecord(plugin.getPlayerFinder(), rs));
+                }
+            } catch (SQLException e) {
+                plugin.logger().error("Failed to list data records", e);
+            }
+        }
+        return records;
+    }
+
     @Override
     public @NotNull List<Long> listShopsTaggedBy(@NotNull UUID tagger, @NotNull String tag) {
         List<Long> shopIds = new ArrayList<>();
@@ -576,6 +639,30 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
                 .build().executeFuture(lines -> lines);
     }
 
+    /**
+     * Remove the shops and their location mappings in batch.
+     *
+     * @param shopIds The shop ids
+     * @return The removed shops count
+     */
+    @NotNull
+    public CompletableFuture<@NotNull Integer> removeShops(@NotNull Collection<Long> shopIds) {
+        List<Long> ids = new ArrayList<>(shopIds);
+        return CompletableFuture.supplyAsync(() -> {
+            int removed = 0;
+            // Keep the IN list in a size that all databases are happy with
+            for (int from = 0; from < ids.size(); from += 500) {
+                List<Long> batch = ids.subList(from, Math.min(ids.size(), from + 500));
+                String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+                Object[] params = batch.toArray();
+                manager.executeSQL("DELETE FROM " + DataTables.SHOP_MAP.getName() + " WHERE shop IN (" + placeholders + ")", params);
+                Integer lines = manager.executeSQL("DELETE FROM " + DataTables.SHOPS.getName() + " WHERE id IN (" + placeholders + ")", params);
+                removed += lines == null ? 0 : lines;
+            }
+            return removed;
+        }, QuickExecutor.getShopSaveExecutor());
+    }
+
     @Override
     public @NotNull CompletableFuture<@NotNull Integer> removeShopMap(@NotNull String world, int x, int y, int z) {
         // TODO: Execute isolated data check in async thread
@@ -596,6 +683,21 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
                 .executeFuture(lines -> lines);
     }
 
+    @Override
+    public @NotNull CompletableFuture<@NotNull Integer> saveOfflineTransactionMessageInBatch(@NotNull List<Triple<UUID, String, Long>> receiverMessageTime) {
+        if (receiverMessageTime.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        List<Object[]> params = new ArrayList<>(receiverMessageTime.size());
+        for (Triple<UUID, String, Long> message : receiverMessageTime) {
+            params.add(new Object[]{message.getLeft().toString(), new Date(message.getRight()), message.getMiddle()});
+        }
+        return DataTables.MESSAGES.createInsertBatch()
+                .setColumnNames("receiver", "time", "content")
+                .setAllParams(params)
+                .executeFuture(lines -> lines.stream().mapToInt(Integer::intValue).sum());
+    }
+
     @Override
     public @NotNull SQLQuery selectAllMessages() throws SQLException {
         return DataTables.MESSAGES.createQuery().build().execute();
@@ -630,6 +732,7 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
     @NotNull
     public CompletableFuture<@NotNull Integer> updatePlayerProfile(@NotNull UUID uuid, @Nullable String locale, @NotNull String username) {
         if (locale != null) {
+            localeCache.put(uuid, Optional.of(locale));
             return DataTables.PLAYERS.createReplace()
                     .setColumnNames("uuid", "locale", "cachedName")
                     .setParams(uuid.toString(), locale, username)
@@ -648,6 +751,15 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
         }
     }
 
+    /**
+     * Drop the cached locale of the player, it will be fetched from database on next query.
+     *
+     * @param uuid The player unique id
+     */
+    public void invalidatePlayerLocale(@NotNull UUID uuid) {
+        localeCache.invalidate(uuid);
+    }
+
     @Override
     public CompletableFuture<Integer> updatePlayerProfileInBatch(List<Triple<UUID, String, String>> uuidLocaleUsername) {
         List<Object[]> specificLocale = new ArrayList<>();
@@ -657,6 +769,7 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
             if (user.getMiddle() == null) {
                 unspecificLocale.add(user);
             } else {
+                localeCache.put(user.getLeft(), Optional.of(user.getMiddle()));
                 specificLocale.add(new Object[]{user.getLeft(), user.getMiddle(), user.getRight()});
             }
         }
@@ -731,6 +844,29 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
         });
     }
 
+    /**
+     * Query the inventory caches of all shops in one query.
+     *
+     * @return The inventory caches mapped by shop id
+     */
+    @NotNull
+    public CompletableFuture<@NotNull Map<Long, ShopInventoryCountCache>> queryAllInventoryCaches() {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<Long, ShopInventoryCountCache> caches = new HashMap<>();
+            try (SQLQuery query = DataTables.EXTERNAL_CACHE.createQuery()
+                    .selectColumns("shop", "stock", "space")
+                    .build().execute()) {
+                ResultSet set = query.getResultSet();
+                while (set.next()) {
+                    caches.put(set.getLong("shop"), new SimpleShopInventoryCountCache(set.getInt("stock"), set.getInt("space")));
+                }
+            } catch (SQLException exception) {
+                plugin.logger().warn("Cannot query the inventory caches", exception);
+            }
+            return caches;
+        });
+    }
+
     @NotNull
     public CompletableFuture<@Nullable Long> queryDataId(@NotNull SimpleDataRecord simpleDataRecord) {
         // Check if dataRecord exists in database with same values
@@ -945,32 +1081,4 @@ public class SimpleDatabaseHelperV2 implements DatabaseHelper {
             plugin.logger().warn("Cannot setup the table index", e);
         }
     }
-
-
-    private record ShopInfo(long shopID, String world, int x, int y, int z) implements InfoRecord {
-        @Override
-        public long getShopId() {
-            return shopID;
-        }
-
-        @Override
-        public String getWorld() {
-            return world;
-        }
-
-        @Override
-        public int getX() {
-            return x;
-        }
-
-        @Override
-        public int getY() {
-            return y;
-        }
-
-        @Override
-        public int getZ() {
-            return z;
-        }
-    }
 }
@@ -0,0 +1,33 @@
+package com.ghostchu.quickshop.database.bean;
+
+import com.ghostchu.quickshop.api.database.bean.InfoRecord;
+
+/**
+ * The location and data id of a shop, without the shop data itself.
+ */
+public record ShopIndexRecord(long shopId, long dataId, String world, int x, int y, int z) implements InfoRecord {
+    @Override
+    public long getShopId() {
+        return shopId;
+    }
+
+    @Override
+    public String getWorld() {
+        return world;
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int getZ() {
+        return z;
+    }
+}
@@ -8,6 +8,8 @@ import com.ghostchu.quickshop.util.economyformatter.BuiltInEconomyFormatter;
 import com.ghostchu.quickshop.util.logger.Log;
 import com.ghostchu.simplereloadlib.ReloadResult;
 import com.ghostchu.simplereloadlib.ReloadStatus;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -26,6 +28,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 @SuppressWarnings("deprecation")
@@ -36,7 +39,15 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
             "QuickShop received an error when processing Economy response, THIS NOT A QUICKSHOP FAULT, you might need ask help with your Economy Provider plugin (%s) author.";
     private final QuickShop plugin;
     private final BuiltInEconomyFormatter formatter;
+    private final Cache<UUID, OfflinePlayer> offlinePlayerCache = CacheBuilder.newBuilder()
+            .expireAfterAccess(5, TimeUnit.MINUTES)
+            .maximumSize(2000)
+            .build();
     private boolean allowLoan;
+    private boolean asyncSafe;
+    // Short-lived balance snapshots, invalidated by our own transactions and expired by TTL for the external changes
+    @Nullable
+    private Cache<UUID, Double> balanceCache;
     @Getter
     @Setter
     @Nullable
@@ -56,6 +67,40 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
 
     private void init() {
         this.allowLoan = plugin.getConfig().getBoolean("shop.allow-economy-loan");
+        this.asyncSafe = plugin.getConfig().getBoolean("economy-cache.async-safe", false);
+        long balanceTtl = plugin.getConfig().getLong("economy-cache.balance-snapshot-ttl", 1000);
+        this.balanceCache = balanceTtl > 0 ? CacheBuilder.newBuilder()
+                .expireAfterWrite(balanceTtl, TimeUnit.MILLISECONDS)
+                .maximumSize(2000)
+                .build() : null;
+    }
+
+    @NotNull
+    private OfflinePlayer getOfflinePlayer(@NotNull UUID uuid) {
+        OfflinePlayer player = offlinePlayerCache.getIfPresent(uuid);
+        if (player == null) {
+            player = Bukkit.getOfflinePlayer(uuid);
+            offlinePlayerCache.put(uuid, player);
+        }
+        return player;
+    }
+
+    private void invalidateBalance(@NotNull UUID uuid) {
+        Cache<UUID, Double> snapshot = this.balanceCache;
+        if (snapshot != null) {
+            snapshot.invalidate(uuid);
+        }
+    }
+
+    private boolean hasEnoughBalance(@NotNull OfflinePlayer trader, double amount, @NotNull World world, @Nullable String currency) {
+        Cache<UUID, Double> snapshot = this.balanceCache;
+        Double cached = snapshot == null ? null : snapshot.getIfPresent(trader.getUniqueId());
+        if (cached != null && cached >= amount) {
+            return true;
+        }
+        // Never reject by a stale snapshot, ask the provider again
+        invalidateBalance(trader.getUniqueId());
+        return getBalance(trader, world, currency) >= amount;
     }
 
     private boolean setupEconomy() {
@@ -76,6 +121,10 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
         if (this.vault == null) {
             return false;
         }
+        this.offlinePlayerCache.invalidateAll();
+        if (this.balanceCache != null) {
+            this.balanceCache.invalidateAll();
+        }
 
         if (this.vault.getName() == null || this.vault.getName().isEmpty()) {
             plugin
@@ -123,7 +172,7 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
         if (!isValid()) {
             return false;
         }
-        return deposit(Bukkit.getOfflinePlayer(name), amount, world, currency);
+        return deposit(getOfflinePlayer(name), amount, world, currency);
 
     }
 
@@ -134,6 +183,7 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
         }
         try {
             EconomyResponse response = Objects.requireNonNull(this.vault).depositPlayer(trader, amount);
+            invalidateBalance(trader.getUniqueId());
             if (response.transactionSuccess()) {
                 return true;
             }
@@ -141,6 +191,7 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
             Log.transaction(Level.WARNING, "Deposit player " + trader.getUniqueId() + " failed, Vault response: " + response.errorMessage);
             return false;
         } catch (Exception t) {
+            invalidateBalance(trader.getUniqueId());
             if (plugin.getSentryErrorReporter() != null) {
                 plugin.getSentryErrorReporter().ignoreThrow();
             }
@@ -200,7 +251,7 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
         if (!isValid()) {
             return 0.0;
         }
-        return getBalance(Bukkit.getOfflinePlayer(name), world, currency);
+        return getBalance(getOfflinePlayer(name), world, currency);
 
     }
 
@@ -209,8 +260,18 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
         if (!isValid()) {
             return 0.0;
         }
+        Cache<UUID, Double> snapshot = this.balanceCache;
         try {
-            return Objects.requireNonNull(this.vault).getBalance(player);
+            if (snapshot == null) {
+                return Objects.requireNonNull(this.vault).getBalance(player);
+            }
+            Double cached = snapshot.getIfPresent(player.getUniqueId());
+            if (cached != null) {
+                return cached;
+            }
+            double balance = Objects.requireNonNull(this.vault).getBalance(player);
+            snapshot.put(player.getUniqueId(), balance);
+            return balance;
         } catch (Exception t) {
             if (plugin.getSentryErrorReporter() != null) {
                 plugin.getSentryErrorReporter().ignoreThrow();
@@ -247,6 +308,11 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
         return this.vault != null;
     }
 
+    @Override
+    public boolean isAsyncSafe() {
+        return this.asyncSafe;
+    }
+
     /**
      * Gets currency supports status
      *
@@ -288,7 +354,7 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
         if (!isValid()) {
             return false;
         }
-        return withdraw(Bukkit.getOfflinePlayer(name), amount, world, currency);
+        return withdraw(getOfflinePlayer(name), amount, world, currency);
     }
 
     @Override
@@ -297,10 +363,11 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
             return false;
         }
         try {
-            if ((!allowLoan) && (getBalance(trader, world, currency) < amount)) {
+            if ((!allowLoan) && !hasEnoughBalance(trader, amount, world, currency)) {
                 return false;
             }
             EconomyResponse response = Objects.requireNonNull(this.vault).withdrawPlayer(trader, amount);
+            invalidateBalance(trader.getUniqueId());
             if (response.transactionSuccess()) {
                 return true;
             }
@@ -308,6 +375,7 @@ public class Economy_Vault extends NonSeparateAbstractEconomy implements Listene
             Log.transaction(Level.WARNING, "Withdraw player " + trader.getUniqueId() + " failed, Vault response: " + response.errorMessage);
             return false;
         } catch (Exception t) {
+            invalidateBalance(trader.getUniqueId());
             if (plugin.getSentryErrorReporter() != null) {
                 plugin.getSentryErrorReporter().ignoreThrow();
             }
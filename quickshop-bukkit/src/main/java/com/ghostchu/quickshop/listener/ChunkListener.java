@@ -4,24 +4,33 @@ import com.ghostchu.quickshop.QuickShop;
 import com.ghostchu.quickshop.api.shop.Shop;
 import com.ghostchu.quickshop.api.shop.display.DisplayType;
 import com.ghostchu.quickshop.shop.display.AbstractDisplayItem;
+import com.ghostchu.quickshop.shop.display.DisplayCheckScheduler;
 import com.ghostchu.quickshop.util.logger.Log;
 import com.ghostchu.quickshop.util.performance.PerfMonitor;
 import com.ghostchu.simplereloadlib.ReloadResult;
 import com.ghostchu.simplereloadlib.ReloadStatus;
+import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
+import org.bukkit.entity.ItemDisplay;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ChunkListener extends AbstractQSListener {
+    private final Map<Chunk, List<Entity>> pendingDisplayEntities = new HashMap<>();
+    private boolean reconcileScheduled = false;
 
     public ChunkListener(QuickShop plugin) {
         super(plugin);
@@ -36,7 +45,6 @@ public class ChunkListener extends AbstractQSListener {
         if (inChunk == null) {
             return;
         }
-        cleanDisplayItems(e.getChunk());
         String chunkName = e.getChunk().getWorld().getName() + ", X=" + e.getChunk().getX() + ", Z=" + e.getChunk().getZ();
         try (PerfMonitor ignored = new PerfMonitor("Load shops in chunk [" + chunkName + "]", Duration.of(500, ChronoUnit.MILLIS))) {
             for (Shop shop : inChunk.values()) {
@@ -45,15 +53,48 @@ public class ChunkListener extends AbstractQSListener {
         }
     }
 
-    private void cleanDisplayItems(Chunk chunk) {
-        if (AbstractDisplayItem.getNowUsing() != DisplayType.REALITEM) {
+    /**
+     * The entities are loaded separately from the chunk, the display entities left in the chunk
+     * are collected here and cleaned in one pass on the next tick.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent e) {
+        if (!plugin.isDisplayEnabled() || AbstractDisplayItem.getNowUsing() == DisplayType.VIRTUALITEM) {
             return;
         }
-        for (Entity entity : chunk.getEntities()) {
-            if (entity instanceof Item itemEntity) {
-                if (AbstractDisplayItem.checkIsGuardItemStack(itemEntity.getItemStack())) {
-                    itemEntity.remove();
-                    Log.debug("Removed shop display item at " + itemEntity.getLocation() + " while chunk loading, pending for regenerate.");
+        if (plugin.getShopManager().getShops(e.getChunk()) == null) {
+            return;
+        }
+        for (Entity entity : e.getEntities()) {
+            if (entity instanceof Item || entity instanceof ItemDisplay) {
+                pendingDisplayEntities.computeIfAbsent(e.getChunk(), k -> new ArrayList<>()).add(entity);
+            }
+        }
+        if (!pendingDisplayEntities.isEmpty() && !reconcileScheduled) {
+            reconcileScheduled = true;
+            Bukkit.getScheduler().runTask(plugin.getJavaPlugin(), this::reconcileDisplayItems);
+        }
+    }
+
+    private void reconcileDisplayItems() {
+        reconcileScheduled = false;
+        Map<Chunk, List<Entity>> pending = new HashMap<>(pendingDisplayEntities);
+        pendingDisplayEntities.clear();
+        DisplayCheckScheduler scheduler = plugin.getDisplayCheckScheduler();
+        try (PerfMonitor ignored = new PerfMonitor("Reconcile display items in " + pending.size() + " chunks", Duration.of(500, ChronoUnit.MILLIS))) {
+            for (Map.Entry<Chunk, List<Entity>> entry : pending.entrySet()) {
+                boolean removed = false;
+                for (Entity entity : entry.getValue()) {
+                    // The chunk may be unloaded again before this pass
+                    if (entity.isValid() && AbstractDisplayItem.isOrphanDisplayEntity(entity)) {
+                        entity.remove();
+                        removed = true;
+                        Log.debug("Removed shop display item at " + entity.getLocation() + " while chunk loading, pending for regenerate.");
+                    }
+                }
+                final Map<Location, Shop> inChunk = plugin.getShopManager().getShops(entry.getKey());
+                if (removed && scheduler != null && inChunk != null) {
+                    inChunk.values().forEach(scheduler::prioritize);
                 }
             }
         }
@@ -3,15 +3,19 @@ package com.ghostchu.quickshop.listener;
 import com.ghostchu.quickshop.QuickShop;
 import com.ghostchu.quickshop.api.shop.display.DisplayType;
 import com.ghostchu.quickshop.shop.display.AbstractDisplayItem;
+import com.ghostchu.quickshop.shop.display.DisplayCheckScheduler;
 import com.ghostchu.quickshop.shop.inventory.BukkitInventoryWrapper;
 import com.ghostchu.quickshop.util.MsgUtil;
 import com.ghostchu.quickshop.util.Util;
+import com.ghostchu.quickshop.util.logger.Log;
 import org.bukkit.Location;
-import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
+import org.bukkit.entity.ItemDisplay;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.entity.EntityPortalEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
 import org.bukkit.event.entity.ItemDespawnEvent;
 import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.event.inventory.InventoryPickupItemEvent;
@@ -46,6 +50,7 @@ public class DisplayProtectionListener extends AbstractProtectionListener {
         @Nullable Location loc = event.getInventory().getLocation();
         @Nullable InventoryHolder holder = event.getInventory().getHolder();
         event.setCancelled(true);
+        recheck(event.getItem());
         sendAlert(
                 "[DisplayGuard] Something  "
                         + holder
@@ -70,6 +75,7 @@ public class DisplayProtectionListener extends AbstractProtectionListener {
         final ItemStack itemStack = event.getEntity().getItemStack();
         if (AbstractDisplayItem.checkIsGuardItemStack(itemStack)) {
             event.setCancelled(true);
+            recheck(event.getEntity());
         }
     }
 
@@ -93,6 +99,7 @@ public class DisplayProtectionListener extends AbstractProtectionListener {
         }
         event.getHook().remove();
         event.setCancelled(true);
+        recheck(item);
         sendAlert(
                 "[DisplayGuard] Player "
                         + event.getPlayer().getName()
@@ -127,10 +134,50 @@ public class DisplayProtectionListener extends AbstractProtectionListener {
         if (AbstractDisplayItem.checkIsGuardItemStack(itemEntity.getItemStack())) {
             event.setCancelled(true);
             event.getEntity().remove();
+            recheck(itemEntity);
             sendAlert(
                     "[DisplayGuard] Somebody want dupe the display by Portal at "
                             + event.getFrom()
                             + " , QuickShop already cancel it.");
         }
     }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGHEST)
+    public void entity(EntitySpawnEvent event) {
+        if (isDupedDisplay(event.getEntity())) {
+            Log.debug("Canceled a duped display entity spawning at " + event.getLocation());
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * Check the display owns the entity in the next tick, instead of waiting for the display check round.
+     *
+     * @param entity The display entity had something happened
+     */
+    private void recheck(@NotNull Entity entity) {
+        DisplayCheckScheduler scheduler = plugin.getDisplayCheckScheduler();
+        AbstractDisplayItem displayItem = AbstractDisplayItem.getByDisplayEntity(entity.getUniqueId());
+        if (scheduler != null && displayItem != null) {
+            scheduler.prioritize(displayItem.getShop());
+        }
+    }
+
+    /**
+     * Check if the entity is a guarded display entity which isn't owned by any shop's display item.
+     * Only the entities in the chunks have shops will be checked.
+     *
+     * @param entity The entity added to the world
+     * @return Is duped display
+     */
+    private boolean isDupedDisplay(@NotNull Entity entity) {
+        if (!(entity instanceof Item || entity instanceof ItemDisplay) || AbstractDisplayItem.isSpawning()) {
+            return false;
+        }
+        Location loc = entity.getLocation();
+        if (loc.getWorld() == null || plugin.getShopManager().getShops(loc.getWorld().getName(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4) == null) {
+            return false;
+        }
+        return AbstractDisplayItem.isOrphanDisplayEntity(entity);
+    }
 }
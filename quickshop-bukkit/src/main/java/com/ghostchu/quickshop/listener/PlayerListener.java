@@ -635,6 +635,11 @@ public class PlayerListener extends AbstractQSListener {
     public void onJoin(PlayerLocaleChangeEvent e) {
         Log.debug("Player " + e.getPlayer().getName() + " using new locale " + e.getLocale() + ": " + plugin.text().of(e.getPlayer(), "file-test").plain(e.getLocale()));
         plugin.getDatabaseHelper().updatePlayerProfile(e.getPlayer().getUniqueId(), e.getLocale(), e.getPlayer().getName())
+                .thenAccept(lines -> {
+                    if (plugin.getCrossServerSync() != null) {
+                        plugin.getCrossServerSync().publishPlayerProfile(e.getPlayer().getUniqueId(), e.getPlayer().getName());
+                    }
+                })
                 .exceptionally(throwable -> {
                     Log.debug("Failed to set player locale: " + throwable.getMessage());
                     return null;
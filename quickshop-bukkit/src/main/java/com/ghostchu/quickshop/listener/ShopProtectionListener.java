@@ -7,7 +7,6 @@ import com.ghostchu.quickshop.common.util.CommonUtil;
 import com.ghostchu.quickshop.obj.QUserImpl;
 import com.ghostchu.quickshop.shop.datatype.HopperPersistentData;
 import com.ghostchu.quickshop.shop.datatype.HopperPersistentDataType;
-import com.ghostchu.quickshop.util.Util;
 import com.ghostchu.quickshop.util.logging.container.ShopRemoveLog;
 import com.ghostchu.simplereloadlib.ReloadResult;
 import com.ghostchu.simplereloadlib.ReloadStatus;
@@ -27,6 +26,9 @@ import org.bukkit.event.world.StructureGrowEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+import java.util.Set;
+
 public class ShopProtectionListener extends AbstractProtectionListener {
 
     private final NamespacedKey hopperKey = new NamespacedKey(QuickShop.getInstance().getJavaPlugin(), "hopper-persistent-data");
@@ -45,38 +47,22 @@ public class ShopProtectionListener extends AbstractProtectionListener {
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onBlockExplode(BlockExplodeEvent e) {
-        for (int i = 0, a = e.blockList().size(); i < a; i++) {
-            final Block b = e.blockList().get(i);
-            Shop shop = getShopNature(b.getLocation(), true);
-            if (shop == null) {
-                shop = getShopNextTo(b.getLocation());
-            }
-            if (shop != null) {
-                if (plugin.getConfig().getBoolean("protect.explode")) {
-                    e.setCancelled(true);
-                } else {
-                    plugin.logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "Exploding", false), "BlockBreak(explode)", shop.saveToInfoStorage()));
-                    plugin.getShopManager().deleteShop(shop);
-                }
-            }
-        }
+        handleExplosion(e.blockList(), () -> e.setCancelled(true), "Exploding");
     }
 
-    /**
-     * Gets the shop a sign is attached to
-     *
-     * @param loc The location of the sign
-     * @return The shop
-     */
-    @Nullable
-    private Shop getShopNextTo(@NotNull Location loc) {
-        final Block b = Util.getAttached(loc.getBlock());
-        // Util.getAttached(b)
-        if (b == null) {
-            return null;
+    private void handleExplosion(@NotNull List<Block> blockList, @NotNull Runnable cancel, @NotNull String cause) {
+        final Set<Shop> shops = plugin.getShopManager().getShopsAffectedByBlocks(blockList);
+        if (shops.isEmpty()) {
+            return;
+        }
+        if (plugin.getConfig().getBoolean("protect.explode")) {
+            cancel.run();
+            return;
+        }
+        for (Shop shop : shops) {
+            plugin.logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), cause, false), "BlockBreak(explode)", shop.saveToInfoStorage()));
+            plugin.getShopManager().deleteShop(shop);
         }
-
-        return getShopNature(b.getLocation(), false);
     }
 
     /*
@@ -97,23 +83,7 @@ public class ShopProtectionListener extends AbstractProtectionListener {
      */
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onExplode(EntityExplodeEvent e) {
-        for (int i = 0, a = e.blockList().size(); i < a; i++) {
-            final Block b = e.blockList().get(i);
-            Shop shop = getShopNature(b.getLocation(), true);
-            if (shop == null) {
-                shop = getShopNextTo(b.getLocation());
-            }
-            if (shop == null) {
-                continue;
-            }
-
-            if (plugin.getConfig().getBoolean("protect.explode")) {
-                e.setCancelled(true);
-            } else {
-                plugin.logEvent(new ShopRemoveLog(QUserImpl.createFullFilled(CommonUtil.getNilUniqueId(), "EntityExploding", false), "BlockBreak(explode)", shop.saveToInfoStorage()));
-                plugin.getShopManager().deleteShop(shop);
-            }
-        }
+        handleExplosion(e.blockList(), () -> e.setCancelled(true), "EntityExploding");
     }
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
@@ -123,7 +93,11 @@ public class ShopProtectionListener extends AbstractProtectionListener {
         }
         final Location loc = event.getSource().getLocation();
 
-        if (loc == null) {
+        if (loc == null || loc.getWorld() == null) {
+            return;
+        }
+        // Most hoppers are nowhere near any shop, skip them before touching the shop cache
+        if (!plugin.getShopManager().mightHaveShopsAround(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockZ())) {
             return;
         }
         final Shop shop = getShopRedstone(loc, true);
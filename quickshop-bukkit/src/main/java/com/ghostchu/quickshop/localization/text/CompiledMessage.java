@@ -0,0 +1,166 @@
+package com.ghostchu.quickshop.localization.text;
+
+import com.ghostchu.quickshop.util.MsgUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A message template that deserialized by MiniMessage once, with the {0}, {1}... placeholders split into argument slots.
+ * <p>
+ * Rendering only puts the arguments into the slots, the parts without slots are shared between all renders.
+ * The templates have placeholders in hover events or non-text components fall back to {@link MsgUtil#fillArgs(Component, Component...)}.
+ */
+final class CompiledMessage {
+    private static final Pattern SLOT_PATTERN = Pattern.compile("\\{(0|[1-9]\\d{0,8})}");
+    private final String source;
+    private final Component template;
+    @Nullable
+    private final Node root;
+
+    private CompiledMessage(@NotNull String source, @NotNull Component template, @Nullable Node root) {
+        this.source = source;
+        this.template = template;
+        this.root = root;
+    }
+
+    /**
+     * Compile the template
+     *
+     * @param source    The raw MiniMessage string, used to check if the template is outdated
+     * @param component The deserialized component
+     * @return The compiled message
+     */
+    @NotNull
+    static CompiledMessage compile(@NotNull String source, @NotNull Component component) {
+        if (hasUnsupportedSlot(component)) {
+            return new CompiledMessage(source, component, null);
+        }
+        Node root = compileNode(component);
+        if (root instanceof Literal literal) {
+            // No slots at all, the rendered result is always same
+            return new CompiledMessage(source, component, new Literal(literal.component().compact()));
+        }
+        return new CompiledMessage(source, component, root);
+    }
+
+    private static boolean hasUnsupportedSlot(@NotNull Component component) {
+        if (!(component instanceof TextComponent) || component.hoverEvent() != null) {
+            return SLOT_PATTERN.matcher(GsonComponentSerializer.gson().serialize(component)).find();
+        }
+        for (Component child : component.children()) {
+            if (hasUnsupportedSlot(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    private static Node compileNode(@NotNull Component component) {
+        List<Node> nodes = new ArrayList<>();
+        boolean contentHasSlot = false;
+        if (component instanceof TextComponent text) {
+            String content = text.content();
+            Matcher matcher = SLOT_PATTERN.matcher(content);
+            int last = 0;
+            while (matcher.find()) {
+                contentHasSlot = true;
+                if (matcher.start() > last) {
+                    nodes.add(new Literal(Component.text(content.substring(last, matcher.start()))));
+                }
+                nodes.add(new Slot(Integer.parseInt(matcher.group(1))));
+                last = matcher.end();
+            }
+            if (contentHasSlot && last < content.length()) {
+                nodes.add(new Literal(Component.text(content.substring(last))));
+            }
+        }
+        boolean childrenHaveSlot = false;
+        List<Node> children = new ArrayList<>(component.children().size());
+        for (Component child : component.children()) {
+            Node node = compileNode(child);
+            childrenHaveSlot |= !(node instanceof Literal);
+            children.add(node);
+        }
+        if (!contentHasSlot && !childrenHaveSlot) {
+            return new Literal(component);
+        }
+        Component shell = contentHasSlot ? ((TextComponent) component).content("") : component;
+        // The slots inherit the style of the text they were in, same as TextReplacementConfig does
+        nodes.addAll(children);
+        return new Branch(shell.children(List.of()), List.copyOf(nodes));
+    }
+
+    @NotNull
+    private static Component renderNode(@NotNull Node node, @NotNull Component[] args) {
+        if (node instanceof Literal literal) {
+            return literal.component();
+        }
+        if (node instanceof Slot slot) {
+            if (slot.index() >= args.length) {
+                // Keep the placeholder as is when the argument is missing
+                return Component.text("{" + slot.index() + "}");
+            }
+            Component arg = args[slot.index()];
+            return arg == null ? Component.empty() : arg;
+        }
+        Branch branch = (Branch) node;
+        List<Component> children = new ArrayList<>(branch.children().size());
+        for (Node child : branch.children()) {
+            children.add(renderNode(child, args));
+        }
+        return branch.shell().children(children);
+    }
+
+    /**
+     * Fill the arguments into the template
+     *
+     * @param args The arguments
+     * @return The rendered component
+     */
+    @NotNull
+    Component render(@NotNull Component[] args) {
+        if (root == null) {
+            return MsgUtil.fillArgs(template, args);
+        }
+        if (root instanceof Literal literal) {
+            return literal.component();
+        }
+        return renderNode(root, args).compact();
+    }
+
+    /**
+     * Render the template without filling the arguments
+     *
+     * @return The template
+     */
+    @NotNull
+    Component template() {
+        return template;
+    }
+
+    @NotNull
+    String source() {
+        return source;
+    }
+
+    private sealed interface Node permits Literal, Slot, Branch {
+    }
+
+    private record Literal(Component component) implements Node {
+    }
+
+    private record Slot(int index) implements Node {
+    }
+
+    private record Branch(Component shell, List<Node> children) implements Node {
+    }
+}
@@ -53,6 +53,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.text.NumberFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -70,6 +71,8 @@ public class SimpleTextManager implements TextManager, Reloadable, SubPasteItem
     private final Set<String> availableLanguages = new LinkedHashSet<>();
     private final Cache<String, String> languagesCache =
             CacheBuilder.newBuilder().expireAfterAccess(30, TimeUnit.MINUTES).recordStats().build();
+    // <Locale, <Path, Template>>
+    private final Map<String, Map<String, CompiledMessage>> compiledMessages = new ConcurrentHashMap<>();
     private final String crowdinHost;
     private TagResolver[] tagResolvers;
     @Nullable
@@ -225,11 +228,44 @@ public class SimpleTextManager implements TextManager, Reloadable, SubPasteItem
      */
     private void reset() {
         languagesCache.cleanUp();
+        compiledMessages.clear();
         languageFilesManager.reset();
         postProcessors.clear();
         availableLanguages.clear();
     }
 
+    /**
+     * Getting the compiled template of the message, compile it if it not compiled yet or the translation changed.
+     *
+     * @param locale       The locale
+     * @param path         The path
+     * @param source       The raw MiniMessage string
+     * @param tagResolvers The tag resolvers
+     * @return The compiled template
+     */
+    @NotNull
+    private CompiledMessage compile(@NotNull String locale, @NotNull String path, @NotNull String source, @NotNull TagResolver[] tagResolvers) {
+        Map<String, CompiledMessage> inLocale = compiledMessages.computeIfAbsent(locale, k -> new ConcurrentHashMap<>());
+        CompiledMessage compiled = inLocale.get(path);
+        if (compiled != null && compiled.source().equals(source)) {
+            return compiled;
+        }
+        Component component = plugin.getPlatform().miniMessage().deserialize(source, tagResolvers);
+        for (PostProcessor postProcessor : postProcessors) {
+            if (!postProcessor.isArgumentIndependent()) {
+                continue;
+            }
+            try {
+                component = postProcessor.process(component, null);
+            } catch (Exception e) {
+                Log.debug("Error occurred while processing text: " + source + " caused by" + e.getMessage() + ", handler: " + postProcessor.getClass().getName());
+            }
+        }
+        compiled = CompiledMessage.compile(source, component);
+        inLocale.put(path, compiled);
+        return compiled;
+    }
+
     @NotNull
     private FileConfiguration loadBuiltInFallback() {
         YamlConfiguration configuration = new YamlConfiguration();
@@ -898,7 +934,8 @@ public class SimpleTextManager implements TextManager, Reloadable, SubPasteItem
         @Override
         @NotNull
         public Component forLocale(@NotNull String locale) {
-            FileConfiguration index = mapping.get(manager.findRelativeLanguages(locale).getLocale());
+            String relativeLocale = manager.findRelativeLanguages(locale).getLocale();
+            FileConfiguration index = mapping.get(relativeLocale);
             if (index == null) {
                 Log.debug("Index for " + locale + " is null");
                 Log.debug("Fallback " + locale + " to default game-language locale caused by QuickShop doesn't support this locale");
@@ -921,8 +958,7 @@ public class SimpleTextManager implements TextManager, Reloadable, SubPasteItem
                     }
                     return LegacyComponentSerializer.legacySection().deserialize(path);
                 }
-                Component component = manager.plugin.getPlatform().miniMessage().deserialize(str, tagResolvers);
-                return postProcess(component);
+                return postProcess(manager.compile(relativeLocale, path, str, tagResolvers));
             }
         }
 
@@ -991,14 +1027,23 @@ public class SimpleTextManager implements TextManager, Reloadable, SubPasteItem
         }
 
         /**
-         * Post processes the text
+         * Post processes the text, the argument-independent processors already applied while compiling
          *
-         * @param text The text
+         * @param compiled The compiled template
          * @return The text that processed
          */
         @NotNull
-        private Component postProcess(@NotNull Component text) {
+        private Component postProcess(@NotNull CompiledMessage compiled) {
+            Component text = compiled.template();
             for (PostProcessor postProcessor : this.manager.postProcessors) {
+                if (postProcessor.isArgumentIndependent()) {
+                    continue;
+                }
+                if (postProcessor instanceof FillerProcessor && text == compiled.template()) {
+                    // Put the arguments into the compiled slots instead of searching the placeholders
+                    text = compiled.render(args);
+                    continue;
+                }
                 try {
                     text = postProcessor.process(text, sender, args);
                 } catch (Exception e) {
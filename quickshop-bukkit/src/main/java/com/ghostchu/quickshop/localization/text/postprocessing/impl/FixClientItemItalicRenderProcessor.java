@@ -20,4 +20,9 @@ public class FixClientItemItalicRenderProcessor implements PostProcessor {
         }
         return text;
     }
+
+    @Override
+    public boolean isArgumentIndependent() {
+        return true;
+    }
 }
@@ -2,56 +2,119 @@ package com.ghostchu.quickshop.papi;
 
 import com.ghostchu.quickshop.QuickShop;
 import com.ghostchu.quickshop.api.shop.Shop;
-import com.ghostchu.quickshop.common.util.JsonUtil;
+import com.ghostchu.quickshop.common.util.QuickExecutor;
 import com.ghostchu.quickshop.util.performance.PerfMonitor;
 import com.ghostchu.simplereloadlib.ReloadResult;
 import com.ghostchu.simplereloadlib.Reloadable;
-import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
 import com.google.common.cache.CacheStats;
-import lombok.Data;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.bukkit.configuration.ConfigurationSection;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
+/**
+ * The cache of placeholder results.
+ * <p>
+ * The values are refreshed in the background after their TTL passed, the stale value is returned while refreshing,
+ * so only the first request of a placeholder waits for the loader.
+ */
 public class PAPICache implements Reloadable {
+    private final BiFunction<UUID, String, String> loader;
     private QuickShop plugin;
     private long expiredTime;
-    private Cache<String, Optional<String>> performCaches;
+    private Map<String, Long> expiredTimeOverrides;
+    private LoadingCache<CacheKey, CachedValue> performCaches;
 
-    public PAPICache() {
+    public PAPICache(@NotNull BiFunction<UUID, String, String> loader) {
+        this.loader = loader;
         init();
         QuickShop.getInstance().getReloadManager().register(this);
     }
 
     private void init() {
         this.plugin = QuickShop.getInstance();
-        this.expiredTime = plugin.getConfig().getLong("plugin.PlaceHolderAPI.cache", 900000);
+        this.expiredTime = Math.max(1, plugin.getConfig().getLong("plugin.PlaceHolderAPI.cache", 900000));
+        Map<String, Long> overrides = new HashMap<>();
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("plugin.PlaceHolderAPI.cache-overrides");
+        if (section != null) {
+            for (String prefix : section.getKeys(false)) {
+                overrides.put(prefix, Math.max(1, section.getLong(prefix)));
+            }
+        }
+        this.expiredTimeOverrides = overrides;
+        long minExpiredTime = overrides.values().stream().reduce(expiredTime, Math::min);
+        long maxExpiredTime = overrides.values().stream().reduce(expiredTime, Math::max);
         this.performCaches = CacheBuilder.newBuilder()
-                .expireAfterWrite(expiredTime, java.util.concurrent.TimeUnit.MILLISECONDS)
+                // Checks the entries at the shortest TTL, the reload skips the entries which their own TTL not passed yet
+                .refreshAfterWrite(minExpiredTime, TimeUnit.MILLISECONDS)
+                // Drop the placeholders nobody requests anymore, e.g. the players left the server
+                .expireAfterAccess(maxExpiredTime * 2, TimeUnit.MILLISECONDS)
                 .recordStats()
-                .build();
+                .build(new CacheLoader<>() {
+                    @Override
+                    public @NotNull CachedValue load(@NotNull CacheKey key) {
+                        return PAPICache.this.load(key);
+                    }
+
+                    @Override
+                    public @NotNull ListenableFuture<CachedValue> reload(@NotNull CacheKey key, @NotNull CachedValue oldValue) {
+                        if (System.currentTimeMillis() < oldValue.refreshAt()) {
+                            return Futures.immediateFuture(oldValue);
+                        }
+                        ListenableFutureTask<CachedValue> task = ListenableFutureTask.create(() -> PAPICache.this.load(key));
+                        QuickExecutor.getCommonExecutor().execute(task);
+                        return task;
+                    }
+                });
+    }
+
+    @NotNull
+    private CachedValue load(@NotNull CacheKey key) {
+        return create(key.queryString(), Optional.ofNullable(loader.apply(key.player(), key.queryString())));
+    }
+
+    @NotNull
+    private CachedValue create(@NotNull String queryString, @NotNull Optional<String> value) {
+        long ttl = getExpiredTime(queryString);
+        long now = System.currentTimeMillis();
+        // Spread the refreshes, so the entries loaded together won't hit the database together again
+        long jitter = ThreadLocalRandom.current().nextLong(ttl / 10 + 1);
+        return new CachedValue(value, now + ttl + jitter, now + ttl * 2);
     }
 
     @NotNull
-    public Optional<String> getCached(@NotNull UUID player, @NotNull String args, @NotNull BiFunction<UUID, String, String> loader) {
+    public Optional<String> getCached(@NotNull UUID player, @NotNull String args) {
+        CacheKey key = CacheKey.of(player, args);
         try (PerfMonitor ignored = new PerfMonitor("PlaceHolder API Handling")) {
-            return performCaches.get(compileUniqueKey(player, args), () -> Optional.ofNullable(loader.apply(player, args)));
-        } catch (ExecutionException ex) {
+            CachedValue cached = performCaches.get(key);
+            if (System.currentTimeMillis() > cached.expireAt()) {
+                // Too old to serve while refreshing, the placeholder wasn't requested for a long time
+                performCaches.invalidate(key);
+                cached = performCaches.get(key);
+            }
+            return cached.value();
+        } catch (ExecutionException | UncheckedExecutionException ex) {
             plugin.logger().warn("Failed to get cache for " + player + " " + args, ex);
             return Optional.empty();
         }
     }
 
-    @NotNull
-    private String compileUniqueKey(@NotNull UUID player, @NotNull String queryString) {
-        return JsonUtil.standard().toJson(new CompiledUniqueKey(player, queryString));
-    }
-
     private long getShopsInWorld(@NotNull String world, boolean loadedOnly) {
         return plugin.getShopManager().getAllShops().stream()
                 .filter(shop -> shop.getLocation().getWorld() != null)
@@ -90,18 +153,44 @@ public class PAPICache implements Reloadable {
         return expiredTime;
     }
 
+    /**
+     * Get the TTL of the placeholder, the override with longest matched prefix wins.
+     *
+     * @param queryString The placeholder params
+     * @return The TTL in milliseconds
+     */
+    public long getExpiredTime(@NotNull String queryString) {
+        long ttl = expiredTime;
+        int matchedLength = -1;
+        for (Map.Entry<String, Long> entry : expiredTimeOverrides.entrySet()) {
+            if (queryString.startsWith(entry.getKey()) && entry.getKey().length() > matchedLength) {
+                matchedLength = entry.getKey().length();
+                ttl = entry.getValue();
+            }
+        }
+        return ttl;
+    }
+
+    @NotNull
+    public Map<String, Long> getExpiredTimeOverrides() {
+        return Collections.unmodifiableMap(expiredTimeOverrides);
+    }
+
+    public long getSize() {
+        return performCaches.size();
+    }
+
     public @NotNull CacheStats getStats() {
         return performCaches.stats();
     }
 
     @Nullable
     public String readCache(@NotNull UUID player, @NotNull String queryString) {
-        Optional<String> cache = performCaches.getIfPresent(compileUniqueKey(player, queryString));
-        //noinspection OptionalAssignedToNull
-        if (cache == null || cache.isEmpty()) {
+        CachedValue cache = performCaches.getIfPresent(CacheKey.of(player, queryString));
+        if (cache == null) {
             return null;
         }
-        return cache.orElse(null);
+        return cache.value().orElse(null);
     }
 
     @Override
@@ -111,19 +200,21 @@ public class PAPICache implements Reloadable {
     }
 
     public void writeCache(@NotNull UUID player, @NotNull String queryString, @NotNull String queryValue) {
-        performCaches.put(compileUniqueKey(player, queryString), Optional.of(queryValue));
+        performCaches.put(CacheKey.of(player, queryString), create(queryString, Optional.of(queryValue)));
     }
 
-    @Data
-    static class CompiledUniqueKey {
-        private UUID player;
-        private String queryString;
+    record CacheKey(@NotNull UUID player, @NotNull String queryString, int hash) {
+        @NotNull
+        static CacheKey of(@NotNull UUID player, @NotNull String queryString) {
+            return new CacheKey(player, queryString, 31 * player.hashCode() + queryString.hashCode());
+        }
 
-        public CompiledUniqueKey(UUID player, String queryString) {
-            this.player = player;
-            this.queryString = queryString;
+        @Override
+        public int hashCode() {
+            return hash;
         }
     }
 
-
+    record CachedValue(@NotNull Optional<String> value, long refreshAt, long expireAt) {
+    }
 }
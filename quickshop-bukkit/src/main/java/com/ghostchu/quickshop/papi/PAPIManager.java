@@ -9,6 +9,7 @@ import com.ghostchu.quickshop.util.logger.Log;
 import com.ghostchu.quickshop.util.paste.GuavaCacheRender;
 import com.ghostchu.quickshop.util.paste.item.SubPasteItem;
 import com.ghostchu.quickshop.util.paste.util.HTMLTable;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -21,10 +22,11 @@ import java.util.UUID;
 public class PAPIManager implements SubPasteItem {
     private final QuickShop plugin;
     private final List<PAPISubHandler> handlers = new ArrayList<>();
-    private final PAPICache cache = new PAPICache();
+    private final PAPICache cache;
 
     public PAPIManager(@NotNull QuickShop plugin) {
         this.plugin = plugin;
+        this.cache = new PAPICache(this::resolve);
         plugin.getPasteManager().register(plugin.getJavaPlugin(), this);
         init();
     }
@@ -60,18 +62,27 @@ public class PAPIManager implements SubPasteItem {
 
     @Nullable
     public String handle(@NotNull OfflinePlayer player, @NotNull String params) {
-        UUID playerUniqueId = player.getUniqueId();
-        return cache.getCached(playerUniqueId, params, (uuid, parms) -> {
-            for (PAPISubHandler handler : handlers) {
-                Log.debug("Comparing with " + handler.getPrefix() + " and " + params);
-                if (params.startsWith(handler.getPrefix())) {
-                    Log.debug("Match! Handling...");
-                    return handler.handle(player, params);
-                }
+        return cache.getCached(player.getUniqueId(), params).orElse(null);
+    }
+
+    @Nullable
+    private String resolve(@NotNull UUID uuid, @NotNull String params) {
+        // May be called from the refreshing thread, so look up the player by uuid instead of capturing it
+        OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
+        for (PAPISubHandler handler : handlers) {
+            Log.debug("Comparing with " + handler.getPrefix() + " and " + params);
+            if (params.startsWith(handler.getPrefix())) {
+                Log.debug("Match! Handling...");
+                return handler.handle(player, params);
             }
-            Log.debug("No PAPI handler hit");
-            return null;
-        }).orElse(null);
+        }
+        Log.debug("No PAPI handler hit");
+        return null;
+    }
+
+    @NotNull
+    public PAPICache getCache() {
+        return cache;
     }
 
     @Override
@@ -85,6 +96,11 @@ public class PAPIManager implements SubPasteItem {
         }
         joiner.add(table.render());
         joiner.add("<h5>Caching</h5>");
+        HTMLTable ttlTable = new HTMLTable(2, true);
+        ttlTable.insert("Cached Entries", String.valueOf(cache.getSize()));
+        ttlTable.insert("Default TTL", cache.getExpiredTime() + "ms");
+        cache.getExpiredTimeOverrides().forEach((prefix, ttl) -> ttlTable.insert("TTL of " + prefix, ttl + "ms"));
+        joiner.add(ttlTable.render());
         joiner.add(GuavaCacheRender.renderTable(cache.getStats()));
         return joiner.toString();
     }
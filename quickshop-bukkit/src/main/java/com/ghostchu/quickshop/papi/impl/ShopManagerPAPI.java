@@ -1,24 +1,24 @@
 package com.ghostchu.quickshop.papi.impl;
 
 import com.ghostchu.quickshop.QuickShop;
-import com.ghostchu.quickshop.api.shop.Shop;
-import com.ghostchu.quickshop.api.shop.ShopManager;
 import com.ghostchu.quickshop.api.shop.ShopType;
 import com.ghostchu.quickshop.papi.PAPISubHandler;
+import com.ghostchu.quickshop.shop.ShopCounter;
+import com.ghostchu.quickshop.shop.SimpleShopManager;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
+import java.util.Arrays;
 import java.util.UUID;
 
 public class ShopManagerPAPI implements PAPISubHandler {
     private final QuickShop plugin;
-    private final ShopManager shopManager;
+    private final ShopCounter shopCounter;
 
     public ShopManagerPAPI(@NotNull QuickShop plugin) {
         this.plugin = plugin;
-        this.shopManager = plugin.getShopManager();
+        this.shopCounter = ((SimpleShopManager) plugin.getShopManager()).getShopCounter();
     }
 
     @Override
@@ -39,6 +39,7 @@ public class ShopManagerPAPI implements PAPISubHandler {
         return switch (args[0]) {
             case "global" -> handleGlobal(player, passThroughArgs);
             case "player" -> handlePlayer(player, passThroughArgs);
+            case "world" -> handleWorld(passThroughArgs);
             default -> null;
         };
     }
@@ -73,20 +74,25 @@ public class ShopManagerPAPI implements PAPISubHandler {
         return handlePlayerTotal(player.getUniqueId(), passThroughArgsChild);
     }
 
+    @Nullable
+    private String handleWorld(String[] passThroughArgs) {
+        if (passThroughArgs.length < 3) {
+            return null;
+        }
+        if (!"total".equalsIgnoreCase(passThroughArgs[0])) {
+            return null;
+        }
+        // The world name may contain underscores
+        String world = String.join("_", Arrays.copyOfRange(passThroughArgs, 2, passThroughArgs.length));
+        return handleCount(shopCounter.getByWorld(world), passThroughArgs[1]);
+    }
+
     @Nullable
     private String handleGlobalTotal(@NotNull OfflinePlayer player, String[] passThroughArgsChild) {
         if (passThroughArgsChild.length < 1) {
             return null;
         }
-        List<Shop> allShops = shopManager.getAllShops();
-        return String.valueOf(switch (passThroughArgsChild[0]) {
-            case "all" -> allShops.size();
-            case "selling" -> allShops.stream().filter(shop -> shop.getShopType() == ShopType.SELLING).count();
-            case "buying" -> allShops.stream().filter(shop -> shop.getShopType() == ShopType.BUYING).count();
-            case "loaded" -> shopManager.getLoadedShops().size();
-            case "unloaded" -> allShops.size() - shopManager.getLoadedShops().size();
-            default -> null;
-        });
+        return handleCount(shopCounter.getGlobal(), passThroughArgsChild[0]);
     }
 
     @Nullable
@@ -94,14 +100,18 @@ public class ShopManagerPAPI implements PAPISubHandler {
         if (passThroughArgsChild.length < 1) {
             return null;
         }
-        List<Shop> belongToPlayers = shopManager.getAllShops(player);
-        return String.valueOf(switch (passThroughArgsChild[0]) {
-            case "all" -> belongToPlayers.size();
-            case "selling" -> belongToPlayers.stream().filter(shop -> shop.getShopType() == ShopType.SELLING).count();
-            case "buying" -> belongToPlayers.stream().filter(shop -> shop.getShopType() == ShopType.BUYING).count();
-            case "loaded" -> shopManager.getLoadedShops().size();
-            case "unloaded" -> belongToPlayers.stream().filter(shop -> !shop.isLoaded()).count();
+        return handleCount(shopCounter.getByOwner(player), passThroughArgsChild[0]);
+    }
+
+    @Nullable
+    private String handleCount(@NotNull ShopCounter.Count count, @NotNull String condition) {
+        return switch (condition) {
+            case "all" -> String.valueOf(count.getAll());
+            case "selling" -> String.valueOf(count.getOfType(ShopType.SELLING));
+            case "buying" -> String.valueOf(count.getOfType(ShopType.BUYING));
+            case "loaded" -> String.valueOf(count.getLoaded());
+            case "unloaded" -> String.valueOf(count.getUnloaded());
             default -> null;
-        });
+        };
     }
 }
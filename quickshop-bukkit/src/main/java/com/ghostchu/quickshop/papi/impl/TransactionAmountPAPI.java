@@ -1,22 +1,21 @@
 package com.ghostchu.quickshop.papi.impl;
 
 import com.ghostchu.quickshop.QuickShop;
-import com.ghostchu.quickshop.api.database.ShopMetricRecord;
 import com.ghostchu.quickshop.api.database.ShopOperationEnum;
-import com.ghostchu.quickshop.api.obj.QUser;
 import com.ghostchu.quickshop.api.shop.ShopType;
 import com.ghostchu.quickshop.database.MetricQuery;
 import com.ghostchu.quickshop.database.SimpleDatabaseHelperV2;
-import com.ghostchu.quickshop.obj.QUserImpl;
 import com.ghostchu.quickshop.papi.PAPISubHandler;
 import org.apache.commons.lang3.StringUtils;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 public class TransactionAmountPAPI implements PAPISubHandler {
@@ -52,36 +51,16 @@ public class TransactionAmountPAPI implements PAPISubHandler {
 
     @Nullable
     private String handleGlobal(@NotNull OfflinePlayer player, @NotNull String[] passThroughArgs) {
-        if (passThroughArgs.length < 2) {
-            return null;
-        }
-        String type = passThroughArgs[0];
-        String days = passThroughArgs[1];
-        if (!StringUtils.isNumeric(days)) {
-            return null;
-        }
-        ShopType shopType = ShopType.fromString(type.toUpperCase(Locale.ROOT));
-        int recentDays = Integer.parseInt(days);
-        Date startTime = new Date(Instant.now().minus(Duration.ofDays(recentDays)).toEpochMilli());
-        long count = this.query.queryServerPurchaseRecords(startTime, -1, false).stream()
-                .filter(record -> {
-                    if (shopType == null) {
-                        return true;
-                    }
-                    if (shopType == ShopType.SELLING) {
-                        return record.getType() == ShopOperationEnum.PURCHASE_SELLING_SHOP;
-                    }
-                    if (shopType == ShopType.BUYING) {
-                        return record.getType() == ShopOperationEnum.PURCHASE_BUYING_SHOP;
-                    }
-                    return false;
-                })
-                .mapToLong(ShopMetricRecord::getAmount).sum();
-        return String.valueOf(count);
+        return handleSummary(null, passThroughArgs);
     }
 
     @Nullable
     private String handlePlayer(@NotNull OfflinePlayer player, String[] passThroughArgs) {
+        return handleSummary(player.getUniqueId().toString(), passThroughArgs);
+    }
+
+    @Nullable
+    private String handleSummary(@Nullable String buyer, String[] passThroughArgs) {
         if (passThroughArgs.length < 2) {
             return null;
         }
@@ -93,24 +72,16 @@ public class TransactionAmountPAPI implements PAPISubHandler {
         ShopType shopType = ShopType.fromString(type.toUpperCase(Locale.ROOT));
         int recentDays = Integer.parseInt(days);
         Date startTime = new Date(Instant.now().minus(Duration.ofDays(recentDays)).toEpochMilli());
-        long count = this.query.queryServerPurchaseRecords(startTime, -1, false).stream()
-                .filter(record -> {
-                    if (shopType == null) {
-                        return true;
-                    }
-                    if (shopType == ShopType.SELLING) {
-                        return record.getType() == ShopOperationEnum.PURCHASE_SELLING_SHOP;
-                    }
-                    if (shopType == ShopType.BUYING) {
-                        return record.getType() == ShopOperationEnum.PURCHASE_BUYING_SHOP;
-                    }
-                    return false;
-                })
-                .filter(record -> {
-                    QUser qUser = QUserImpl.createSync(plugin.getPlayerFinder(), record.getPlayer());
-                    return player.getUniqueId().equals(qUser.getUniqueId());
-                })
-                .mapToLong(ShopMetricRecord::getAmount).sum();
-        return String.valueOf(count);
+        MetricQuery.PurchaseFilter filter = MetricQuery.PurchaseFilter.builder()
+                .from(startTime)
+                .buyer(buyer)
+                .types(shopType == null ? null : List.of(shopType == ShopType.SELLING ? ShopOperationEnum.PURCHASE_SELLING_SHOP : ShopOperationEnum.PURCHASE_BUYING_SHOP))
+                .build();
+        try {
+            return String.valueOf(this.query.summarizePurchases(filter).amount());
+        } catch (SQLException e) {
+            plugin.logger().warn("Failed to query the recent transaction amount", e);
+            return null;
+        }
     }
 }
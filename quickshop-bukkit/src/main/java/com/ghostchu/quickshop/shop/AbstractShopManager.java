@@ -6,12 +6,14 @@ import com.ghostchu.quickshop.api.obj.QUser;
 import com.ghostchu.quickshop.api.shop.Shop;
 import com.ghostchu.quickshop.api.shop.ShopChunk;
 import com.ghostchu.quickshop.api.shop.ShopManager;
+import com.ghostchu.quickshop.api.shop.ShopSnapshot;
 import com.ghostchu.quickshop.api.shop.cache.ShopCache;
 import com.ghostchu.quickshop.api.shop.cache.ShopCacheNamespacedKey;
 import com.ghostchu.quickshop.api.shop.cache.ShopInventoryCountCache;
 import com.ghostchu.quickshop.common.util.QuickExecutor;
 import com.ghostchu.quickshop.shop.cache.BoxedShop;
 import com.ghostchu.quickshop.shop.cache.SimpleShopCache;
+import com.ghostchu.quickshop.sync.SyncMessage;
 import com.ghostchu.quickshop.util.Util;
 import com.ghostchu.quickshop.util.economyformatter.EconomyFormatter;
 import com.ghostchu.quickshop.util.logger.Log;
@@ -41,6 +43,7 @@ import org.jetbrains.annotations.Nullable;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 // This class is extract from SimpleShopManager because it is too big...
@@ -62,6 +65,12 @@ public abstract class AbstractShopManager implements ShopManager {
     protected final EconomyFormatter formatter;
     protected final Map<String, Map<ShopChunk, Map<Location, Shop>>> shops = Maps.newConcurrentMap();
     protected final Set<Shop> loadedShops = Sets.newConcurrentHashSet(); // Handle it by collection to reduce
+    protected final ShopChunkIndex shopChunkIndex = new ShopChunkIndex();
+    // The shops have been assigned an id, the new shops are added after created in database
+    protected final Map<Long, Shop> shopsById = new ConcurrentHashMap<>();
+    @Getter
+    // Not loadedShops::contains, the hash of the shop changes with the owner and type
+    protected final ShopCounter shopCounter = new ShopCounter(Shop::isLoaded);
 
 
     public AbstractShopManager(@NotNull QuickShop plugin) {
@@ -101,7 +110,16 @@ public abstract class AbstractShopManager implements ShopManager {
         // That chunk data hasn't been created yet - Create it!
         // Put it in the world
         // Put the shop in its location in the chunk list.
-        inChunk.put(shop.getLocation(), shop);
+        Shop replaced = inChunk.put(shop.getLocation(), shop);
+        if (replaced != null && replaced != shop) {
+            shopCounter.untrack(replaced);
+            shopsById.remove(replaced.getShopId(), replaced);
+        }
+        shopCounter.track(shop);
+        if (shop.getShopId() > 0) {
+            shopsById.put(shop.getShopId(), shop);
+        }
+        shopChunkIndex.add(world, x, z);
     }
 
     @Override
@@ -144,6 +162,7 @@ public abstract class AbstractShopManager implements ShopManager {
         //noinspection deprecation
         shop.handleLoading();
         this.loadedShops.add(shop);
+        shopCounter.update(shop);
     }
 
     @Override
@@ -156,6 +175,8 @@ public abstract class AbstractShopManager implements ShopManager {
         //noinspection deprecation
         shop.handleUnloading(dontTouchWorld);
         this.loadedShops.remove(shop);
+        // The shop may remove itself from the loaded shops while unloading, so always re-count
+        shopCounter.update(shop);
     }
 
     /**
@@ -178,7 +199,12 @@ public abstract class AbstractShopManager implements ShopManager {
         if (inChunk == null) {
             return;
         }
-        inChunk.remove(loc);
+        Shop removed = inChunk.remove(loc);
+        if (removed != null) {
+            shopCounter.untrack(removed);
+            shopsById.remove(removed.getShopId(), removed);
+        }
+        shopChunkIndex.removeIfEmpty(world, x, z, inChunk);
         shopCache.invalidate(null, shop.getLocation());
     }
 
@@ -233,6 +259,12 @@ public abstract class AbstractShopManager implements ShopManager {
         Location loc = shop.getLocation();
         return plugin.getDatabaseHelper().removeShopMap(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ())
                 .thenCombine(plugin.getDatabaseHelper().removeShop(shop.getShopId()), (a, b) -> null)
+                .thenApply(v -> {
+                    if (plugin.getCrossServerSync() != null) {
+                        plugin.getCrossServerSync().publishShop(SyncMessage.Type.SHOP_DELETE, shop);
+                    }
+                    return null;
+                })
                 .exceptionally(throwable -> {
                     plugin.logger().warn("Failed to remove shop from database", throwable);
                     return null;
@@ -311,12 +343,38 @@ public abstract class AbstractShopManager implements ShopManager {
      */
     @Override
     public @Nullable Shop getShop(long shopId) {
-        for (Shop shop : getAllShops()) {
-            if (shop.getShopId() == shopId) {
-                return shop;
+        return shopsById.get(shopId);
+    }
+
+    @Override
+    public @NotNull List<ShopSnapshot> getShopSnapshots() {
+        List<Shop> allShops = getAllShops();
+        List<ShopSnapshot> snapshots = new ArrayList<>(allShops.size());
+        for (Shop shop : allShops) {
+            addSnapshot(snapshots, shop);
+        }
+        return snapshots;
+    }
+
+    @Override
+    public @NotNull List<ShopSnapshot> getShopSnapshots(@NotNull Collection<Long> shopIds) {
+        List<ShopSnapshot> snapshots = new ArrayList<>(shopIds.size());
+        for (long shopId : new HashSet<>(shopIds)) {
+            Shop shop = getShop(shopId);
+            if (shop != null) {
+                addSnapshot(snapshots, shop);
             }
         }
-        return null;
+        return snapshots;
+    }
+
+    private void addSnapshot(@NotNull List<ShopSnapshot> snapshots, @NotNull Shop shop) {
+        try {
+            snapshots.add(shop.getSnapshot());
+        } catch (IllegalStateException e) {
+            // The item of a lazy loaded shop is broken, it will be handled when the shop loading
+            Log.debug("Skipped the snapshot of shop " + shop.getShopId() + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -430,10 +488,16 @@ public abstract class AbstractShopManager implements ShopManager {
                 .thenAccept(id -> {
                     Log.debug("DEBUG: Setting shop id");
                     shop.setShopId(id);
+                    if (getShop(shop.getLocation(), true) == shop) {
+                        shopsById.put(id, shop);
+                    }
                     Log.debug("DEBUG: Creating shop map");
                     plugin.getDatabaseHelper().createShopMap(id, shop.getLocation()).join();
                     Log.debug("DEBUG: Creating shop successfully");
                     shop.setDirty();
+                    if (plugin.getCrossServerSync() != null) {
+                        plugin.getCrossServerSync().publishShop(SyncMessage.Type.SHOP_CREATE, shop);
+                    }
                     new ShopCreateSuccessEvent(shop, shop.getOwner()).callEvent();
                 })
                 .exceptionally(err -> {
@@ -492,6 +556,92 @@ public abstract class AbstractShopManager implements ShopManager {
         return this.shops.get(world);
     }
 
+    @Override
+    public @NotNull List<Shop> getShopsInRegion(@NotNull String world, int minX, int minZ, int maxX, int maxZ) {
+        final List<Shop> regionShops = new ArrayList<>();
+        for (ShopChunk shopChunk : shopChunkIndex.query(world, minX >> 4, minZ >> 4, maxX >> 4, maxZ >> 4)) {
+            final Map<Location, Shop> inChunk = getShops(shopChunk);
+            if (inChunk == null) {
+                continue;
+            }
+            for (Shop shop : inChunk.values()) {
+                Location location = shop.getLocation();
+                if (location.getBlockX() >= minX && location.getBlockX() < maxX
+                        && location.getBlockZ() >= minZ && location.getBlockZ() < maxZ) {
+                    regionShops.add(shop);
+                }
+            }
+        }
+        return regionShops;
+    }
+
+    @Override
+    public @NotNull List<ShopChunk> getShopChunksInRegion(@NotNull String world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        return shopChunkIndex.query(world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+    }
+
+    @Override
+    public @NotNull Set<Shop> getShopsAffectedByBlocks(@NotNull Collection<Block> blocks) {
+        final Set<Shop> affected = new LinkedHashSet<>();
+        // Whether the chunk or any of its neighbours has shops, keyed by world and packed chunk coords
+        final Map<String, Map<Long, Boolean>> nearShops = new HashMap<>();
+        for (Block block : blocks) {
+            final String world = block.getWorld().getName();
+            final int chunkX = block.getX() >> 4;
+            final int chunkZ = block.getZ() >> 4;
+            final boolean near = nearShops.computeIfAbsent(world, k -> new HashMap<>())
+                    .computeIfAbsent(ShopChunkIndex.pack(chunkX, chunkZ), k -> hasShopsAround(world, chunkX, chunkZ));
+            if (!near) {
+                continue;
+            }
+            Shop shop = getShopInBlock(block);
+            if (shop == null) {
+                // Only signs and containers may be attached to a shop
+                if (Util.isWallSign(block.getType())) {
+                    final Block attached = Util.getAttached(block);
+                    if (attached != null) {
+                        shop = getShopInBlock(attached);
+                    }
+                } else if (Util.isShoppables(block.getType())) {
+                    final Block half = Util.getSecondHalf(block);
+                    if (half != null) {
+                        shop = getShopInBlock(half);
+                    }
+                }
+            }
+            if (shop != null) {
+                affected.add(shop);
+            }
+        }
+        return affected;
+    }
+
+    @Override
+    public boolean mightHaveShopsAround(@NotNull String world, int blockX, int blockZ) {
+        return shopChunkIndex.mightContainAround(world, blockX, blockZ);
+    }
+
+    private boolean hasShopsAround(@NotNull String world, int chunkX, int chunkZ) {
+        // Attached signs and double chest halves may cross the chunk border
+        for (int x = chunkX - 1; x <= chunkX + 1; x++) {
+            for (int z = chunkZ - 1; z <= chunkZ + 1; z++) {
+                if (shopChunkIndex.contains(world, x, z)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private Shop getShopInBlock(@NotNull Block block) {
+        final Map<Location, Shop> inChunk = getShops(block.getWorld().getName(), block.getX() >> 4, block.getZ() >> 4);
+        if (inChunk == null) {
+            return null;
+        }
+        return inChunk.get(block.getLocation());
+    }
+
     /**
      * Get the all shops in the world.
      *
@@ -11,6 +11,7 @@ import com.ghostchu.quickshop.api.obj.QUser;
 import com.ghostchu.quickshop.api.serialize.BlockPos;
 import com.ghostchu.quickshop.api.shop.Shop;
 import com.ghostchu.quickshop.api.shop.ShopInfoStorage;
+import com.ghostchu.quickshop.api.shop.ShopSnapshot;
 import com.ghostchu.quickshop.api.shop.ShopType;
 import com.ghostchu.quickshop.api.shop.permission.BuiltInShopPermission;
 import com.ghostchu.quickshop.api.shop.permission.BuiltInShopPermissionGroup;
@@ -22,6 +23,7 @@ import com.ghostchu.quickshop.shop.datatype.ShopSignPersistentDataType;
 import com.ghostchu.quickshop.shop.display.AbstractDisplayItem;
 import com.ghostchu.quickshop.shop.display.DisplayEntityDisplayItem;
 import com.ghostchu.quickshop.shop.display.RealDisplayItem;
+import com.ghostchu.quickshop.sync.SyncMessage;
 import com.ghostchu.quickshop.util.MsgUtil;
 import com.ghostchu.quickshop.util.PackageUtil;
 import com.ghostchu.quickshop.util.Util;
@@ -40,6 +42,7 @@ import org.bukkit.block.BlockFace;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.Sign;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
@@ -69,20 +72,25 @@ public class ContainerShop implements Shop, Reloadable {
     private final QuickShop plugin;
     @EqualsAndHashCode.Exclude
     private final UUID runtimeRandomUniqueId = UUID.randomUUID();
+    /* The item, extra and permissions are excluded from equals and hashCode, they are released while dehydrated */
     @NotNull
-    private final Map<UUID, String> playerGroup;
+    @EqualsAndHashCode.Exclude
+    private Map<UUID, String> playerGroup;
     @EqualsAndHashCode.Exclude
     private final boolean isDeleted = false;
-    private YamlConfiguration extra;
+    @EqualsAndHashCode.Exclude
+    private volatile YamlConfiguration extra;
     private long shopId;
     private QUser owner;
     private double price;
     private ShopType shopType;
     private boolean unlimited;
     @NotNull
-    private ItemStack item;
+    @EqualsAndHashCode.Exclude
+    private volatile ItemStack item;
     @NotNull
-    private ItemStack originalItem;
+    @EqualsAndHashCode.Exclude
+    private volatile ItemStack originalItem;
     @Nullable
     @EqualsAndHashCode.Exclude
     private AbstractDisplayItem displayItem;
@@ -109,6 +117,31 @@ public class ContainerShop implements Shop, Reloadable {
 
     @NotNull
     private Benefit benefit;
+    /* The undecoded item, extra and permissions, non-null until the shop hydrated */
+    @Nullable
+    @EqualsAndHashCode.Exclude
+    private volatile ShopRawData rawData;
+    /* Set once the raw item failed to decode, the shop will be removed on the next tick */
+    @EqualsAndHashCode.Exclude
+    private volatile boolean corrupt;
+    @EqualsAndHashCode.Exclude
+    private volatile long unloadedAt = System.currentTimeMillis();
+    /* Created on the first read, then re-published on every change */
+    @Nullable
+    @EqualsAndHashCode.Exclude
+    private volatile SimpleShopSnapshot snapshot;
+    /* The item the snapshot item copied from and its amount, skip the copying if the item not changed */
+    @Nullable
+    @EqualsAndHashCode.Exclude
+    private ItemStack snapshotItemSource;
+    @EqualsAndHashCode.Exclude
+    private int snapshotItemAmount;
+    @EqualsAndHashCode.Exclude
+    private long snapshotVersion = 0;
+    @EqualsAndHashCode.Exclude
+    private volatile int countedStock = -2;
+    @EqualsAndHashCode.Exclude
+    private volatile int countedSpace = -2;
 
 //    ContainerShop(@NotNull ContainerShop s) {
 //        Util.ensureThread(false);
@@ -180,23 +213,9 @@ public class ContainerShop implements Shop, Reloadable {
 
         // Upgrade the shop moderator
         this.owner = owner;
-        this.item = item.clone();
-        this.originalItem = item.clone();
         this.plugin = plugin;
         this.playerGroup = new HashMap<>(playerGroup);
-        if (!plugin.isAllowStack()) {
-            this.item.setAmount(1);
-        }
-        if (item.hasItemMeta()) {
-            ItemMeta meta = item.getItemMeta();
-            if (meta.hasDisplayName() && meta.getDisplayName().matches("\\{.*}")) {
-                //https://hub.spigotmc.org/jira/browse/SPIGOT-5964
-                meta.setDisplayName(meta.getDisplayName());
-                //Correct both items
-                item.setItemMeta(meta);
-                this.item.setItemMeta(meta);
-            }
-        }
+        applyItem(item);
         this.shopType = type;
         this.unlimited = unlimited;
         this.extra = extra;
@@ -217,6 +236,210 @@ public class ContainerShop implements Shop, Reloadable {
         // ContainerShop constructor may run on both ServerThread and AsyncThread
     }
 
+    /**
+     * Creates a shop that item, extra and permissions will be decoded on the first access.
+     * Used by ShopLoader for the shops in unloaded chunks.
+     *
+     * @param rawData The undecoded item, extra and permissions
+     */
+    ContainerShop(
+            @NotNull QuickShop plugin,
+            long shopId,
+            @NotNull Location location,
+            double price,
+            @NotNull ShopRawData rawData,
+            @NotNull QUser owner,
+            boolean unlimited,
+            @NotNull ShopType type,
+            @Nullable String currency,
+            boolean disableDisplay,
+            @Nullable QUser taxAccount,
+            @NotNull String inventoryWrapperProvider,
+            @NotNull String symbolLink,
+            @Nullable String shopName,
+            @NotNull Benefit shopBenefit) {
+        this.shopId = shopId;
+        this.shopName = shopName;
+        this.location = location;
+        this.price = price;
+        this.benefit = shopBenefit;
+        this.owner = owner;
+        this.plugin = plugin;
+        this.playerGroup = new HashMap<>();
+        this.shopType = type;
+        this.unlimited = unlimited;
+        this.currency = currency;
+        this.disableDisplay = disableDisplay;
+        this.taxAccount = taxAccount;
+        this.dirty = false;
+        if (symbolLink == null) {
+            throw new IllegalArgumentException("SymbolLink cannot be null");
+        }
+        if (inventoryWrapperProvider == null) {
+            throw new IllegalArgumentException("InventoryWrapperProvider cannot be null");
+        }
+        this.symbolLink = symbolLink;
+        this.inventoryWrapperProvider = inventoryWrapperProvider;
+        this.rawData = rawData;
+    }
+
+    private void applyItem(@NotNull ItemStack item) {
+        this.item = item.clone();
+        this.originalItem = item.clone();
+        if (!plugin.isAllowStack()) {
+            this.item.setAmount(1);
+        }
+        if (item.hasItemMeta()) {
+            ItemMeta meta = item.getItemMeta();
+            if (meta.hasDisplayName() && meta.getDisplayName().matches("\\{.*}")) {
+                //https://hub.spigotmc.org/jira/browse/SPIGOT-5964
+                meta.setDisplayName(meta.getDisplayName());
+                //Correct both items
+                item.setItemMeta(meta);
+                this.item.setItemMeta(meta);
+            }
+        }
+    }
+
+    /**
+     * Decodes the item, extra and permissions if the shop was loaded lazily, do nothing otherwise.
+     * The fields may be released again by {@link #dehydrate(long)} right after this returned, read them
+     * through {@link #hydratedItem()} and {@link #hydratedExtra()} or under the shop monitor when off the server thread.
+     *
+     * @throws IllegalStateException if the item can't be decoded, the shop will be removed on the next tick
+     */
+    public void hydrate() {
+        if (this.rawData == null) {
+            return;
+        }
+        synchronized (this) {
+            ShopRawData raw = this.rawData;
+            if (raw == null) {
+                return;
+            }
+            ItemStack decodedItem;
+            try {
+                decodedItem = raw.decodeItem();
+            } catch (InvalidConfigurationException e) {
+                throw markCorrupt(new IllegalStateException("Failed to decode the item of shop " + shopId, e));
+            }
+            if (decodedItem == null || decodedItem.getType() == Material.AIR || decodedItem.getAmount() <= 0) {
+                throw markCorrupt(new IllegalStateException("Shop " + shopId + " has an invalid item: " + decodedItem));
+            }
+            boolean extraBroken = false;
+            YamlConfiguration decodedExtra;
+            try {
+                decodedExtra = raw.decodeExtra();
+            } catch (InvalidConfigurationException e) {
+                decodedExtra = new YamlConfiguration();
+                extraBroken = true;
+            }
+            applyItem(decodedItem);
+            this.extra = decodedExtra;
+            this.playerGroup = raw.decodePermissions();
+            this.rawData = null;
+            updateShopData();
+            if (extraBroken) {
+                setDirty();
+            }
+        }
+    }
+
+    /**
+     * Schedules the removal of the shop which item can't be decoded, only once.
+     *
+     * @param e The decoding failure
+     * @return The given failure
+     */
+    @NotNull
+    private IllegalStateException markCorrupt(@NotNull IllegalStateException e) {
+        if (this.corrupt) {
+            return e;
+        }
+        this.corrupt = true;
+        plugin.logger().warn("Failed to load shop: {}", this.shopId, e);
+        // Not removed right away, the caller may be holding the shop monitor or iterating the shops
+        Bukkit.getScheduler().runTask(plugin.getJavaPlugin(), () -> {
+            if (plugin.getConfig().getBoolean("debug.delete-corrupt-shops")) {
+                plugin.logger().warn("Deleting corrupt shop...");
+                plugin.getShopManager().deleteShop(this);
+            } else {
+                plugin.logger().warn("Unregistering shop from memory, set `debug.delete-corrupt-shops` to true to delete corrupted shops.");
+                plugin.getShopManager().unregisterShop(this, false);
+            }
+        });
+        return e;
+    }
+
+    /**
+     * Releases the decoded item, extra and permissions if the shop stayed unloaded long enough,
+     * they will be decoded again on the next access. Must be called on the server thread.
+     *
+     * @param unloadedMillis The time the shop must have stayed unloaded
+     * @return true if released
+     */
+    public synchronized boolean dehydrate(long unloadedMillis) {
+        if (this.rawData != null || this.isLoaded || this.dirty || this.updating) {
+            return false;
+        }
+        if (System.currentTimeMillis() - this.unloadedAt < unloadedMillis) {
+            return false;
+        }
+        // Same as the item column of the shop data, see createDataRecord()
+        this.rawData = new ShopRawData(Util.serialize(this.item), saveExtraToYaml(), JsonUtil.getGson().toJson(this.playerGroup));
+        this.item = null;
+        this.originalItem = null;
+        this.snapshotItemSource = null;
+        this.extra = null;
+        this.playerGroup = new HashMap<>();
+        return true;
+    }
+
+    /**
+     * Gets the item, decodes it first if needed. The item can't be released between decoding and reading.
+     *
+     * @return The item
+     */
+    @NotNull
+    private ItemStack hydratedItem() {
+        ItemStack current = this.item;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            hydrate();
+            return this.item;
+        }
+    }
+
+    /**
+     * Gets the extra data, decodes it first if needed and creates it if empty.
+     * The extra data can't be released between decoding and reading.
+     *
+     * @return The extra data
+     */
+    @NotNull
+    private YamlConfiguration hydratedExtra() {
+        YamlConfiguration current = this.extra;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            hydrate();
+            if (this.extra == null) {
+                this.extra = new YamlConfiguration();
+            }
+            return this.extra;
+        }
+    }
+
+    /**
+     * @return true if the item, extra and permissions have been decoded
+     */
+    public boolean isHydrated() {
+        return this.rawData == null;
+    }
+
     private void updateShopData() {
         ConfigurationSection section = getExtra(plugin.getJavaPlugin());
         if (section.getString("currency") != null) {
@@ -268,7 +491,7 @@ public class ContainerShop implements Shop, Reloadable {
     public void buy(@NotNull QUser buyer, @NotNull InventoryWrapper buyerInventory,
                     @NotNull Location loc2Drop, int amount) throws Exception {
         Util.ensureThread(false);
-        amount = amount * item.getAmount();
+        amount = amount * hydratedItem().getAmount();
         if (amount < 0) {
             this.sell(buyer, buyerInventory, loc2Drop, -amount);
             return;
@@ -400,7 +623,7 @@ public class ContainerShop implements Shop, Reloadable {
      */
     @Override
     public short getDurability() {
-        return (short) ((Damageable) this.item.getItemMeta()).getDamage();
+        return (short) ((Damageable) hydratedItem().getItemMeta()).getDamage();
     }
 
     /**
@@ -413,9 +636,7 @@ public class ContainerShop implements Shop, Reloadable {
      */
     @Override
     public @NotNull ConfigurationSection getExtra(@NotNull Plugin plugin) {
-        if (this.extra == null) {
-            this.extra = new YamlConfiguration();
-        }
+        YamlConfiguration extra = hydratedExtra();
         ConfigurationSection section = extra.getConfigurationSection(plugin.getName());
         if (section == null) {
             section = extra.createSection(plugin.getName());
@@ -461,12 +682,13 @@ public class ContainerShop implements Shop, Reloadable {
      */
     @Override
     public @NotNull ItemStack getItem() {
-        return item;
+        return hydratedItem();
     }
 
     @Override
     public void setItem(@NotNull ItemStack item) {
         Util.ensureThread(false);
+        hydrate();
         ShopItemChangeEvent event = new ShopItemChangeEvent(this, this.item, item);
         if (Util.fireCancellableEvent(event)) {
             Log.debug("A plugin cancelled the item change event.");
@@ -479,6 +701,7 @@ public class ContainerShop implements Shop, Reloadable {
         }
         this.displayItem = null;
         checkDisplay();
+        MsgUtil.invalidateRenderedNotifications(this.shopId);
         setDirty();
     }
 
@@ -510,6 +733,7 @@ public class ContainerShop implements Shop, Reloadable {
             return;
         }
         this.owner = owner;
+        ((SimpleShopManager) plugin.getShopManager()).getShopCounter().update(this);
         setDirty();
         setSignText(plugin.getTextManager().findRelativeLanguages(owner, false));
     }
@@ -521,7 +745,11 @@ public class ContainerShop implements Shop, Reloadable {
      */
     @Override
     public @NotNull Map<UUID, String> getPermissionAudiences() {
-        Map<UUID, String> clonedPlayerGroup = new HashMap<>(playerGroup);
+        Map<UUID, String> clonedPlayerGroup;
+        synchronized (this) {
+            hydrate();
+            clonedPlayerGroup = new HashMap<>(playerGroup);
+        }
         Optional<UUID> uuid = getOwner().getUniqueIdOptional();
         if (uuid.isPresent()) {
             clonedPlayerGroup.put(getOwner().getUniqueId(), BuiltInShopPermissionGroup.ADMINISTRATOR.getNamespacedNode());
@@ -585,6 +813,7 @@ public class ContainerShop implements Shop, Reloadable {
             }
             int space = Util.countSpace(this.getInventory(), this);
             new ShopInventoryCalculateEvent(this, space, -1).callEvent();
+            updateCountedInventory(this.countedStock, space);
             Log.debug("Space count is: " + space);
             return space;
         } else {
@@ -609,6 +838,7 @@ public class ContainerShop implements Shop, Reloadable {
             }
             int stock = Util.countItems(this.getInventory(), this);
             new ShopInventoryCalculateEvent(this, -1, stock).callEvent();
+            updateCountedInventory(stock, this.countedSpace);
             return stock;
         } else {
             return plugin.getShopManager().queryShopInventoryCacheInDatabase(this).join().getStock();
@@ -672,7 +902,7 @@ public class ContainerShop implements Shop, Reloadable {
     @Override
     public int getShopStackingAmount() {
         if (isStackingShop()) {
-            return item.getAmount();
+            return hydratedItem().getAmount();
         }
         return 1;
     }
@@ -699,6 +929,7 @@ public class ContainerShop implements Shop, Reloadable {
             return;
         }
         this.shopType = newShopType;
+        ((SimpleShopManager) plugin.getShopManager()).getShopCounter().update(this);
         this.setSignText();
         setDirty();
     }
@@ -966,7 +1197,7 @@ public class ContainerShop implements Shop, Reloadable {
      */
     @Override
     public boolean isStackingShop() {
-        return plugin.isAllowStack() && this.item.getAmount() > 1;
+        return plugin.isAllowStack() && hydratedItem().getAmount() > 1;
     }
 
     @Override
@@ -1012,7 +1243,7 @@ public class ContainerShop implements Shop, Reloadable {
         }
         ItemStack givenItem = item.clone();
         givenItem.setAmount(1);
-        ItemStack shopItem = this.item.clone();
+        ItemStack shopItem = hydratedItem().clone();
         shopItem.setAmount(1);
         return plugin.getItemMatcher().matches(shopItem, givenItem);
     }
@@ -1038,6 +1269,12 @@ public class ContainerShop implements Shop, Reloadable {
             Log.debug("Dupe load request, canceled.");
             return;
         }
+        try {
+            hydrate();
+        } catch (IllegalStateException e) {
+            // The removal has been scheduled by hydrate
+            return;
+        }
         try (PerfMonitor ignored = new PerfMonitor("Shop Inventory Locate", Duration.of(1, ChronoUnit.SECONDS))) {
             if (getInventory() == null) {
                 plugin.logger().warn("Failed to load shop: {}: {}: {}", symbolLink, this.getClass().getName(), "Inventory is null");
@@ -1083,6 +1320,7 @@ public class ContainerShop implements Shop, Reloadable {
             this.displayItem.remove(dontTouchWorld);
         }
         this.isLoaded = false;
+        this.unloadedAt = System.currentTimeMillis();
         plugin.getShopManager().getLoadedShops().remove(this);
         new ShopUnloadEvent(this).callEvent();
     }
@@ -1238,12 +1476,14 @@ public class ContainerShop implements Shop, Reloadable {
     }
 
     @Override
-    public @NotNull String saveExtraToYaml() {
+    public synchronized @NotNull String saveExtraToYaml() {
+        hydrate();
         return extra == null ? "" : extra.saveToString();
     }
 
     @Override
-    public ShopInfoStorage saveToInfoStorage() {
+    public synchronized ShopInfoStorage saveToInfoStorage() {
+        hydrate();
         return new ShopInfoStorage(getLocation().getWorld().getName(),
                 new BlockPos(getLocation()), this.owner, this.price,
                 Util.serialize(this.originalItem), isUnlimited() ? 1 : 0
@@ -1271,7 +1511,7 @@ public class ContainerShop implements Shop, Reloadable {
     public void sell(@NotNull QUser seller, @NotNull InventoryWrapper sellerInventory,
                      @NotNull Location loc2Drop, int amount) throws Exception {
         Util.ensureThread(false);
-        amount = item.getAmount() * amount;
+        amount = hydratedItem().getAmount() * amount;
         if (amount < 0) {
             this.buy(seller, sellerInventory, loc2Drop, -amount);
             return;
@@ -1317,6 +1557,90 @@ public class ContainerShop implements Shop, Reloadable {
     @Override
     public void setDirty() {
         this.dirty = true;
+        publishSnapshot();
+    }
+
+    /**
+     * Gets the snapshot of the shop, can be called from any thread.
+     *
+     * @return The latest snapshot
+     */
+    @Override
+    public @NotNull ShopSnapshot getSnapshot() {
+        SimpleShopSnapshot current = this.snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (this.snapshot == null) {
+                this.snapshot = createSnapshot();
+            }
+            return this.snapshot;
+        }
+    }
+
+    /**
+     * Seeds the counted stock and space from the inventory cache in database, the values counted already are kept.
+     *
+     * @param stock The cached stock, negative if unknown
+     * @param space The cached space, negative if unknown
+     */
+    public void seedCountedInventory(int stock, int space) {
+        // The cache stores -1 for the value not counted in that calculation
+        int seededStock = this.countedStock == -2 && stock >= 0 ? stock : this.countedStock;
+        int seededSpace = this.countedSpace == -2 && space >= 0 ? space : this.countedSpace;
+        updateCountedInventory(seededStock, seededSpace);
+    }
+
+    private void updateCountedInventory(int stock, int space) {
+        if (this.countedStock == stock && this.countedSpace == space) {
+            return;
+        }
+        this.countedStock = stock;
+        this.countedSpace = space;
+        publishSnapshot();
+    }
+
+    private void publishSnapshot() {
+        synchronized (this) {
+            this.snapshotVersion++;
+            // Nobody read the snapshot yet, it will be created on the first read
+            if (this.snapshot != null) {
+                this.snapshot = createSnapshot();
+            }
+        }
+    }
+
+    @NotNull
+    private SimpleShopSnapshot createSnapshot() {
+        SimpleShopSnapshot previous = this.snapshot;
+        ShopRawData raw = this.rawData;
+        ItemStack snapshotItem;
+        String fingerprint;
+        Component itemName;
+        if (raw != null) {
+            // Don't decode the dehydrated shop for the snapshot, the snapshot decodes the item on read
+            snapshotItem = null;
+            fingerprint = raw.item();
+            itemName = null;
+        } else if (previous != null && this.item == this.snapshotItemSource && this.item.getAmount() == this.snapshotItemAmount) {
+            // The amount is changed in place by reloadModule when allow-stack toggled
+            snapshotItem = previous.getItem();
+            fingerprint = previous.getItemFingerprint();
+            itemName = previous.getItemName();
+        } else {
+            this.snapshotItemSource = this.item;
+            this.snapshotItemAmount = this.item.getAmount();
+            snapshotItem = this.item.clone();
+            fingerprint = Util.serialize(snapshotItem);
+            itemName = Util.getItemStackName(snapshotItem);
+        }
+        World world = this.location.getWorld();
+        return new SimpleShopSnapshot(this.shopId, world == null ? "" : world.getName(),
+                this.location.getBlockX(), this.location.getBlockY(), this.location.getBlockZ(), this.owner,
+                snapshotItem, fingerprint, itemName, plugin.isAllowStack(), this.price, this.shopType, this.currency, this.shopName,
+                this.unlimited, this.unlimited ? -1 : this.countedStock, this.unlimited ? -1 : this.countedSpace,
+                this.snapshotVersion);
     }
 
     /**
@@ -1327,9 +1651,7 @@ public class ContainerShop implements Shop, Reloadable {
      */
     @Override
     public void setExtra(@NotNull Plugin plugin, @NotNull ConfigurationSection data) {
-        if (this.extra == null) {
-            this.extra = new YamlConfiguration();
-        }
+        YamlConfiguration extra = hydratedExtra();
         extra.set(plugin.getName(), data);
         // compress extra to null if possible
         boolean anyValid = false;
@@ -1366,6 +1688,7 @@ public class ContainerShop implements Shop, Reloadable {
 
     @Override
     public void setPlayerGroup(@NotNull UUID player, @Nullable String group) {
+        hydrate();
         if (group == null) {
             group = BuiltInShopPermissionGroup.EVERYONE.getNamespacedNode();
         }
@@ -1380,6 +1703,7 @@ public class ContainerShop implements Shop, Reloadable {
 
     @Override
     public void setPlayerGroup(@NotNull UUID player, @Nullable BuiltInShopPermissionGroup group) {
+        hydrate();
         if (group == null) {
             group = BuiltInShopPermissionGroup.EVERYONE;
         }
@@ -1472,6 +1796,9 @@ public class ContainerShop implements Shop, Reloadable {
                     updating = false;
                     if (throwable == null) {
                         this.dirty = false;
+                        if (plugin.getCrossServerSync() != null) {
+                            plugin.getCrossServerSync().publishShop(SyncMessage.Type.SHOP_UPDATE, this);
+                        }
                     } else {
                         plugin.logger().warn(
                                 "Could not update a shop in the database! Changes will revert after a reboot!", throwable);
@@ -1524,8 +1851,9 @@ public class ContainerShop implements Shop, Reloadable {
      * @return The enchantments the shop has on its items.
      */
     public @NotNull Map<Enchantment, Integer> getEnchants() {
-        if (this.item.hasItemMeta() && this.item.getItemMeta().hasEnchants()) {
-            return Objects.requireNonNull(this.item.getItemMeta()).getEnchants();
+        ItemStack item = hydratedItem();
+        if (item.hasItemMeta() && item.getItemMeta().hasEnchants()) {
+            return Objects.requireNonNull(item.getItemMeta()).getEnchants();
         }
         return Collections.emptyMap();
     }
@@ -1534,7 +1862,7 @@ public class ContainerShop implements Shop, Reloadable {
      * @return The ItemStack type of this shop
      */
     public @NotNull Material getMaterial() {
-        return this.item.getType();
+        return hydratedItem().getType();
     }
 
     private @NotNull InventoryWrapper locateInventory(@Nullable String symbolLink) {
@@ -1555,6 +1883,10 @@ public class ContainerShop implements Shop, Reloadable {
 
     @Override
     public ReloadResult reloadModule() throws Exception {
+        if (!isHydrated()) {
+            // Will be applied while decoding
+            return Reloadable.super.reloadModule();
+        }
         if (!plugin.isAllowStack()) {
             this.item.setAmount(1);
         } else {
@@ -0,0 +1,144 @@
+package com.ghostchu.quickshop.shop;
+
+import com.ghostchu.quickshop.api.shop.ShopChunk;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Per-world sorted index of the chunks that contain at least one shop.
+ * <p>
+ * Chunk coordinates are packed into a long ordered by X then Z, so a rectangle query only
+ * visits the chunks that actually have shops instead of every chunk in the bounding box.
+ * <p>
+ * Each world also has a counting filter over the hashed chunk coords, it answers "no shops here"
+ * for hot paths without boxing or allocation, false positives must be verified by a real lookup.
+ */
+public class ShopChunkIndex {
+    private static final int FILTER_BITS = 16;
+    private static final int FILTER_MASK = (1 << FILTER_BITS) - 1;
+    private final Map<String, NavigableSet<Long>> worlds = new ConcurrentHashMap<>();
+    private final Map<String, AtomicIntegerArray> filters = new ConcurrentHashMap<>();
+
+    static long pack(int chunkX, int chunkZ) {
+        // Flip the sign bit of Z, so the unsigned low half sorts in the same order as signed Z
+        return ((long) chunkX << 32) | ((chunkZ ^ 0x80000000) & 0xFFFFFFFFL);
+    }
+
+    static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    static int unpackZ(long key) {
+        return ((int) key) ^ 0x80000000;
+    }
+
+    private static int filterSlot(int chunkX, int chunkZ) {
+        int hash = chunkX * 0x9E3779B1 + chunkZ * 0x85EBCA6B;
+        return (hash ^ (hash >>> FILTER_BITS)) & FILTER_MASK;
+    }
+
+    public synchronized void add(@NotNull String world, int chunkX, int chunkZ) {
+        if (worlds.computeIfAbsent(world, k -> new ConcurrentSkipListSet<>()).add(pack(chunkX, chunkZ))) {
+            filters.computeIfAbsent(world, k -> new AtomicIntegerArray(1 << FILTER_BITS)).incrementAndGet(filterSlot(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Remove the chunk from index if there are no more shops in it.
+     *
+     * @param world   The world name
+     * @param chunkX  The chunk X
+     * @param chunkZ  The chunk Z
+     * @param inChunk The shops still in the chunk
+     */
+    public synchronized void removeIfEmpty(@NotNull String world, int chunkX, int chunkZ, @NotNull Map<?, ?> inChunk) {
+        if (!inChunk.isEmpty()) {
+            return;
+        }
+        NavigableSet<Long> chunks = worlds.get(world);
+        if (chunks != null && chunks.remove(pack(chunkX, chunkZ))) {
+            filters.get(world).decrementAndGet(filterSlot(chunkX, chunkZ));
+        }
+    }
+
+    public boolean contains(@NotNull String world, int chunkX, int chunkZ) {
+        NavigableSet<Long> chunks = worlds.get(world);
+        return chunks != null && chunks.contains(pack(chunkX, chunkZ));
+    }
+
+    /**
+     * Fast negative check for the chunks around a block, covers the neighbour blocks that cross the chunk border,
+     * e.g. the other half of a double chest.
+     *
+     * @param world  The world name
+     * @param blockX The block X
+     * @param blockZ The block Z
+     * @return false if there is definitely no shop within one block, true if there may be
+     */
+    public boolean mightContainAround(@NotNull String world, int blockX, int blockZ) {
+        AtomicIntegerArray filter = filters.get(world);
+        if (filter == null) {
+            return false;
+        }
+        for (int x = (blockX - 1) >> 4; x <= (blockX + 1) >> 4; x++) {
+            for (int z = (blockZ - 1) >> 4; z <= (blockZ + 1) >> 4; z++) {
+                if (filter.get(filterSlot(x, z)) > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the chunks that contain shops in the given chunk rectangle, both bounds are inclusive.
+     *
+     * @param world     The world name
+     * @param minChunkX min chunk X
+     * @param minChunkZ min chunk Z
+     * @param maxChunkX max chunk X
+     * @param maxChunkZ max chunk Z
+     * @return The chunks that contain shops
+     */
+    @NotNull
+    public List<ShopChunk> query(@NotNull String world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        List<ShopChunk> result = new ArrayList<>();
+        NavigableSet<Long> chunks = worlds.get(world);
+        if (chunks == null || minChunkX > maxChunkX || minChunkZ > maxChunkZ) {
+            return result;
+        }
+        Long key = chunks.ceiling(pack(minChunkX, minChunkZ));
+        while (key != null) {
+            int x = unpackX(key);
+            if (x > maxChunkX) {
+                break;
+            }
+            int z = unpackZ(key);
+            if (z < minChunkZ) {
+                key = chunks.ceiling(pack(x, minChunkZ));
+            } else if (z > maxChunkZ) {
+                if (x == Integer.MAX_VALUE) {
+                    break;
+                }
+                // Skip the rest of this column
+                key = chunks.ceiling(pack(x + 1, minChunkZ));
+            } else {
+                result.add(new SimpleShopChunk(world, x, z));
+                key = chunks.higher(key);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        worlds.clear();
+        filters.clear();
+    }
+}
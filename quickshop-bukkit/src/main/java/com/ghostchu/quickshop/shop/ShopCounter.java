@@ -0,0 +1,154 @@
+package com.ghostchu.quickshop.shop;
+
+import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.api.shop.ShopType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * The shop counters (global, per owner and per world) maintained when the shops registered, unregistered, loaded,
+ * unloaded or their type and owner changed, so the statistics can be read without iterating all shops.
+ * <p>
+ * The counters are immutable snapshots replaced on every change, reading is lock-free.
+ */
+public class ShopCounter {
+    private final Predicate<Shop> loadedChecker;
+    // The state of the shop when it was counted, used to revert the counting on changes.
+    // Keyed by identity, the shop hashCode changes with the owner, type and price those are counted here
+    private final Map<Shop, Tracked> tracked = new IdentityHashMap<>();
+    private final Map<UUID, Count> byOwner = new ConcurrentHashMap<>();
+    private final Map<String, Count> byWorld = new ConcurrentHashMap<>();
+    private volatile Count global = Count.EMPTY;
+
+    public ShopCounter(@NotNull Predicate<Shop> loadedChecker) {
+        this.loadedChecker = loadedChecker;
+    }
+
+    /**
+     * Start counting the shop, or re-count it if already counted.
+     *
+     * @param shop The shop
+     */
+    public synchronized void track(@NotNull Shop shop) {
+        Tracked now = Tracked.of(shop, loadedChecker.test(shop));
+        Tracked old = tracked.put(shop, now);
+        if (now.equals(old)) {
+            return;
+        }
+        if (old != null) {
+            apply(old, -1);
+        }
+        apply(now, 1);
+    }
+
+    /**
+     * Stop counting the shop.
+     *
+     * @param shop The shop
+     */
+    public synchronized void untrack(@NotNull Shop shop) {
+        Tracked old = tracked.remove(shop);
+        if (old != null) {
+            apply(old, -1);
+        }
+    }
+
+    /**
+     * Re-count the shop if it is counted, should be called after the shop type, owner or loading state changed.
+     * The state counted before is reverted, so the shop can be changed before calling this.
+     *
+     * @param shop The shop
+     */
+    public synchronized void update(@NotNull Shop shop) {
+        if (tracked.containsKey(shop)) {
+            track(shop);
+        }
+    }
+
+    public synchronized void clear() {
+        tracked.clear();
+        byOwner.clear();
+        byWorld.clear();
+        global = Count.EMPTY;
+    }
+
+    private void apply(@NotNull Tracked state, int delta) {
+        global = global.add(state, delta);
+        if (state.owner() != null) {
+            byOwner.compute(state.owner(), (k, count) -> nullIfEmpty((count == null ? Count.EMPTY : count).add(state, delta)));
+        }
+        byWorld.compute(state.world(), (k, count) -> nullIfEmpty((count == null ? Count.EMPTY : count).add(state, delta)));
+    }
+
+    @Nullable
+    private static Count nullIfEmpty(@NotNull Count count) {
+        return count.getAll() <= 0 ? null : count;
+    }
+
+    @NotNull
+    public Count getGlobal() {
+        return global;
+    }
+
+    @NotNull
+    public Count getByOwner(@NotNull UUID owner) {
+        return byOwner.getOrDefault(owner, Count.EMPTY);
+    }
+
+    @NotNull
+    public Count getByWorld(@NotNull String world) {
+        return byWorld.getOrDefault(world, Count.EMPTY);
+    }
+
+    private record Tracked(@Nullable UUID owner, @NotNull String world, @NotNull ShopType type, boolean loaded) {
+        @NotNull
+        static Tracked of(@NotNull Shop shop, boolean loaded) {
+            UUID owner = shop.getOwner().getUniqueIdIfRealPlayer().orElse(null);
+            String world = Objects.requireNonNull(shop.getLocation().getWorld()).getName();
+            return new Tracked(owner, world, shop.getShopType(), loaded);
+        }
+    }
+
+    public static final class Count {
+        static final Count EMPTY = new Count(0, 0, new int[ShopType.values().length]);
+        private final int all;
+        private final int loaded;
+        private final int[] types;
+
+        private Count(int all, int loaded, int[] types) {
+            this.all = all;
+            this.loaded = loaded;
+            this.types = types;
+        }
+
+        @NotNull
+        private Count add(@NotNull Tracked state, int delta) {
+            int[] newTypes = types.clone();
+            newTypes[state.type().ordinal()] += delta;
+            return new Count(all + delta, state.loaded() ? loaded + delta : loaded, newTypes);
+        }
+
+        public int getAll() {
+            return all;
+        }
+
+        public int getLoaded() {
+            return loaded;
+        }
+
+        public int getUnloaded() {
+            return all - loaded;
+        }
+
+        public int getOfType(@NotNull ShopType type) {
+            return types[type.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.ghostchu.quickshop.shop;
+
+import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.api.database.bean.DataRecord;
+import com.ghostchu.quickshop.api.database.bean.ShopRecord;
+import com.ghostchu.quickshop.api.obj.QUser;
+import com.ghostchu.quickshop.common.util.QuickExecutor;
+import com.ghostchu.quickshop.common.util.Timer;
+import com.ghostchu.quickshop.database.SimpleDatabaseHelperV2;
+import com.ghostchu.quickshop.database.bean.ShopIndexRecord;
+import com.ghostchu.quickshop.database.bean.SimpleDataRecord;
+import com.ghostchu.quickshop.obj.QUserImpl;
+import com.ghostchu.quickshop.util.logger.Log;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A binary snapshot of the shop data rows, written on clean shutdown and used to warm-start the shop loading.
+ * <p>
+ * Data rows are never changed in place (shop updates point the shop to another data row), so a snapshotted
+ * data row is still valid as long as a shop references the same data id. On boot only the light shop index
+ * (shop id, data id and location) is fetched from database, and the data rows are fetched only if they are
+ * not in the snapshot.
+ */
+public class ShopDataSnapshot {
+    private static final int MAGIC = 0x5153534E; // QSSN
+    private static final int FORMAT_VERSION = 1;
+    /* Set once the data rows may changed outside the plugin, the known data rows can't be trusted anymore */
+    private static volatile boolean discarded = false;
+    private final QuickShop plugin;
+    private final File file;
+
+    public ShopDataSnapshot(@NotNull QuickShop plugin) {
+        this.plugin = plugin;
+        this.file = getFile(plugin);
+    }
+
+    @NotNull
+    private static File getFile(@NotNull QuickShop plugin) {
+        return new File(plugin.getDataFolder(), "shops.snapshot");
+    }
+
+    /**
+     * Discard the snapshot, must be called if the data rows were changed outside the plugin (e.g. database recovery).
+     *
+     * @param plugin The plugin instance
+     */
+    public static void discard(@NotNull QuickShop plugin) {
+        discarded = true;
+        deleteFile(plugin);
+    }
+
+    private static void deleteFile(@NotNull QuickShop plugin) {
+        try {
+            Files.deleteIfExists(getFile(plugin).toPath());
+        } catch (IOException e) {
+            plugin.logger().warn("Failed to delete the shop snapshot", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("shop-snapshot.enabled", false)
+                && plugin.getDatabaseHelper() instanceof SimpleDatabaseHelperV2;
+    }
+
+    /**
+     * Load all shop records, use the snapshot for the data rows those not changed since the snapshot was written.
+     *
+     * @return The shop records, or null if the snapshot not available
+     */
+    @Nullable
+    public List<ShopRecord> load() {
+        if (!isEnabled() || !file.exists()) {
+            return null;
+        }
+        Timer timer = new Timer(true);
+        Map<Long, DataRecord> snapshot;
+        try {
+            snapshot = read();
+        } catch (Exception e) {
+            plugin.logger().warn("Failed to read the shop snapshot, loading shops from database...", e);
+            deleteFile(plugin);
+            return null;
+        }
+        if (snapshot == null) {
+            Log.debug("Shop snapshot is outdated, discarded.");
+            deleteFile(plugin);
+            return null;
+        }
+        List<ShopRecord> records = sync(snapshot);
+        plugin.logger().info("Used {}ms to warm-start {} shops from snapshot.", timer.stopAndGetTimePassed(), records.size());
+        return records;
+    }
+
+    /**
+     * Write the snapshot, the database must be up-to-date with the in-memory shops.
+     *
+     * @param previous The shop records loaded at last time, the data rows in it will be reused
+     */
+    public void save(@NotNull List<ShopRecord> previous) {
+        if (!isEnabled()) {
+            return;
+        }
+        Timer timer = new Timer(true);
+        Map<Long, DataRecord> known = new HashMap<>();
+        for (ShopRecord record : discarded ? List.<ShopRecord>of() : previous) {
+            if (record.getInfoRecord() instanceof ShopIndexRecord index) {
+                known.put(index.dataId(), record.getDataRecord());
+            }
+        }
+        List<ShopRecord> records = sync(known);
+        try {
+            write(records);
+            plugin.logger().info("Used {}ms to write snapshot of {} shops.", timer.stopAndGetTimePassed(), records.size());
+        } catch (IOException e) {
+            plugin.logger().warn("Failed to write the shop snapshot", e);
+            deleteFile(plugin);
+        }
+    }
+
+    /**
+     * Fetch the shop index from database, and fetch the data rows those not known yet.
+     */
+    @NotNull
+    private List<ShopRecord> sync(@NotNull Map<Long, DataRecord> known) {
+        SimpleDatabaseHelperV2 databaseHelper = databaseHelper();
+        List<ShopIndexRecord> indexes = databaseHelper.listShopIndexes();
+        Set<Long> missing = new HashSet<>();
+        for (ShopIndexRecord index : indexes) {
+            if (!known.containsKey(index.dataId())) {
+                missing.add(index.dataId());
+            }
+        }
+        Map<Long, DataRecord> dataRecords = new HashMap<>(known);
+        if (!missing.isEmpty()) {
+            dataRecords.putAll(databaseHelper.listDataRecords(missing));
+        }
+        Log.debug("Shop snapshot sync: " + indexes.size() + " shops, " + missing.size() + " data rows fetched from database.");
+        List<ShopRecord> records = new ArrayList<>(indexes.size());
+        for (ShopIndexRecord index : indexes) {
+            DataRecord dataRecord = dataRecords.get(index.dataId());
+            if (dataRecord == null) {
+                Log.debug("Shop " + index.shopId() + " references a non-exists data row " + index.dataId() + ", skipping...");
+                continue;
+            }
+            records.add(new ShopRecord(dataRecord, index));
+        }
+        return records;
+    }
+
+    @NotNull
+    private SimpleDatabaseHelperV2 databaseHelper() {
+        return (SimpleDatabaseHelperV2) plugin.getDatabaseHelper();
+    }
+
+    @NotNull
+    private String getDatabaseIdentity() {
+        String prefix = databaseHelper().getPrefix();
+        if (plugin.getConfig().getBoolean("database.mysql")) {
+            return "mysql://" + plugin.getConfig().getString("database.host") + ":" + plugin.getConfig().getInt("database.port")
+                    + "/" + plugin.getConfig().getString("database.database") + "#" + prefix;
+        }
+        return "h2#" + prefix;
+    }
+
+    private void write(@NotNull List<ShopRecord> records) throws IOException {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream fileOut = Files.newOutputStream(tmp.toPath());
+             CheckedOutputStream checkedOut = new CheckedOutputStream(new BufferedOutputStream(fileOut, 1 << 16), crc);
+             DataOutputStream out = new DataOutputStream(checkedOut)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(databaseHelper().getDatabaseVersion());
+            writeString(out, getDatabaseIdentity());
+            // Data rows can be shared by many shops, write each data row once
+            Map<Long, DataRecord> dataRecords = new HashMap<>();
+            for (ShopRecord record : records) {
+                dataRecords.put(((ShopIndexRecord) record.getInfoRecord()).dataId(), record.getDataRecord());
+            }
+            out.writeInt(dataRecords.size());
+            for (Map.Entry<Long, DataRecord> entry : dataRecords.entrySet()) {
+                out.writeLong(entry.getKey());
+                writeDataRecord(out, entry.getValue());
+            }
+            out.flush();
+            // Trailer, not included in the checksum itself
+            new DataOutputStream(fileOut).writeLong(crc.getValue());
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Nullable
+    private Map<Long, DataRecord> read() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Long.BYTES) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer body = buffer.slice(0, (int) (size - Long.BYTES));
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if (crc.getValue() != buffer.getLong((int) (size - Long.BYTES))) {
+                plugin.logger().warn("Shop snapshot checksum mismatch, ignoring it.");
+                return null;
+            }
+            if (body.getInt() != MAGIC || body.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            if (body.getInt() != databaseHelper().getDatabaseVersion()) {
+                return null;
+            }
+            if (!getDatabaseIdentity().equals(readString(body))) {
+                return null;
+            }
+            int count = body.getInt();
+            Map<Long, DataRecord> dataRecords = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                long dataId = body.getLong();
+                dataRecords.put(dataId, readDataRecord(body));
+            }
+            return dataRecords;
+        }
+    }
+
+    private void writeDataRecord(@NotNull DataOutputStream out, @NotNull DataRecord record) throws IOException {
+        writeString(out, record.getOwner().serialize());
+        writeString(out, record.getItem());
+        writeString(out, record.getName());
+        out.writeInt(record.getType());
+        writeString(out, record.getCurrency());
+        out.writeDouble(record.getPrice());
+        out.writeBoolean(record.isUnlimited());
+        out.writeBoolean(record.isHologram());
+        QUser taxAccount = record.getTaxAccount();
+        writeString(out, taxAccount == null ? null : taxAccount.serialize());
+        writeString(out, record.getPermissions());
+        writeString(out, record.getExtra());
+        writeString(out, record.getInventoryWrapper());
+        writeString(out, record.getInventorySymbolLink());
+        out.writeLong(record.getCreateTime().getTime());
+        writeString(out, record.getBenefit());
+    }
+
+    @NotNull
+    private DataRecord readDataRecord(@NotNull ByteBuffer in) {
+        QUser owner = QUserImpl.deserialize(plugin.getPlayerFinder(), readString(in), QuickExecutor.getSecondaryProfileIoExecutor());
+        String item = readString(in);
+        String name = readString(in);
+        int type = in.getInt();
+        String currency = readString(in);
+        double price = in.getDouble();
+        boolean unlimited = in.get() != 0;
+        boolean hologram = in.get() != 0;
+        String taxAccountString = readString(in);
+        QUser taxAccount = taxAccountString == null ? null : QUserImpl.deserialize(plugin.getPlayerFinder(), taxAccountString, QuickExecutor.getSecondaryProfileIoExecutor());
+        String permissions = readString(in);
+        String extra = readString(in);
+        String inventoryWrapper = readString(in);
+        String inventorySymbolLink = readString(in);
+        Date createTime = new Date(in.getLong());
+        String benefit = readString(in);
+        return new SimpleDataRecord(owner, item, name, type, currency, price, unlimited, hologram, taxAccount, permissions, extra, inventoryWrapper, inventorySymbolLink, createTime, benefit);
+    }
+
+    private void writeString(@NotNull DataOutputStream out, @Nullable String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        // DataOutputStream#writeUTF is limited to 64KB, item data can be larger than that
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private String readString(@NotNull ByteBuffer in) {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -8,15 +8,17 @@ import com.ghostchu.quickshop.api.economy.Benefit;
 import com.ghostchu.quickshop.api.obj.QUser;
 import com.ghostchu.quickshop.api.shop.Shop;
 import com.ghostchu.quickshop.api.shop.ShopType;
+import com.ghostchu.quickshop.api.shop.cache.ShopInventoryCountCache;
 import com.ghostchu.quickshop.common.util.CommonUtil;
 import com.ghostchu.quickshop.common.util.JsonUtil;
 import com.ghostchu.quickshop.common.util.Timer;
+import com.ghostchu.quickshop.database.SimpleDatabaseHelperV2;
+import com.ghostchu.quickshop.database.bean.ShopIndexRecord;
 import com.ghostchu.quickshop.economy.SimpleBenefit;
 import com.ghostchu.quickshop.util.PackageUtil;
 import com.ghostchu.quickshop.util.Util;
 import com.ghostchu.quickshop.util.logger.Log;
 import com.ghostchu.quickshop.util.paste.item.SubPasteItem;
-import com.google.common.reflect.TypeToken;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
@@ -30,9 +32,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
-import java.lang.reflect.Type;
 import java.sql.ResultSet;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -48,8 +50,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class ShopLoader implements SubPasteItem {
     private final QuickShop plugin;
     private final ExecutorService executorService;
+    private final ShopDataSnapshot snapshot;
+    /* The shop records loaded by full loading, reused to write the snapshot */
+    private volatile List<ShopRecord> loadedRecords = Collections.emptyList();
     /* This may contains broken shop, must use null check before load it. */
-    private int errors;
+    private final AtomicInteger errors = new AtomicInteger(0);
 
     /**
      * The shop load allow plugin load shops fast and simply.
@@ -61,6 +66,7 @@ public class ShopLoader implements SubPasteItem {
         this.executorService = Executors.newWorkStealingPool(PackageUtil
                 .parsePackageProperly("parallelism")
                 .asInteger(CommonUtil.multiProcessorThreadRecommended()));
+        this.snapshot = new ShopDataSnapshot(plugin);
     }
 
     public void loadShops() {
@@ -83,23 +89,34 @@ public class ShopLoader implements SubPasteItem {
             }
         }
         boolean deleteCorruptShops = plugin.getConfig().getBoolean("debug.delete-corrupt-shops", false);
-        plugin.logger().info("Loading shops from database...");
-        Timer dbFetchTimer = new Timer(true);
-        List<ShopRecord> records = plugin.getDatabaseHelper().listShops(worldName, deleteCorruptShops);
-        plugin.logger().info("Used {}ms to fetch {} shops from database.", dbFetchTimer.stopAndGetTimePassed(), records.size());
+        List<ShopRecord> records = null;
+        if (worldName == null) {
+            records = snapshot.load();
+        }
+        if (records == null) {
+            plugin.logger().info("Loading shops from database...");
+            Timer dbFetchTimer = new Timer(true);
+            records = plugin.getDatabaseHelper().listShops(worldName, deleteCorruptShops);
+            plugin.logger().info("Used {}ms to fetch {} shops from database.", dbFetchTimer.stopAndGetTimePassed(), records.size());
+        }
+        if (worldName == null) {
+            loadedRecords = records;
+        }
         plugin.logger().info("Loading shops into memory...");
         Timer shopTotalTimer = new Timer(true);
         AtomicInteger successCounter = new AtomicInteger(0);
         AtomicInteger chunkNotLoaded = new AtomicInteger(0);
         List<Shop> shopsLoadInNextTick = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(records.size());
         for (ShopRecord record : records) {
-            loadShopFromShopRecord(worldName, record, deleteCorruptShops,
+            futures.add(loadShopFromShopRecord(worldName, record, deleteCorruptShops,
                     shopsLoadInNextTick, successCounter, chunkNotLoaded)
                     .exceptionally(e -> {
                         plugin.logger().warn("Failed to load shop {}", record, e);
                         return null;
-                    }).join();
+                    }));
         }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
         Util.mainThreadRun(() -> shopsLoadInNextTick.forEach(shop -> {
             try {
                 plugin.getShopManager().loadShop(shop);
@@ -108,6 +125,77 @@ public class ShopLoader implements SubPasteItem {
             }
         }));
         plugin.logger().info("Used {}ms to load {} shops into memory ({} shops will be loaded after chunks/world loaded).", shopTotalTimer.stopAndGetTimePassed(), successCounter.get(), chunkNotLoaded.get());
+        seedInventoryCounts();
+    }
+
+    /**
+     * Seed the stock and space of the shop snapshots from the inventory cache in database,
+     * so the snapshots of the shops nobody touched since startup still have the last known counts.
+     */
+    private void seedInventoryCounts() {
+        if (!(plugin.getDatabaseHelper() instanceof SimpleDatabaseHelperV2 databaseHelper)) {
+            return;
+        }
+        databaseHelper.queryAllInventoryCaches().thenAccept(caches -> {
+            for (Shop shop : plugin.getShopManager().getAllShops()) {
+                ShopInventoryCountCache cache = caches.get(shop.getShopId());
+                if (cache != null && shop instanceof ContainerShop containerShop) {
+                    containerShop.seedCountedInventory(cache.getStock(), cache.getSpace());
+                }
+            }
+        }).exceptionally(e -> {
+            plugin.logger().warn("Failed to seed the shop inventory counts", e);
+            return null;
+        });
+    }
+
+    /**
+     * Write the warm-start snapshot, should be called after all shops saved on shutdown.
+     */
+    public void saveSnapshot() {
+        snapshot.save(loadedRecords);
+    }
+
+    /**
+     * Reload a single shop from database, replaces the in-memory shop at the same location.
+     * Used when the shop was created or changed by another server.
+     *
+     * @param shopId   The shop id
+     * @param location The shop location
+     */
+    public void reloadShop(long shopId, @NotNull Location location) {
+        plugin.getDatabaseHelper().locateShopDataId(shopId)
+                .thenCompose(dataId -> {
+                    if (dataId == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return plugin.getDatabaseHelper().getDataRecord(dataId)
+                            .thenApply(dataRecord -> dataRecord == null ? null : new ShopRecord(dataRecord,
+                                    new ShopIndexRecord(shopId, dataId, location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ())));
+                })
+                .thenAccept(record -> {
+                    if (record == null) {
+                        Log.debug("Shop " + shopId + " not exists in database anymore, skipping reload.");
+                        return;
+                    }
+                    Util.mainThreadRun(() -> {
+                        Shop exists = plugin.getShopManager().getShop(location, true);
+                        if (exists != null) {
+                            if (exists.isLoaded()) {
+                                plugin.getShopManager().unloadShop(exists);
+                            }
+                            plugin.getShopManager().unregisterShop(exists, false);
+                        }
+                        List<Shop> loadNow = new ArrayList<>();
+                        ShopLoadResult result = loadSingleShop(record.getInfoRecord(), record.getDataRecord(), null, loadNow);
+                        loadNow.forEach(shop -> plugin.getShopManager().loadShop(shop));
+                        Log.debug("Reloaded shop " + shopId + " from database: " + result.name());
+                    });
+                })
+                .exceptionally(e -> {
+                    plugin.logger().warn("Failed to reload shop {}", shopId, e);
+                    return null;
+                });
     }
 
     private CompletableFuture<Void> loadShopFromShopRecord(String worldName, ShopRecord shopRecord, boolean deleteCorruptShops, List<Shop> shopsLoadInNextTick, AtomicInteger successCounter, AtomicInteger chunkNotLoaded) {
@@ -163,26 +251,51 @@ public class ShopLoader implements SubPasteItem {
         int y = infoRecord.getY();
         int z = infoRecord.getZ();
         Shop shop;
-        DataRawDatabaseInfo rawInfo = new DataRawDatabaseInfo(dataRecord);
         Location location = new Location(Bukkit.getWorld(infoRecord.getWorld()), x, y, z);
+        // Nobody is around the shops in unloaded chunks, decode them on chunk loading or first access
+        boolean lazy = plugin.getConfig().getBoolean("lazy-shop-loading.enabled", true) && !Util.isLoaded(location);
+        DataRawDatabaseInfo rawInfo = new DataRawDatabaseInfo(dataRecord, lazy);
+        // Only the cheap check for lazy shops, the item broken in other ways is handled while decoding
+        if (lazy && StringUtils.isBlank(rawInfo.getRawData().item())) {
+            Log.debug("Shop itemStack is empty");
+            return ShopLoadResult.FAILED;
+        }
         try {
-            shop = new ContainerShop(plugin,
-                    infoRecord.getShopId(),
-                    location,
-                    rawInfo.getPrice(),
-                    rawInfo.getItem(),
-                    rawInfo.getOwner(),
-                    rawInfo.isUnlimited(),
-                    rawInfo.getType(),
-                    rawInfo.getExtra(),
-                    rawInfo.getCurrency(),
-                    rawInfo.isHologram(),
-                    rawInfo.getTaxAccount(),
-                    rawInfo.getInvWrapper(),
-                    rawInfo.getInvSymbolLink(),
-                    rawInfo.getName(),
-                    rawInfo.getPermissions(),
-                    rawInfo.getBenefits());
+            if (lazy) {
+                shop = new ContainerShop(plugin,
+                        infoRecord.getShopId(),
+                        location,
+                        rawInfo.getPrice(),
+                        rawInfo.getRawData(),
+                        rawInfo.getOwner(),
+                        rawInfo.isUnlimited(),
+                        rawInfo.getType(),
+                        rawInfo.getCurrency(),
+                        rawInfo.isHologram(),
+                        rawInfo.getTaxAccount(),
+                        rawInfo.getInvWrapper(),
+                        rawInfo.getInvSymbolLink(),
+                        rawInfo.getName(),
+                        rawInfo.getBenefits());
+            } else {
+                shop = new ContainerShop(plugin,
+                        infoRecord.getShopId(),
+                        location,
+                        rawInfo.getPrice(),
+                        rawInfo.getItem(),
+                        rawInfo.getOwner(),
+                        rawInfo.isUnlimited(),
+                        rawInfo.getType(),
+                        rawInfo.getExtra(),
+                        rawInfo.getCurrency(),
+                        rawInfo.isHologram(),
+                        rawInfo.getTaxAccount(),
+                        rawInfo.getInvWrapper(),
+                        rawInfo.getInvSymbolLink(),
+                        rawInfo.getName(),
+                        rawInfo.getPermissions(),
+                        rawInfo.getBenefits());
+            }
         } catch (Exception e) {
             if (e instanceof IllegalStateException) {
                 plugin.logger().warn("Failed to load the shop, skipping...", e);
@@ -194,8 +307,8 @@ public class ShopLoader implements SubPasteItem {
         if (rawInfo.isNeedUpdate()) {
             shop.setDirty();
         }
-        // Null check
-        if (shopNullCheck(shop)) {
+        // Null check, the lazy shops will be checked while decoding
+        if (!lazy && shopNullCheck(shop)) {
             return ShopLoadResult.FAILED;
         }
         // Load to RAM
@@ -211,7 +324,7 @@ public class ShopLoader implements SubPasteItem {
     }
 
     private void exceptionHandler(@NotNull Exception ex, @Nullable Location shopLocation) {
-        errors++;
+        errors.incrementAndGet();
         @NotNull Logger logger = plugin.logger();
         logger.warn("##########FAILED TO LOAD SHOP##########");
         logger.warn("  >> Error Info:");
@@ -232,7 +345,7 @@ public class ShopLoader implements SubPasteItem {
         }
         logger.warn("Block: {}", blockType);
         logger.warn("#######################################");
-        if (errors > 10) {
+        if (errors.get() > 10) {
             logger.error(
                     "QuickShop detected too many errors when loading shops, you should backup your shop database and ask the developer for help");
         }
@@ -268,7 +381,7 @@ public class ShopLoader implements SubPasteItem {
 
     @Override
     public @NotNull String genBody() {
-        return "<p>Errors: " + errors + "</p>";
+        return "<p>Errors: " + errors.get() + "</p>";
     }
 
     @Override
@@ -303,9 +416,17 @@ public class ShopLoader implements SubPasteItem {
         private boolean needUpdate = false;
 
         private Benefit benefits;
+        /* Excluded from toString, the raw data is already included by the decoded fields */
+        private transient ShopRawData rawData;
 
 
-        DataRawDatabaseInfo(@NotNull DataRecord dataRecord) {
+        /**
+         * Read the data record
+         *
+         * @param dataRecord The data record
+         * @param lazy       Keep the item, extra and permissions undecoded in {@link #getRawData()}
+         */
+        DataRawDatabaseInfo(@NotNull DataRecord dataRecord, boolean lazy) {
             this.owner = dataRecord.getOwner();
             this.price = dataRecord.getPrice();
             this.type = ShopType.fromID(dataRecord.getType());
@@ -322,40 +443,32 @@ public class ShopLoader implements SubPasteItem {
             this.invSymbolLink = dataRecord.getInventorySymbolLink();
             this.invWrapper = dataRecord.getInventoryWrapper();
             this.benefits = SimpleBenefit.deserialize(dataRecord.getBenefit());
-            String permissionJson = dataRecord.getPermissions();
-            if (!StringUtils.isEmpty(permissionJson) && CommonUtil.isJson(permissionJson)) {
-                Type typeToken = new TypeToken<Map<UUID, String>>() {
-                }.getType();
-                this.permissions = new HashMap<>(JsonUtil.getGson().fromJson(permissionJson, typeToken));
-            } else {
-                this.permissions = new HashMap<>();
+            this.rawData = new ShopRawData(dataRecord.getItem(), extraStr, dataRecord.getPermissions());
+            if (lazy) {
+                return;
             }
-            this.item = deserializeItem(dataRecord.getItem());
-            this.extra = deserializeExtra(extraStr);
+            this.permissions = rawData.decodePermissions();
+            this.item = deserializeItem();
+            this.extra = deserializeExtra();
         }
 
-        private @Nullable ItemStack deserializeItem(@NotNull String itemConfig) {
+        private @Nullable ItemStack deserializeItem() {
             try {
-                return Util.deserialize(itemConfig);
+                return rawData.decodeItem();
             } catch (InvalidConfigurationException e) {
                 QuickShop.getInstance().logger().warn("Failed load shop data, because target config can't deserialize the ItemStack", e);
-                Log.debug("Failed to load data to the ItemStack: " + itemConfig);
+                Log.debug("Failed to load data to the ItemStack: " + rawData.item());
                 return null;
             }
         }
 
-        private @Nullable YamlConfiguration deserializeExtra(@NotNull String extraString) {
-            if (StringUtils.isEmpty(extraString)) {
-                return null;
-            }
-            YamlConfiguration yamlConfiguration = new YamlConfiguration();
+        private @Nullable YamlConfiguration deserializeExtra() {
             try {
-                yamlConfiguration.loadFromString(extraString);
+                return rawData.decodeExtra();
             } catch (InvalidConfigurationException e) {
-                yamlConfiguration = new YamlConfiguration();
                 needUpdate = true;
+                return new YamlConfiguration();
             }
-            return yamlConfiguration;
         }
 
 
@@ -7,22 +7,44 @@ import com.ghostchu.quickshop.database.DatabaseIOUtil;
 import com.ghostchu.quickshop.database.SimpleDatabaseHelperV2;
 import com.ghostchu.quickshop.util.Util;
 import com.ghostchu.quickshop.util.logger.Log;
-import com.ghostchu.quickshop.util.performance.BatchBukkitExecutor;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
-
+/**
+ * Purges the shops of inactive owners.
+ * <p>
+ * The owners are resolved once per owner instead of once per shop, then the shops are deleted in batches,
+ * one batch every {@code purge.batch-interval} ticks. The ids of the shops not purged yet are saved into
+ * the progress file after every batch, so an interrupted purge continues from there on the next run,
+ * the owners of the shops left are checked again before resuming.
+ */
 public class ShopPurger {
     private final QuickShop plugin;
+    private final File progressFile;
     private volatile boolean executing;
 
     public ShopPurger(QuickShop plugin) {
         this.plugin = plugin;
+        this.progressFile = new File(plugin.getDataFolder(), "purge.progress");
     }
 
     public void purge() {
@@ -33,65 +55,176 @@ public class ShopPurger {
         if (executing) {
             plugin.logger().info("[Shop Purger] Another purge task still running!");
         } else {
+            executing = true;
             Util.asyncThreadRun(this::run);
         }
     }
 
     private void run() {
         Util.ensureThread(true);
-        executing = true;
-        DatabaseIOUtil ioUtil = new DatabaseIOUtil((SimpleDatabaseHelperV2) plugin.getDatabaseHelper());
-        if (!ioUtil.performBackup("shops-auto-purge")) {
-            plugin.logger().warn("[Shop Purger] Purge progress declined due backup failure");
-            return;
+        try {
+            DatabaseIOUtil ioUtil = new DatabaseIOUtil((SimpleDatabaseHelperV2) plugin.getDatabaseHelper());
+            if (!ioUtil.performBackup("shops-auto-purge")) {
+                plugin.logger().warn("[Shop Purger] Purge progress declined due backup failure");
+                executing = false;
+                return;
+            }
+            List<Long> pending = loadProgress();
+            if (!pending.isEmpty()) {
+                // The owners may came back since the purge interrupted, check them again
+                plugin.logger().info("[Shop Purger] Resuming the interrupted purge, re-checking {} shops left.", pending.size());
+                List<Shop> remaining = new ArrayList<>(pending.size());
+                for (long shopId : pending) {
+                    Shop shop = plugin.getShopManager().getShop(shopId);
+                    if (shop != null) {
+                        remaining.add(shop);
+                    }
+                }
+                pending = scan(remaining);
+            } else {
+                plugin.logger().info("[Shop Purger] Scanning and removing shops....");
+                pending = scan(plugin.getShopManager().getAllShops());
+            }
+            if (pending.isEmpty()) {
+                plugin.logger().info("[Shop Purger] No shops need to be purged.");
+                deleteProgress();
+                executing = false;
+                return;
+            }
+            saveProgress(pending);
+            purgeNextBatch(new ArrayDeque<>(pending), pending.size(), Instant.now());
+        } catch (Exception e) {
+            plugin.logger().warn("[Shop Purger] Failed to purge the shops", e);
+            executing = false;
+        }
+    }
+
+    @NotNull
+    private List<Long> scan(@NotNull Collection<Shop> shops) {
+        Map<UUID, List<Shop>> shopsByOwner = new HashMap<>();
+        for (Shop shop : shops) {
+            Optional<UUID> owner = shop.getOwner().getUniqueIdIfRealPlayer();
+            owner.ifPresent(uuid -> shopsByOwner.computeIfAbsent(uuid, k -> new ArrayList<>()).add(shop));
+        }
+        plugin.logger().info("[Shop Purger] Checking the activity of {} shop owners...", shopsByOwner.size());
+        List<Long> pending = new ArrayList<>();
+        for (UUID owner : findInactiveOwners(shopsByOwner.keySet())) {
+            for (Shop shop : shopsByOwner.get(owner)) {
+                pending.add(shop.getShopId());
+            }
         }
-        plugin.logger().info("[Shop Purger] Scanning and removing shops....");
-        List<Shop> pendingRemovalShops = new ArrayList<>();
+        return pending;
+    }
+
+    @NotNull
+    private Set<UUID> findInactiveOwners(@NotNull Set<UUID> owners) {
         int days = plugin.getConfig().getInt("purge.days", 360);
         boolean deleteBanned = plugin.getConfig().getBoolean("purge.banned");
         boolean skipOp = plugin.getConfig().getBoolean("purge.skip-op");
-        for (Shop shop : plugin.getShopManager().getAllShops()) {
+        long now = System.currentTimeMillis();
+        Set<UUID> inactive = new HashSet<>();
+        for (UUID owner : owners) {
+            // The online players are active for sure, don't read their player data
+            if (Bukkit.getPlayer(owner) != null) {
+                continue;
+            }
             try {
-                OfflinePlayer player = shop.getOwner().getUniqueIdIfRealPlayer().map(Bukkit::getOfflinePlayer).orElse(null);
-                if (player == null) {
-                    return;
-                }
+                OfflinePlayer player = Bukkit.getOfflinePlayer(owner);
                 if (!player.hasPlayedBefore()) {
-                    Log.debug("Shop " + shop + " detection skipped: Owner never played before.");
+                    Log.debug("Shop owner " + owner + " detection skipped: Owner never played before.");
                     continue;
                 }
                 long lastPlayed = player.getLastPlayed();
                 if (lastPlayed == 0) {
                     continue;
                 }
-                if (player.isOnline()) {
-                    continue;
-                }
                 if (player.isOp() && skipOp) {
                     continue;
                 }
                 boolean markDeletion = player.isBanned() && deleteBanned;
-                long noOfDaysBetween = ChronoUnit.DAYS.between(CommonUtil.getDateTimeFromTimestamp(lastPlayed), CommonUtil.getDateTimeFromTimestamp(System.currentTimeMillis()));
+                long noOfDaysBetween = ChronoUnit.DAYS.between(CommonUtil.getDateTimeFromTimestamp(lastPlayed), CommonUtil.getDateTimeFromTimestamp(now));
                 if (noOfDaysBetween > days) {
                     markDeletion = true;
                 }
-                if (!markDeletion) {
-                    continue;
+                if (markDeletion) {
+                    inactive.add(owner);
                 }
-                pendingRemovalShops.add(shop);
             } catch (Exception e) {
-                plugin.logger().warn("Failed to purge shop " + shop.getShopId(), e);
+                plugin.logger().warn("Failed to check the activity of shop owner " + owner, e);
             }
         }
+        return inactive;
+    }
 
-        BatchBukkitExecutor<Shop> purgeExecutor = new BatchBukkitExecutor<>();
-        purgeExecutor.addTasks(pendingRemovalShops);
-        purgeExecutor.startHandle(plugin.getJavaPlugin(), (shop) -> plugin.getShopManager().deleteShop(shop))
-                .whenComplete((a, b) -> {
-                    long usedTime = purgeExecutor.getStartTime().until(Instant.now(), java.time.temporal.ChronoUnit.MILLIS);
-                    plugin.logger().info("[Shop Purger] Total shop {} has been purged, used {}ms",
-                            pendingRemovalShops.size(),
-                            usedTime);
-                });
+    private void purgeNextBatch(@NotNull Deque<Long> pending, int total, @NotNull Instant startTime) {
+        if (pending.isEmpty()) {
+            deleteProgress();
+            executing = false;
+            plugin.logger().info("[Shop Purger] Total shop {} has been purged, used {}ms", total, startTime.until(Instant.now(), ChronoUnit.MILLIS));
+            return;
+        }
+        int batchSize = Math.max(1, plugin.getConfig().getInt("purge.batch-size", 50));
+        long interval = Math.max(1, plugin.getConfig().getLong("purge.batch-interval", 20));
+        Set<Long> batch = new HashSet<>();
+        while (batch.size() < batchSize && !pending.isEmpty()) {
+            batch.add(pending.poll());
+        }
+        Bukkit.getScheduler().runTaskLater(plugin.getJavaPlugin(), () -> {
+            List<Shop> shops = new ArrayList<>(batch.size());
+            for (long shopId : batch) {
+                Shop shop = plugin.getShopManager().getShop(shopId);
+                if (shop != null) {
+                    shops.add(shop);
+                }
+            }
+            ((SimpleShopManager) plugin.getShopManager()).deleteShops(shops).whenComplete((deleted, error) -> {
+                if (error != null) {
+                    plugin.logger().warn("[Shop Purger] Failed to purge the shops, the purge will be resumed next time", error);
+                    executing = false;
+                    return;
+                }
+                saveProgress(pending);
+                int done = total - pending.size();
+                plugin.logger().info("[Shop Purger] Purged {}/{} shops ({}%)", done, total, done * 100 / total);
+                purgeNextBatch(pending, total, startTime);
+            });
+        }, interval);
+    }
+
+    @NotNull
+    private List<Long> loadProgress() {
+        List<Long> pending = new ArrayList<>();
+        if (!progressFile.exists()) {
+            return pending;
+        }
+        try {
+            for (String line : Files.readAllLines(progressFile.toPath(), StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    pending.add(Long.parseLong(line.trim()));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            plugin.logger().warn("[Shop Purger] Failed to read the purge progress, starting a new purge", e);
+            pending.clear();
+        }
+        return pending;
+    }
+
+    private void saveProgress(@NotNull Iterable<Long> pending) {
+        List<String> lines = new ArrayList<>();
+        pending.forEach(shopId -> lines.add(String.valueOf(shopId)));
+        try {
+            Files.write(progressFile.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            plugin.logger().warn("[Shop Purger] Failed to save the purge progress", e);
+        }
+    }
+
+    private void deleteProgress() {
+        try {
+            Files.deleteIfExists(progressFile.toPath());
+        } catch (IOException e) {
+            plugin.logger().warn("[Shop Purger] Failed to delete the purge progress", e);
+        }
     }
 }
@@ -0,0 +1,58 @@
+package com.ghostchu.quickshop.shop;
+
+import com.ghostchu.quickshop.common.util.CommonUtil;
+import com.ghostchu.quickshop.common.util.JsonUtil;
+import com.ghostchu.quickshop.util.Util;
+import com.google.common.reflect.TypeToken;
+import org.apache.commons.lang3.StringUtils;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The serialized item, extra and permissions of a shop those haven't been decoded yet.
+ *
+ * @param item        The serialized item
+ * @param extra       The extra data in YAML
+ * @param permissions The permissions in JSON
+ */
+record ShopRawData(@NotNull String item, @Nullable String extra, @Nullable String permissions) {
+
+    @Nullable
+    ItemStack decodeItem() throws InvalidConfigurationException {
+        return Util.deserialize(item);
+    }
+
+    /**
+     * Decode the extra data.
+     *
+     * @return The extra data, null if empty
+     * @throws InvalidConfigurationException if the extra data is broken
+     */
+    @Nullable
+    YamlConfiguration decodeExtra() throws InvalidConfigurationException {
+        if (StringUtils.isEmpty(extra)) {
+            return null;
+        }
+        YamlConfiguration yamlConfiguration = new YamlConfiguration();
+        yamlConfiguration.loadFromString(extra);
+        return yamlConfiguration;
+    }
+
+    @NotNull
+    Map<UUID, String> decodePermissions() {
+        if (!StringUtils.isEmpty(permissions) && CommonUtil.isJson(permissions)) {
+            Type typeToken = new TypeToken<Map<UUID, String>>() {
+            }.getType();
+            return new HashMap<>(JsonUtil.getGson().fromJson(permissions, typeToken));
+        }
+        return new HashMap<>();
+    }
+}
@@ -0,0 +1,158 @@
+package com.ghostchu.quickshop.shop;
+
+import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.util.logger.Log;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Per-shop ledger of the stock and space reserved by in-flight trades.
+ * <p>
+ * The first trade counts the shop inventory, the following trades reserve against the counted value
+ * until every reservation has been committed or released, so concurrent trades on one shop don't recount
+ * the inventory and never oversell it. Reservations those never settled will expire.
+ */
+public class ShopReservationLedger {
+    private static final long EXPIRE_AFTER = TimeUnit.SECONDS.toMillis(30);
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Reserve the stock or space of the shop.
+     *
+     * @param shop    The shop
+     * @param type    The reservation type
+     * @param amount  The amount to reserve
+     * @param counter The counter to count the available amount if it isn't counted yet
+     * @return The reservation, check {@link Reservation#isGranted()} before continue
+     */
+    @NotNull
+    public Reservation reserve(@NotNull Shop shop, @NotNull Type type, int amount, @NotNull IntSupplier counter) {
+        UUID key = shop.getRuntimeRandomUniqueId();
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, k -> new Entry(k));
+            synchronized (entry) {
+                if (entry.removed) {
+                    // Settled and removed by another thread at the same time, try again with a new entry
+                    continue;
+                }
+                entry.expire();
+                int counted = entry.available[type.ordinal()];
+                if (counted == -1) {
+                    counted = counter.getAsInt();
+                    entry.available[type.ordinal()] = counted;
+                }
+                int available = counted - entry.reserved[type.ordinal()];
+                if (available < amount) {
+                    entry.removeIfSettled();
+                    return new Reservation(entry, type, 0, available, false);
+                }
+                Reservation reservation = new Reservation(entry, type, amount, available, true);
+                entry.reserved[type.ordinal()] += amount;
+                entry.open.add(reservation);
+                return reservation;
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public enum Type {
+        STOCK,
+        SPACE
+    }
+
+    private final class Entry {
+        private final UUID key;
+        private final int[] available = {-1, -1};
+        private final int[] reserved = {0, 0};
+        private final List<Reservation> open = new ArrayList<>();
+        private boolean removed;
+
+        private Entry(@NotNull UUID key) {
+            this.key = key;
+        }
+
+        private void expire() {
+            long now = System.currentTimeMillis();
+            for (Reservation reservation : new ArrayList<>(open)) {
+                if (now - reservation.createdAt > EXPIRE_AFTER) {
+                    Log.debug("Shop reservation expired without settle: " + reservation.type + " x" + reservation.amount);
+                    settle(reservation, false);
+                }
+            }
+        }
+
+        private void settle(@NotNull Reservation reservation, boolean committed) {
+            if (!open.remove(reservation)) {
+                return;
+            }
+            reserved[reservation.type.ordinal()] -= reservation.amount;
+            if (committed) {
+                // The inventory was changed, keep the counted value in sync without recount
+                available[reservation.type.ordinal()] -= reservation.amount;
+            }
+            removeIfSettled();
+        }
+
+        private void removeIfSettled() {
+            if (open.isEmpty()) {
+                // Nothing in-flight, the next trade should count the real inventory again
+                removed = true;
+                entries.remove(key, this);
+            }
+        }
+    }
+
+    /**
+     * A reservation token, must be either committed or released.
+     */
+    public static final class Reservation {
+        private final Entry entry;
+        private final Type type;
+        private final int amount;
+        /**
+         * The amount that was available before this reservation
+         */
+        @Getter
+        private final int available;
+        @Getter
+        private final boolean granted;
+        private final long createdAt = System.currentTimeMillis();
+
+        private Reservation(@NotNull Entry entry, @NotNull Type type, int amount, int available, boolean granted) {
+            this.entry = entry;
+            this.type = type;
+            this.amount = amount;
+            this.available = available;
+            this.granted = granted;
+        }
+
+        /**
+         * The trade has changed the shop inventory.
+         */
+        public void commit() {
+            synchronized (entry) {
+                entry.settle(this, true);
+            }
+        }
+
+        /**
+         * The trade was cancelled or failed, return the reserved amount.
+         */
+        public void release() {
+            synchronized (entry) {
+                entry.settle(this, false);
+            }
+        }
+    }
+}
@@ -11,12 +11,15 @@ import com.ghostchu.quickshop.api.shop.*;
 import com.ghostchu.quickshop.api.shop.cache.ShopCacheNamespacedKey;
 import com.ghostchu.quickshop.api.shop.permission.BuiltInShopPermission;
 import com.ghostchu.quickshop.common.util.CalculateUtil;
+import com.ghostchu.quickshop.common.util.QuickExecutor;
 import com.ghostchu.quickshop.common.util.RomanNumber;
+import com.ghostchu.quickshop.database.SimpleDatabaseHelperV2;
 import com.ghostchu.quickshop.economy.SimpleBenefit;
 import com.ghostchu.quickshop.economy.SimpleEconomyTransaction;
 import com.ghostchu.quickshop.obj.QUserImpl;
 import com.ghostchu.quickshop.shop.inventory.BukkitInventoryWrapper;
 import com.ghostchu.quickshop.shop.inventory.BukkitInventoryWrapperManager;
+import com.ghostchu.quickshop.sync.SyncMessage;
 import com.ghostchu.quickshop.util.ChatSheetPrinter;
 import com.ghostchu.quickshop.util.MsgUtil;
 import com.ghostchu.quickshop.util.PackageUtil;
@@ -58,12 +61,14 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Manage a lot of shops.
  */
 public class SimpleShopManager extends AbstractShopManager implements ShopManager, Reloadable {
     protected final InteractiveManager interactiveManager;
+    private final ShopReservationLedger reservationLedger = new ShopReservationLedger();
     @Getter
     @Nullable
     private QUser cacheTaxAccount;
@@ -149,14 +154,6 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
         if (shopIsNotValid(buyerQUser, info, shop)) {
             return;
         }
-        int space = shop.getRemainingSpace();
-        if (space == -1) {
-            space = 10000;
-        }
-        if (space < amount) {
-            plugin.text().of(buyer, "shop-has-no-space", Component.text(space), Util.getItemStackName(shop.getItem())).send();
-            return;
-        }
         int count = Util.countItems(buyerInventory, shop);
         // Not enough items
         if (amount > count) {
@@ -168,6 +165,16 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
             plugin.text().of(buyer, "negative-amount").send();
             return;
         }
+        // Reserve the space against other in-flight trades, only counts the shop inventory if nobody else is trading
+        final ShopReservationLedger.Reservation reservation = reservationLedger.reserve(shop, ShopReservationLedger.Type.SPACE, amount, () -> {
+            int remaining = shop.getRemainingSpace();
+            return remaining == -1 ? 10000 : remaining;
+        });
+        int space = reservation.getAvailable();
+        if (!reservation.isGranted()) {
+            plugin.text().of(buyer, "shop-has-no-space", Component.text(space), Util.getItemStackName(shop.getItem())).send();
+            return;
+        }
 
         // Money handling
         // BUYING MODE  Shop Owner -> Player
@@ -175,6 +182,7 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
         double total = CalculateUtil.multiply(amount, shop.getPrice());
         ShopPurchaseEvent e = new ShopPurchaseEvent(shop, buyerQUser, buyerInventory, amount, total);
         if (Util.fireCancellableEvent(e)) {
+            reservation.release();
             plugin.text().of(buyer, "plugin-cancelled", e.getCancelReason()).send();
             return; // Cancelled
         } else {
@@ -198,56 +206,116 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
         } else {
             transaction = builder.from(null).build();
         }
-        if (!transaction.checkBalance()) {
-            plugin.text().of(buyer, "the-owner-cant-afford-to-buy-from-you", format(total, shop.getLocation().getWorld(), shop.getCurrency()), format(eco.getBalance(shop.getOwner(), shop.getLocation().getWorld(), shop.getCurrency()), shop.getLocation().getWorld(), shop.getCurrency())).send();
+        final double finalTotal = total;
+        final int finalSpace = space;
+        commitEconomyStage(eco, transaction, result -> {
+            if (result != EconomyStageResult.SUCCESS) {
+                reservation.release();
+            }
+            if (result == EconomyStageResult.INSUFFICIENT_BALANCE) {
+                plugin.text().of(buyer, "the-owner-cant-afford-to-buy-from-you", format(finalTotal, shop.getLocation().getWorld(), shop.getCurrency()), format(eco.getBalance(shop.getOwner(), shop.getLocation().getWorld(), shop.getCurrency()), shop.getLocation().getWorld(), shop.getCurrency())).send();
+                return;
+            }
+            if (result == EconomyStageResult.FAILED) {
+                plugin.text().of(buyer, "economy-transaction-failed", transaction.getLastError()).send();
+                plugin.logger().error("EconomyTransaction Failed, last error: {}", transaction.getLastError());
+                plugin.logger().error("Tips: If you see any economy plugin name appears above, please don't ask QuickShop support. Contact with developer of economy plugin. QuickShop didn't process the transaction, we only receive the transaction result from your economy plugin.");
+                return;
+            }
+            // Inventory stage, the world may changed while the economy stage running off-thread
+            try {
+                if (eco.isAsyncSafe() && !shop.isValid()) {
+                    throw new IllegalStateException("Shop was removed while processing the transaction");
+                }
+                shop.buy(buyerQUser, buyerInventory, buyer.getLocation(), amount);
+                reservation.commit();
+            } catch (Exception shopError) {
+                reservation.release();
+                plugin.logger().warn("Failed to processing purchase, rolling back...", shopError);
+                rollbackEconomyStage(eco, transaction);
+                plugin.text().of(buyer, "shop-transaction-failed", shopError.getMessage()).send();
+                return;
+            }
+            new ShopSuccessPurchaseEvent(shop, buyerQUser, buyerInventory, amount, finalTotal, transaction.getTax()).callEvent();
+            shop.setSignText(plugin.text().findRelativeLanguages(buyer)); // Update the signs count
+            Util.asyncThreadRun(() -> sendSellSuccess(buyerQUser, shop, amount, finalTotal, transaction.getTax()));
+            notifySold(buyerQUser, shop, amount, finalSpace);
+        });
+    }
+
+    /**
+     * Runs the economy stage of a trade and continues the trade with the result on the main thread.
+     * The stage runs off the main thread if the economy provider declared it is async-safe.
+     *
+     * @param eco         The economy provider
+     * @param transaction The economy transaction
+     * @param next        The next stages, always called on the main thread
+     */
+    private void commitEconomyStage(@NotNull AbstractEconomy eco, @NotNull SimpleEconomyTransaction transaction, @NotNull Consumer<EconomyStageResult> next) {
+        if (!eco.isAsyncSafe()) {
+            next.accept(commitEconomy(transaction));
             return;
         }
-        if (!transaction.failSafeCommit()) {
-            plugin.text().of(buyer, "economy-transaction-failed", transaction.getLastError()).send();
-            plugin.logger().error("EconomyTransaction Failed, last error: {}", transaction.getLastError());
-            plugin.logger().error("Tips: If you see any economy plugin name appears above, please don't ask QuickShop support. Contact with developer of economy plugin. QuickShop didn't process the transaction, we only receive the transaction result from your economy plugin.");
-            return;
+        QuickExecutor.getCommonExecutor().submit(() -> {
+            EconomyStageResult result;
+            try {
+                result = commitEconomy(transaction);
+            } catch (Exception e) {
+                // Must continue the trade anyway, or the reservation and the player are left waiting forever
+                plugin.logger().warn("Failed to process the economy stage of the trade", e);
+                result = EconomyStageResult.FAILED;
+            }
+            EconomyStageResult finalResult = result;
+            Util.mainThreadRun(() -> next.accept(finalResult));
+        });
+    }
+
+    @NotNull
+    private EconomyStageResult commitEconomy(@NotNull SimpleEconomyTransaction transaction) {
+        if (!transaction.checkBalance()) {
+            return EconomyStageResult.INSUFFICIENT_BALANCE;
         }
+        return transaction.failSafeCommit() ? EconomyStageResult.SUCCESS : EconomyStageResult.FAILED;
+    }
 
-        try {
-            shop.buy(buyerQUser, buyerInventory, buyer.getLocation(), amount);
-        } catch (Exception shopError) {
-            plugin.logger().warn("Failed to processing purchase, rolling back...", shopError);
+    private void rollbackEconomyStage(@NotNull AbstractEconomy eco, @NotNull SimpleEconomyTransaction transaction) {
+        if (eco.isAsyncSafe()) {
+            QuickExecutor.getCommonExecutor().submit(() -> transaction.rollback(true));
+        } else {
             transaction.rollback(true);
-            plugin.text().of(buyer, "shop-transaction-failed", shopError.getMessage()).send();
-            return;
         }
-        sendSellSuccess(buyerQUser, shop, amount, total, transaction.getTax());
-        new ShopSuccessPurchaseEvent(shop, buyerQUser, buyerInventory, amount, total, transaction.getTax()).callEvent();
-        shop.setSignText(plugin.text().findRelativeLanguages(buyer)); // Update the signs count
-        notifySold(buyerQUser, shop, amount, space);
+    }
+
+    @NotNull
+    private List<UUID> getTradeMessageReceivers(@NotNull Shop shop) {
+        if (sendStockMessageToStaff) {
+            return shop.playersCanAuthorize(BuiltInShopPermission.RECEIVE_ALERT);
+        }
+        UUID owner = shop.getOwner().getUniqueIdIfRealPlayer().orElse(null);
+        return owner == null ? Collections.emptyList() : Collections.singletonList(owner);
     }
 
     private void notifySold(@NotNull QUser buyerQUser, @NotNull Shop shop, int amount, int space) {
         Util.asyncThreadRun(() -> {
-            String langCode = plugin.text().findRelativeLanguages(buyerQUser, true).getLocale();
-            List<Component> sendList = new ArrayList<>();
-            Component notify = plugin.text().of("player-sold-to-your-store", buyerQUser.getDisplay(), amount, Util.getItemStackName(shop.getItem())).forLocale(langCode);
-            notify = plugin.getPlatform().setItemStackHoverEvent(notify, shop.getItem());
-            sendList.add(notify);
+            List<UUID> receivers = getTradeMessageReceivers(shop);
+            // Merged with the other sells from the same player if the receiver is offline
+            String coalesceKey = "sold:" + buyerQUser.serialize();
+            // The rendered messages are scoped by shop id and dropped when the item changed
+            String contentKey = String.valueOf(shop.getShopName());
+            MsgUtil.sendCoalesced(shop, receivers, coalesceKey, amount, 0, 0, coalesceKey + ":" + contentKey + ":" + amount,
+                    langCode -> (sumAmount, sumTotal, sumTax) -> plugin.getPlatform().setItemStackHoverEvent(
+                            plugin.text().of("player-sold-to-your-store", buyerQUser.getDisplay(), sumAmount, Util.getItemStackName(shop.getItem())).forLocale(langCode), shop.getItem()));
             if (space == amount) {
-                Component spaceWarn;
-                if (shop.getShopName() == null) {
-                    spaceWarn = plugin.text().of("shop-out-of-space", shop.getLocation().getBlockX(), shop.getLocation().getBlockY(), shop.getLocation().getBlockZ()).forLocale(langCode);
-                } else {
-                    spaceWarn = plugin.text().of("shop-out-of-space-name", shop.getShopName(), Util.getItemStackName(shop.getItem())).forLocale(langCode);
-                }
-                spaceWarn = plugin.getPlatform().setItemStackHoverEvent(spaceWarn, shop.getItem());
-                sendList.add(spaceWarn);
-            }
-            for (Component component : sendList) {
-                if (sendStockMessageToStaff) {
-                    for (UUID recv : shop.playersCanAuthorize(BuiltInShopPermission.RECEIVE_ALERT)) {
-                        MsgUtil.send(shop, recv, component);
+                MsgUtil.sendCoalesced(shop, receivers, "out-of-space", 0, 0, 0, "out-of-space:" + contentKey, langCode -> {
+                    Component spaceWarnComponent;
+                    if (shop.getShopName() == null) {
+                        spaceWarnComponent = plugin.text().of("shop-out-of-space", shop.getLocation().getBlockX(), shop.getLocation().getBlockY(), shop.getLocation().getBlockZ()).forLocale(langCode);
+                    } else {
+                        spaceWarnComponent = plugin.text().of("shop-out-of-space-name", shop.getShopName(), Util.getItemStackName(shop.getItem())).forLocale(langCode);
                     }
-                } else {
-                    MsgUtil.send(shop, shop.getOwner(), component);
-                }
+                    Component finalSpaceWarn = plugin.getPlatform().setItemStackHoverEvent(spaceWarnComponent, shop.getItem());
+                    return (sumAmount, sumTotal, sumTax) -> finalSpaceWarn;
+                });
             }
         });
     }
@@ -333,14 +401,6 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
         if (shopIsNotValid(sellerQUser, info, shop)) {
             return;
         }
-        int stock = shop.getRemainingStock();
-        if (stock == -1) {
-            stock = 10000;
-        }
-        if (stock < amount) {
-            plugin.text().of(seller, "shop-stock-too-low", Component.text(stock), Util.getItemStackName(shop.getItem())).send();
-            return;
-        }
         int playerSpace = Util.countSpace(sellerInventory, shop);
         if (playerSpace < amount) {
             plugin.text().of(seller, "inventory-space-full", amount, playerSpace).send();
@@ -356,12 +416,23 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
             plugin.text().of(seller, "not-enough-space", Component.text(pSpace)).send();
             return;
         }
+        // Reserve the stock against other in-flight trades, only counts the shop inventory if nobody else is trading
+        final ShopReservationLedger.Reservation reservation = reservationLedger.reserve(shop, ShopReservationLedger.Type.STOCK, amount, () -> {
+            int remaining = shop.getRemainingStock();
+            return remaining == -1 ? 10000 : remaining;
+        });
+        int stock = reservation.getAvailable();
+        if (!reservation.isGranted()) {
+            plugin.text().of(seller, "shop-stock-too-low", Component.text(stock), Util.getItemStackName(shop.getItem())).send();
+            return;
+        }
 
         double taxModifier = getTax(shop, sellerQUser);
         double total = CalculateUtil.multiply(amount, shop.getPrice());
 
         ShopPurchaseEvent e = new ShopPurchaseEvent(shop, sellerQUser, sellerInventory, amount, total);
         if (Util.fireCancellableEvent(e)) {
+            reservation.release();
             plugin.text().of(seller, "plugin-cancelled", e.getCancelReason()).send();
             return; // Cancelled
         } else {
@@ -388,27 +459,39 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
             transaction = builder.to(null).build();
         }
 
-        if (!transaction.checkBalance()) {
-            plugin.text().of(seller, "you-cant-afford-to-buy", format(total, shop.getLocation().getWorld(), shop.getCurrency()), format(eco.getBalance(sellerQUser, shop.getLocation().getWorld(), shop.getCurrency()), shop.getLocation().getWorld(), shop.getCurrency())).send();
-            return;
-        }
-        if (!transaction.failSafeCommit()) {
-            plugin.text().of(seller, "economy-transaction-failed", transaction.getLastError()).send();
-            plugin.logger().error("EconomyTransaction Failed, last error: {}", transaction.getLastError());
-            return;
-        }
-
-        try {
-            shop.sell(sellerQUser, sellerInventory, seller.getLocation(), amount);
-        } catch (Exception shopError) {
-            plugin.logger().warn("Failed to processing purchase, rolling back...", shopError);
-            transaction.rollback(true);
-            plugin.text().of(seller, "shop-transaction-failed", shopError.getMessage()).send();
-            return;
-        }
-        sendPurchaseSuccess(sellerQUser, shop, amount, total, transaction.getTax());
-        new ShopSuccessPurchaseEvent(shop, sellerQUser, sellerInventory, amount, total, transaction.getTax()).callEvent();
-        notifyBought(sellerQUser, shop, amount, stock, transaction.getTax(), total);
+        final double finalTotal = total;
+        final int finalStock = stock;
+        commitEconomyStage(eco, transaction, result -> {
+            if (result != EconomyStageResult.SUCCESS) {
+                reservation.release();
+            }
+            if (result == EconomyStageResult.INSUFFICIENT_BALANCE) {
+                plugin.text().of(seller, "you-cant-afford-to-buy", format(finalTotal, shop.getLocation().getWorld(), shop.getCurrency()), format(eco.getBalance(sellerQUser, shop.getLocation().getWorld(), shop.getCurrency()), shop.getLocation().getWorld(), shop.getCurrency())).send();
+                return;
+            }
+            if (result == EconomyStageResult.FAILED) {
+                plugin.text().of(seller, "economy-transaction-failed", transaction.getLastError()).send();
+                plugin.logger().error("EconomyTransaction Failed, last error: {}", transaction.getLastError());
+                return;
+            }
+            // Inventory stage, the world may changed while the economy stage running off-thread
+            try {
+                if (eco.isAsyncSafe() && !shop.isValid()) {
+                    throw new IllegalStateException("Shop was removed while processing the transaction");
+                }
+                shop.sell(sellerQUser, sellerInventory, seller.getLocation(), amount);
+                reservation.commit();
+            } catch (Exception shopError) {
+                reservation.release();
+                plugin.logger().warn("Failed to processing purchase, rolling back...", shopError);
+                rollbackEconomyStage(eco, transaction);
+                plugin.text().of(seller, "shop-transaction-failed", shopError.getMessage()).send();
+                return;
+            }
+            new ShopSuccessPurchaseEvent(shop, sellerQUser, sellerInventory, amount, finalTotal, transaction.getTax()).callEvent();
+            Util.asyncThreadRun(() -> sendPurchaseSuccess(sellerQUser, shop, amount, finalTotal, transaction.getTax()));
+            notifyBought(sellerQUser, shop, amount, finalStock, transaction.getTax(), finalTotal);
+        });
     }
 
 
@@ -436,6 +519,10 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
         }
         this.interactiveManager.reset();
         this.shops.clear();
+        this.shopChunkIndex.clear();
+        this.shopsById.clear();
+        this.shopCounter.clear();
+        this.reservationLedger.clear();
         shopCache.invalidateAll(null);
     }
 
@@ -913,35 +1000,34 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
 
     private void notifyBought(@NotNull QUser seller, @NotNull Shop shop, int amount, int stock, double tax, double total) {
         Util.asyncThreadRun(() -> {
-            String langCode = plugin.text().findRelativeLanguages(shop.getOwner(), true).getLocale();
-            List<Component> sendList = new ArrayList<>();
-            Component notify;
-            if (plugin.getConfig().getBoolean("show-tax")) {
-                notify = plugin.text().of("player-bought-from-your-store-tax", seller, amount * shop.getItem().getAmount(), Util.getItemStackName(shop.getItem()), this.formatter.format(total - tax, shop), this.formatter.format(tax, shop)).forLocale(langCode);
-            } else {
-                notify = plugin.text().of("player-bought-from-your-store", seller, amount * shop.getItem().getAmount(), Util.getItemStackName(shop.getItem()), this.formatter.format(total - tax, shop)).forLocale(langCode);
-            }
-            notify = plugin.getPlatform().setItemStackHoverEvent(notify, shop.getItem());
-            sendList.add(notify);
+            List<UUID> receivers = getTradeMessageReceivers(shop);
+            boolean showTaxInMessage = plugin.getConfig().getBoolean("show-tax");
+            // Merged with the other purchases from the same player if the receiver is offline
+            String coalesceKey = "bought:" + seller.serialize();
+            // The rendered messages are scoped by shop id and dropped when the item changed
+            String contentKey = String.valueOf(shop.getShopName());
+            MsgUtil.sendCoalesced(shop, receivers, coalesceKey, amount, total, tax, coalesceKey + ":" + contentKey + ":" + showTaxInMessage + ":" + amount + ":" + total + ":" + tax,
+                    langCode -> (sumAmount, sumTotal, sumTax) -> {
+                        Component component;
+                        if (showTaxInMessage) {
+                            component = plugin.text().of("player-bought-from-your-store-tax", seller, sumAmount * shop.getItem().getAmount(), Util.getItemStackName(shop.getItem()), this.formatter.format(sumTotal - sumTax, shop), this.formatter.format(sumTax, shop)).forLocale(langCode);
+                        } else {
+                            component = plugin.text().of("player-bought-from-your-store", seller, sumAmount * shop.getItem().getAmount(), Util.getItemStackName(shop.getItem()), this.formatter.format(sumTotal - sumTax, shop)).forLocale(langCode);
+                        }
+                        return plugin.getPlatform().setItemStackHoverEvent(component, shop.getItem());
+                    });
             // Transfers the item from A to B
             if (stock == amount) {
-                Component stockWarn;
-                if (shop.getShopName() == null) {
-                    stockWarn = plugin.text().of("shop-out-of-stock", shop.getLocation().getBlockX(), shop.getLocation().getBlockY(), shop.getLocation().getBlockZ(), Util.getItemStackName(shop.getItem())).forLocale(langCode);
-                } else {
-                    stockWarn = plugin.text().of("shop-out-of-stock-name", shop.getShopName(), Util.getItemStackName(shop.getItem())).forLocale(langCode);
-                }
-                stockWarn = plugin.getPlatform().setItemStackHoverEvent(stockWarn, shop.getItem());
-                sendList.add(stockWarn);
-            }
-            for (Component component : sendList) {
-                if (sendStockMessageToStaff) {
-                    for (UUID recv : shop.playersCanAuthorize(BuiltInShopPermission.RECEIVE_ALERT)) {
-                        MsgUtil.send(shop, recv, component);
+                MsgUtil.sendCoalesced(shop, receivers, "out-of-stock", 0, 0, 0, "out-of-stock:" + contentKey, langCode -> {
+                    Component stockWarnComponent;
+                    if (shop.getShopName() == null) {
+                        stockWarnComponent = plugin.text().of("shop-out-of-stock", shop.getLocation().getBlockX(), shop.getLocation().getBlockY(), shop.getLocation().getBlockZ(), Util.getItemStackName(shop.getItem())).forLocale(langCode);
+                    } else {
+                        stockWarnComponent = plugin.text().of("shop-out-of-stock-name", shop.getShopName(), Util.getItemStackName(shop.getItem())).forLocale(langCode);
                     }
-                } else {
-                    MsgUtil.send(shop, shop.getOwner(), component);
-                }
+                    Component finalStockWarn = plugin.getPlatform().setItemStackHoverEvent(stockWarnComponent, shop.getItem());
+                    return (sumAmount, sumTotal, sumTax) -> finalStockWarn;
+                });
             }
         });
     }
@@ -1086,6 +1172,39 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
         unregisterShop(shop, true);
     }
 
+    /**
+     * Delete the shops and remove them from database in one batch.
+     *
+     * @param shops The shops to delete
+     * @return The ids of the deleted shops, completes after the database rows removed
+     */
+    @NotNull
+    public CompletableFuture<List<Long>> deleteShops(@NotNull Collection<Shop> shops) {
+        Util.ensureThread(false);
+        List<Shop> deleted = new ArrayList<>(shops.size());
+        for (Shop shop : shops) {
+            ShopDeleteEvent shopDeleteEvent = new ShopDeleteEvent(shop, false);
+            if (shopDeleteEvent.callCancellableEvent()) {
+                Log.debug("Shop delete was cancelled by 3rd-party plugin");
+                continue;
+            }
+            for (Sign s : shop.getSigns()) {
+                s.getBlock().setType(Material.AIR);
+            }
+            refundShop(shop);
+            unloadShop(shop);
+            unregisterShop(shop, false);
+            deleted.add(shop);
+        }
+        List<Long> shopIds = deleted.stream().map(Shop::getShopId).toList();
+        return ((SimpleDatabaseHelperV2) plugin.getDatabaseHelper()).removeShops(shopIds).thenApply(removed -> {
+            if (plugin.getCrossServerSync() != null) {
+                deleted.forEach(shop -> plugin.getCrossServerSync().publishShop(SyncMessage.Type.SHOP_DELETE, shop));
+            }
+            return shopIds;
+        });
+    }
+
 
     private void actionTrade(@NotNull Player p, Info info, @NotNull String message) {
         Util.ensureThread(false);
@@ -1188,6 +1307,12 @@ public class SimpleShopManager extends AbstractShopManager implements ShopManage
         return amount;
     }
 
+    private enum EconomyStageResult {
+        SUCCESS,
+        INSUFFICIENT_BALANCE,
+        FAILED
+    }
+
     public static class InteractiveManager implements ShopManager.InteractiveManager {
         private final Map<UUID, Info> actions = Maps.newConcurrentMap();
         private final QuickShop plugin;
@@ -0,0 +1,116 @@
+package com.ghostchu.quickshop.shop;
+
+import com.ghostchu.quickshop.api.obj.QUser;
+import com.ghostchu.quickshop.api.shop.ShopSnapshot;
+import com.ghostchu.quickshop.api.shop.ShopType;
+import com.ghostchu.quickshop.util.Util;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+@Getter
+@ToString
+public final class SimpleShopSnapshot implements ShopSnapshot {
+    private final long shopId;
+    @NotNull
+    private final String world;
+    private final int x;
+    private final int y;
+    private final int z;
+    @NotNull
+    private final QUser owner;
+    /* Null if the shop was dehydrated, decoded from the fingerprint on every read then */
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private final ItemStack item;
+    /* The serialized item, same as the item column of the shop data */
+    @NotNull
+    @ToString.Exclude
+    private final String itemFingerprint;
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private final Component itemName;
+    @Getter(AccessLevel.NONE)
+    private final boolean allowStack;
+    private final double price;
+    @NotNull
+    private final ShopType shopType;
+    @Nullable
+    private final String currency;
+    @Nullable
+    private final String shopName;
+    private final boolean unlimited;
+    private final int stock;
+    private final int space;
+    private final long version;
+
+    SimpleShopSnapshot(long shopId, @NotNull String world, int x, int y, int z, @NotNull QUser owner,
+                       @Nullable ItemStack item, @NotNull String itemFingerprint, @Nullable Component itemName,
+                       boolean allowStack, double price, @NotNull ShopType shopType, @Nullable String currency, @Nullable String shopName,
+                       boolean unlimited, int stock, int space, long version) {
+        this.shopId = shopId;
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.owner = owner;
+        this.item = item;
+        this.itemFingerprint = itemFingerprint;
+        this.itemName = itemName;
+        this.allowStack = allowStack;
+        this.price = price;
+        this.shopType = shopType;
+        this.currency = currency;
+        this.shopName = shopName;
+        this.unlimited = unlimited;
+        this.stock = stock;
+        this.space = space;
+        this.version = version;
+    }
+
+    @Override
+    public @NotNull ItemStack getItem() {
+        return item == null ? decodeItem() : item.clone();
+    }
+
+    @Override
+    public @NotNull Component getItemName() {
+        return itemName == null ? Util.getItemStackName(decodeItem()) : itemName;
+    }
+
+    @Override
+    public int getShopStackingAmount() {
+        // Same as Shop#getShopStackingAmount()
+        int amount = item == null ? decodeItem().getAmount() : item.getAmount();
+        return allowStack && amount > 1 ? amount : 1;
+    }
+
+    /**
+     * Decodes the item of the dehydrated shop, the decoded item is not kept.
+     *
+     * @return The item
+     * @throws IllegalStateException if the item can't be decoded
+     */
+    @NotNull
+    private ItemStack decodeItem() {
+        ItemStack decoded;
+        try {
+            decoded = Util.deserialize(itemFingerprint);
+        } catch (InvalidConfigurationException e) {
+            throw new IllegalStateException("Failed to decode the item of shop " + shopId, e);
+        }
+        if (decoded == null || decoded.getType() == Material.AIR || decoded.getAmount() <= 0) {
+            throw new IllegalStateException("Shop " + shopId + " has an invalid item: " + decoded);
+        }
+        if (!allowStack) {
+            decoded.setAmount(1);
+        }
+        return decoded;
+    }
+}
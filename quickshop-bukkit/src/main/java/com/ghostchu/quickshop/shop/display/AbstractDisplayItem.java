@@ -14,6 +14,8 @@ import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.ItemDisplay;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -21,6 +23,10 @@ import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * @author Netherfoam
  * A display item, that spawns a block above the chest and cannot be interacted
@@ -36,6 +42,11 @@ public abstract class AbstractDisplayItem implements Reloadable {
     private boolean pendingRemoval;
     private static boolean virtualDisplayDoesntWork = false;
     private static final NamespacedKey DISPLAY_MARK_NAMESPACE = new NamespacedKey(QuickShop.getInstance().getJavaPlugin(), "display_protection");
+    // Display entity uuid to the display item owns it, the guarded entities not in there are dupes
+    private static final Map<UUID, AbstractDisplayItem> DISPLAY_ENTITIES = new ConcurrentHashMap<>();
+    private static boolean spawning = false;
+    // Whether the nearby dupes left by the last spawning have been checked, later dupes are handled by entity adding events
+    protected boolean dupeChecked = false;
 
     protected AbstractDisplayItem(Shop shop) {
         this.shop = shop;
@@ -246,7 +257,8 @@ public abstract class AbstractDisplayItem implements Reloadable {
     public abstract void remove(boolean dontTouchWorld);
 
     /**
-     * Remove this shop's display in the whole world.(Not whole server)
+     * Remove the duplicated displays around this shop's display. The nearby entities only checked once after spawning,
+     * the dupes appear later are removed when they added to the world, see {@link #getByDisplayEntity(UUID)}.
      *
      * @return Success
      */
@@ -283,4 +295,73 @@ public abstract class AbstractDisplayItem implements Reloadable {
     public static boolean isVirtualDisplayDoesntWork() {
         return virtualDisplayDoesntWork;
     }
+
+    /**
+     * Gets the display item which owns the display entity
+     *
+     * @param entityUniqueId The uuid of display entity
+     * @return The display item, null if the entity isn't a known display entity
+     */
+    @Nullable
+    public static AbstractDisplayItem getByDisplayEntity(@NotNull UUID entityUniqueId) {
+        return DISPLAY_ENTITIES.get(entityUniqueId);
+    }
+
+    /**
+     * Check if the entity is a guarded display entity which isn't owned by any display item,
+     * e.g. left in the chunk by the last server run or duped.
+     *
+     * @param entity The entity
+     * @return Is orphan display entity
+     */
+    public static boolean isOrphanDisplayEntity(@NotNull Entity entity) {
+        final ItemStack itemStack;
+        if (entity instanceof Item item) {
+            itemStack = item.getItemStack();
+        } else if (entity instanceof ItemDisplay display) {
+            itemStack = display.getItemStack();
+        } else {
+            return false;
+        }
+        if (DISPLAY_ENTITIES.containsKey(entity.getUniqueId())) {
+            return false;
+        }
+        return itemStack != null && checkIsGuardItemStack(itemStack);
+    }
+
+    /**
+     * Check if a display item is spawning its entity, the entity may not registered yet.
+     *
+     * @return Spawning
+     */
+    public static boolean isSpawning() {
+        return spawning;
+    }
+
+    /**
+     * Run the display entity spawning, the entity adding events fired while spawning won't be treated as dupes.
+     *
+     * @param spawner The spawning logic
+     */
+    protected static void spawning(@NotNull Runnable spawner) {
+        spawning = true;
+        try {
+            spawner.run();
+        } finally {
+            spawning = false;
+        }
+    }
+
+    protected void registerDisplayEntity(@Nullable Entity entity) {
+        if (entity != null) {
+            DISPLAY_ENTITIES.put(entity.getUniqueId(), this);
+        }
+        this.dupeChecked = false;
+    }
+
+    protected void unregisterDisplayEntity(@Nullable UUID entityUniqueId) {
+        if (entityUniqueId != null) {
+            DISPLAY_ENTITIES.remove(entityUniqueId, this);
+        }
+    }
 }
@@ -0,0 +1,153 @@
+package com.ghostchu.quickshop.shop.display;
+
+import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.util.logger.Log;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rolling display check task, runs every tick and checks a slice of the loaded shops under a time budget,
+ * so every shop is checked about once per {@code shop.display-items-check-ticks} without a lag spike.
+ * <p>
+ * The shops have players nearby are checked first in every round, the others are checked every {@link #IDLE_ROUNDS} rounds.
+ * The shops verified recently are skipped, the shops which display had an entity event are checked in the next tick.
+ */
+public class DisplayCheckScheduler implements Runnable {
+    private static final int IDLE_ROUNDS = 4;
+    private static final int MAX_NEARBY_CHUNK_RADIUS = 8;
+    private final QuickShop plugin;
+    private final long interval;
+    private final long budgetNanos;
+    // The shops are tracked by identity, their hashCode changes with the price, owner and type
+    private final Deque<Shop> queue = new ArrayDeque<>();
+    private final Set<Shop> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Deque<Shop> urgent = new ArrayDeque<>();
+    private final Set<Shop> urgentQueued = Collections.newSetFromMap(new IdentityHashMap<>());
+    // The tick the shop was checked last time
+    private final Map<Shop, Long> lastChecked = new IdentityHashMap<>();
+    private long tick = 0;
+    private long round = 0;
+    private int slice = 1;
+
+    public DisplayCheckScheduler(@NotNull QuickShop plugin, long interval, long budgetMillis) {
+        this.plugin = plugin;
+        this.interval = Math.max(1, interval);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, budgetMillis));
+    }
+
+    /**
+     * Check the shop's display in the next tick, used when the display entity had something happened.
+     *
+     * @param shop The shop
+     */
+    public void prioritize(@NotNull Shop shop) {
+        if (urgentQueued.add(shop)) {
+            urgent.addLast(shop);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (tick % interval == 0) {
+            startRound();
+        }
+        tick++;
+        long deadline = System.nanoTime() + budgetNanos;
+        int checked = 0;
+        while (!urgent.isEmpty() && System.nanoTime() < deadline) {
+            Shop shop = urgent.poll();
+            urgentQueued.remove(shop);
+            check(shop);
+        }
+        while (checked < slice && !queue.isEmpty() && System.nanoTime() < deadline) {
+            Shop shop = queue.poll();
+            queued.remove(shop);
+            check(shop);
+            checked++;
+        }
+    }
+
+    private void check(@NotNull Shop shop) {
+        //Shop may be deleted or unloaded when waiting in queue
+        if (!shop.isLoaded()) {
+            return;
+        }
+        shop.checkDisplay();
+        lastChecked.put(shop, tick);
+    }
+
+    private void startRound() {
+        round++;
+        Set<Shop> loadedShops = plugin.getShopManager().getLoadedShops();
+        lastChecked.keySet().removeIf(shop -> !shop.isLoaded());
+        Set<String> watchedChunks = getWatchedChunks();
+        boolean idleRound = round % IDLE_ROUNDS == 0;
+        List<Shop> idle = new ArrayList<>();
+        for (Shop shop : loadedShops) {
+            if (queued.contains(shop)) {
+                // Left from the last round, still waiting
+                continue;
+            }
+            Long checkedAt = lastChecked.get(shop);
+            if (checkedAt != null && tick - checkedAt < interval / 2) {
+                continue;
+            }
+            if (watchedChunks.contains(chunkKey(shop.getLocation()))) {
+                queue.addFirst(shop);
+                queued.add(shop);
+            } else if (idleRound) {
+                idle.add(shop);
+            }
+        }
+        for (Shop shop : idle) {
+            queue.addLast(shop);
+            queued.add(shop);
+        }
+        this.slice = (int) Math.max(1, (queue.size() + interval - 1) / interval);
+        Log.debug("Display check round " + round + " started, " + queue.size() + " shops queued, " + slice + " shops per tick.");
+    }
+
+    @NotNull
+    private Set<String> getWatchedChunks() {
+        int radius = Math.min(Bukkit.getViewDistance(), MAX_NEARBY_CHUNK_RADIUS);
+        Set<String> chunks = new HashSet<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            Location location = player.getLocation();
+            int chunkX = location.getBlockX() >> 4;
+            int chunkZ = location.getBlockZ() >> 4;
+            String world = location.getWorld().getName();
+            for (int x = -radius; x <= radius; x++) {
+                for (int z = -radius; z <= radius; z++) {
+                    chunks.add(chunkKey(world, chunkX + x, chunkZ + z));
+                }
+            }
+        }
+        return chunks;
+    }
+
+    @NotNull
+    private static String chunkKey(@NotNull Location location) {
+        World world = location.getWorld();
+        return chunkKey(world == null ? "" : world.getName(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    @NotNull
+    private static String chunkKey(@NotNull String world, int x, int z) {
+        return world + ":" + x + ":" + z;
+    }
+}
@@ -9,6 +9,7 @@ import com.ghostchu.quickshop.util.MsgUtil;
 import com.ghostchu.quickshop.util.Util;
 import com.ghostchu.quickshop.util.logger.Log;
 import io.papermc.lib.PaperLib;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.*;
 import org.bukkit.event.player.PlayerTeleportEvent;
@@ -24,6 +25,9 @@ import java.util.UUID;
 public class DisplayEntityDisplayItem extends AbstractDisplayItem {
     private static final Vector axis = new Vector(0, 1, 0);
     ItemDisplay displayEntity;
+    // Kept after the entity reference became stale, so the entity can be found again by uuid
+    @Nullable
+    private UUID displayEntityUniqueId;
 
     /**
      * ZZ Creates a new display item.
@@ -70,17 +74,16 @@ public class DisplayEntityDisplayItem extends AbstractDisplayItem {
 
     public void fixDisplayMovedOld() {
         Util.ensureThread(false);
-        for (Entity entity : Objects.requireNonNull(this.shop.getLocation().getWorld())
-                .getEntities()) {
-            if (!(entity instanceof Display display)) {
-                continue;
-            }
-            if (display.getUniqueId().equals(Objects.requireNonNull(this.displayEntity).getUniqueId())) {
-                Log.debug("Fixing moved Item displayItem " + display.getUniqueId() + " at " + display.getLocation());
-                PaperLib.teleportAsync(entity, Objects.requireNonNull(getDisplayLocation()), PlayerTeleportEvent.TeleportCause.UNKNOWN);
-                return;
-            }
+        if (this.displayEntityUniqueId == null) {
+            return;
         }
+        Location location = getDisplayLocation();
+        if (!(Bukkit.getEntity(this.displayEntityUniqueId) instanceof ItemDisplay display) || location == null) {
+            return;
+        }
+        Log.debug("Fixing moved Item displayItem " + display.getUniqueId() + " at " + display.getLocation());
+        this.displayEntity = display;
+        PaperLib.teleportAsync(display, location, PlayerTeleportEvent.TeleportCause.UNKNOWN);
     }
 
     @Override
@@ -118,7 +121,9 @@ public class DisplayEntityDisplayItem extends AbstractDisplayItem {
             return;
         }
         this.displayEntity.remove();
+        unregisterDisplayEntity(this.displayEntityUniqueId);
         this.displayEntity = null;
+        this.displayEntityUniqueId = null;
         this.guardedIstack = null;
         new ShopDisplayItemDespawnEvent(shop, originalItemStack, DisplayType.ENTITY_DISPLAY).callEvent();
     }
@@ -130,6 +135,11 @@ public class DisplayEntityDisplayItem extends AbstractDisplayItem {
             Log.debug("Warning: Trying to removeDupe for a null display shop.");
             return false;
         }
+        if (this.dupeChecked) {
+            // The dupes spawned or loaded later are removed by DisplayProtectionListener and ChunkListener
+            return false;
+        }
+        this.dupeChecked = true;
 
         boolean removed = false;
 
@@ -216,9 +226,13 @@ public class DisplayEntityDisplayItem extends AbstractDisplayItem {
             return;
         }
         this.guardedIstack = AbstractDisplayItem.createGuardItemStack(this.originalItemStack, this.shop);
-        this.displayEntity = (ItemDisplay) this.shop.getLocation().getWorld().spawnEntity(getDisplayLocation(), EntityType.ITEM_DISPLAY, false);
-        this.displayEntity.setItemStack(this.guardedIstack);
-        safeGuard(displayEntity);
+        spawning(() -> {
+            this.displayEntity = (ItemDisplay) this.shop.getLocation().getWorld().spawnEntity(getDisplayLocation(), EntityType.ITEM_DISPLAY, false);
+            this.displayEntity.setItemStack(this.guardedIstack);
+            safeGuard(displayEntity);
+        });
+        this.displayEntityUniqueId = this.displayEntity.getUniqueId();
+        registerDisplayEntity(this.displayEntity);
         new ShopDisplayItemSafeGuardEvent(shop, this.displayEntity).callEvent();
     }
 
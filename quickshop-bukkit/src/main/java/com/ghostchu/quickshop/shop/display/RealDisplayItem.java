@@ -10,6 +10,7 @@ import com.ghostchu.quickshop.util.Util;
 import com.ghostchu.quickshop.util.logger.Log;
 import io.papermc.lib.PaperLib;
 import lombok.ToString;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
@@ -29,6 +30,9 @@ public class RealDisplayItem extends AbstractDisplayItem {
 
     @Nullable
     private Item item;
+    // Kept after the entity reference became stale, so the entity can be found again by uuid
+    @Nullable
+    private UUID itemUniqueId;
 
     /**
      * ZZ Creates a new display item.
@@ -84,17 +88,16 @@ public class RealDisplayItem extends AbstractDisplayItem {
 
     public void fixDisplayMovedOld() {
         Util.ensureThread(false);
-        for (Entity entity : Objects.requireNonNull(this.shop.getLocation().getWorld())
-                .getEntities()) {
-            if (!(entity instanceof Item eItem)) {
-                continue;
-            }
-            if (eItem.getUniqueId().equals(Objects.requireNonNull(this.item).getUniqueId())) {
-                Log.debug("Fixing moved Item displayItem " + eItem.getUniqueId() + " at " + eItem.getLocation());
-                PaperLib.teleportAsync(entity, Objects.requireNonNull(getDisplayLocation()), PlayerTeleportEvent.TeleportCause.UNKNOWN);
-                return;
-            }
+        if (this.itemUniqueId == null) {
+            return;
         }
+        Location location = getDisplayLocation();
+        if (!(Bukkit.getEntity(this.itemUniqueId) instanceof Item eItem) || location == null) {
+            return;
+        }
+        Log.debug("Fixing moved Item displayItem " + eItem.getUniqueId() + " at " + eItem.getLocation());
+        this.item = eItem;
+        PaperLib.teleportAsync(eItem, location, PlayerTeleportEvent.TeleportCause.UNKNOWN);
     }
 
     @Override
@@ -132,7 +135,9 @@ public class RealDisplayItem extends AbstractDisplayItem {
             return;
         }
         this.item.remove();
+        unregisterDisplayEntity(this.itemUniqueId);
         this.item = null;
+        this.itemUniqueId = null;
         this.guardedIstack = null;
         new ShopDisplayItemDespawnEvent(shop, originalItemStack, DisplayType.REALITEM).callEvent();
     }
@@ -144,6 +149,11 @@ public class RealDisplayItem extends AbstractDisplayItem {
             Log.debug("Warning: Trying to removeDupe for a null display shop.");
             return false;
         }
+        if (this.dupeChecked) {
+            // The dupes spawned or loaded later are removed by DisplayProtectionListener and ChunkListener
+            return false;
+        }
+        this.dupeChecked = true;
 
         boolean removed = false;
 
@@ -227,16 +237,22 @@ public class RealDisplayItem extends AbstractDisplayItem {
             return;
         }
         this.guardedIstack = AbstractDisplayItem.createGuardItemStack(this.originalItemStack, this.shop);
-        try {
-            this.item = this.shop.getLocation().getWorld().dropItem(getDisplayLocation(), this.guardedIstack, this::safeGuard);
-        } catch (NoSuchMethodError noSuchMethodError) {
+        spawning(() -> {
             try {
-                this.item = this.shop.getLocation().getWorld().dropItem(getDisplayLocation(), this.guardedIstack);
-                safeGuard(this.item);
-            } catch (Exception e) {
-                Log.debug("Failed to generate the real display item: " + e.getMessage());
+                this.item = this.shop.getLocation().getWorld().dropItem(getDisplayLocation(), this.guardedIstack, this::safeGuard);
+            } catch (NoSuchMethodError noSuchMethodError) {
+                try {
+                    this.item = this.shop.getLocation().getWorld().dropItem(getDisplayLocation(), this.guardedIstack);
+                    safeGuard(this.item);
+                } catch (Exception e) {
+                    Log.debug("Failed to generate the real display item: " + e.getMessage());
+                }
             }
+        });
+        if (this.item != null) {
+            this.itemUniqueId = this.item.getUniqueId();
         }
+        registerDisplayEntity(this.item);
         new ShopDisplayItemSafeGuardEvent(shop, this.item).callEvent();
     }
 
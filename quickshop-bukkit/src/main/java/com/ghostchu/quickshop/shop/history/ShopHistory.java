@@ -283,7 +283,8 @@ public class ShopHistory {
     public List<ShopHistoryRecord> query(int page, int pageSize) throws SQLException {
         Util.ensureThread(true);
         List<ShopHistoryRecord> historyRecords = new ArrayList<>(pageSize);
-        String SQL = "SELECT * FROM %s WHERE `shop` IN (" + shopIdsPlaceHolders + ") ORDER BY `time` DESC LIMIT " + (page - 1) * pageSize + "," + pageSize;
+        // Filter the types in database, so the pages are not shortened by the other records
+        String SQL = "SELECT * FROM %s WHERE `shop` IN (" + shopIdsPlaceHolders + ") AND `type` IN ('" + ShopOperationEnum.PURCHASE_SELLING_SHOP.name() + "','" + ShopOperationEnum.PURCHASE_BUYING_SHOP.name() + "') ORDER BY `time` DESC LIMIT " + (page - 1) * pageSize + "," + pageSize;
         SQL = String.format(SQL, DataTables.LOG_PURCHASE.getName());
         try (PerfMonitor perfMonitor = new PerfMonitor("historyPageableQuery");
              Connection connection = plugin.getSqlManager().getConnection();
@@ -0,0 +1,198 @@
+package com.ghostchu.quickshop.sync;
+
+import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.database.SimpleDatabaseHelperV2;
+import com.ghostchu.quickshop.util.FastPlayerFinder;
+import com.ghostchu.quickshop.util.Util;
+import com.ghostchu.quickshop.util.logger.Log;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the in-memory shops and player caches in sync between the servers those share the same database.
+ * <p>
+ * Every change is published with a version from a hybrid clock (the wall clock, but never less than the last
+ * seen version + 1), the receivers ignore the messages older than the version they already applied.
+ */
+public class CrossServerSync {
+    private static final String SHOP_PREFIX = "shop:";
+    private static final String PLAYER_PREFIX = "player:";
+    private final QuickShop plugin;
+    private final SyncTransport transport;
+    private final String origin;
+    private final AtomicLong clock = new AtomicLong();
+    private final Cache<String, Long> appliedVersions = CacheBuilder.newBuilder()
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    public CrossServerSync(@NotNull QuickShop plugin, @NotNull SyncTransport transport) {
+        this.plugin = plugin;
+        this.transport = transport;
+        // Don't use the server-uuid, it may be same on the servers those copied the config from each other
+        this.origin = UUID.randomUUID().toString();
+    }
+
+    /**
+     * Create the transport configured in config.yml
+     *
+     * @param plugin The plugin instance
+     * @return The transport, null if disabled
+     */
+    @Nullable
+    public static SyncTransport createTransport(@NotNull QuickShop plugin) {
+        String transport = plugin.getConfig().getString("cross-server-sync.transport", "none").toLowerCase(Locale.ROOT);
+        switch (transport) {
+            case "plugin-message" -> {
+                return new PluginMessageSyncTransport(plugin);
+            }
+            case "database" -> {
+                if (!(plugin.getDatabaseHelper() instanceof SimpleDatabaseHelperV2 databaseHelper)) {
+                    plugin.logger().warn("The database transport of cross-server-sync is not supported by current database helper.");
+                    return null;
+                }
+                return new DatabaseSyncTransport(plugin, databaseHelper, plugin.getConfig().getLong("cross-server-sync.poll-interval", 2));
+            }
+            case "loopback" -> {
+                return new LoopbackSyncTransport();
+            }
+            case "none" -> {
+                return null;
+            }
+            default -> {
+                plugin.logger().warn("Unknown cross-server-sync transport {}, cross-server-sync disabled.", transport);
+                return null;
+            }
+        }
+    }
+
+    public void start() {
+        transport.start(this::receive);
+        plugin.logger().info("Cross-server sync enabled with transport {}.", transport.getClass().getSimpleName());
+    }
+
+    public void stop() {
+        transport.stop();
+    }
+
+    /**
+     * Notify the other servers the shop was created, updated or deleted.
+     *
+     * @param type The message type
+     * @param shop The shop
+     */
+    public void publishShop(@NotNull SyncMessage.Type type, @NotNull Shop shop) {
+        Location location = shop.getLocation();
+        publish(type, SHOP_PREFIX + shop.getShopId(), location.getWorld().getName() + "," + location.getBlockX() + "," + location.getBlockY() + "," + location.getBlockZ());
+    }
+
+    /**
+     * Notify the other servers the player profile (name or locale) was changed.
+     *
+     * @param uuid The player unique id
+     * @param name The player name
+     */
+    public void publishPlayerProfile(@NotNull UUID uuid, @NotNull String name) {
+        publish(SyncMessage.Type.PLAYER_PROFILE, PLAYER_PREFIX + uuid, name);
+    }
+
+    private void publish(@NotNull SyncMessage.Type type, @NotNull String target, @NotNull String payload) {
+        long now = System.currentTimeMillis();
+        long version = clock.updateAndGet(last -> Math.max(last + 1, now));
+        if (!transport.isLoopback()) {
+            appliedVersions.put(target, version);
+        }
+        transport.publish(new SyncMessage(origin, type, target, payload, version));
+    }
+
+    private void receive(@NotNull SyncMessage message) {
+        if (!transport.isLoopback() && origin.equals(message.origin())) {
+            return;
+        }
+        AtomicBoolean newer = new AtomicBoolean(false);
+        appliedVersions.asMap().compute(message.target(), (k, applied) -> {
+            if (applied != null && applied >= message.version()) {
+                return applied;
+            }
+            newer.set(true);
+            return message.version();
+        });
+        if (!newer.get()) {
+            Log.debug("Ignored outdated sync message " + message);
+            return;
+        }
+        // Make sure our next changes on this target will have newer version
+        clock.accumulateAndGet(message.version(), Math::max);
+        Log.debug("Handling sync message " + message);
+        try {
+            switch (message.type()) {
+                case SHOP_CREATE, SHOP_UPDATE -> {
+                    Location location = parseLocation(message.payload());
+                    if (location != null) {
+                        plugin.getShopLoader().reloadShop(Long.parseLong(message.target().substring(SHOP_PREFIX.length())), location);
+                    }
+                }
+                case SHOP_DELETE -> {
+                    Location location = parseLocation(message.payload());
+                    if (location != null) {
+                        handleShopDeleted(Long.parseLong(message.target().substring(SHOP_PREFIX.length())), location);
+                    }
+                }
+                case PLAYER_PROFILE -> handlePlayerProfile(UUID.fromString(message.target().substring(PLAYER_PREFIX.length())), message.payload());
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            Log.debug("Malformed sync message " + message + ": " + e.getMessage());
+        }
+    }
+
+    private void handleShopDeleted(long shopId, @NotNull Location location) {
+        Util.mainThreadRun(() -> {
+            Shop shop = plugin.getShopManager().getShop(location, true);
+            if (shop == null || shop.getShopId() != shopId) {
+                return;
+            }
+            if (shop.isLoaded()) {
+                plugin.getShopManager().unloadShop(shop);
+            }
+            plugin.getShopManager().unregisterShop(shop, false);
+        });
+    }
+
+    private void handlePlayerProfile(@NotNull UUID uuid, @NotNull String name) {
+        if (plugin.getPlayerFinder() instanceof FastPlayerFinder fastPlayerFinder) {
+            // Don't use PlayerFinder#cache, the sender already saved it into database
+            fastPlayerFinder.getNameCache().put(uuid, Optional.of(name));
+        }
+        if (plugin.getDatabaseHelper() instanceof SimpleDatabaseHelperV2 databaseHelper) {
+            databaseHelper.invalidatePlayerLocale(uuid);
+        }
+    }
+
+    @Nullable
+    private Location parseLocation(@NotNull String payload) {
+        // World name may contain commas, parse from the end
+        int zIndex = payload.lastIndexOf(',');
+        int yIndex = payload.lastIndexOf(',', zIndex - 1);
+        int xIndex = payload.lastIndexOf(',', yIndex - 1);
+        World world = Bukkit.getWorld(payload.substring(0, xIndex));
+        if (world == null) {
+            return null;
+        }
+        return new Location(world,
+                Integer.parseInt(payload.substring(xIndex + 1, yIndex)),
+                Integer.parseInt(payload.substring(yIndex + 1, zIndex)),
+                Integer.parseInt(payload.substring(zIndex + 1)));
+    }
+}
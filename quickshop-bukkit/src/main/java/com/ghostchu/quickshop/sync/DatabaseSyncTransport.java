@@ -0,0 +1,103 @@
+package com.ghostchu.quickshop.sync;
+
+import cc.carm.lib.easysql.api.SQLQuery;
+import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.database.DataTables;
+import com.ghostchu.quickshop.database.SimpleDatabaseHelperV2;
+import com.ghostchu.quickshop.util.logger.Log;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the messages through a table in the shared database, the other servers poll the new rows.
+ */
+public class DatabaseSyncTransport implements SyncTransport {
+    private static final long KEEP_ROWS = TimeUnit.MINUTES.toMillis(5);
+    private final QuickShop plugin;
+    private final SimpleDatabaseHelperV2 databaseHelper;
+    private final long pollIntervalTicks;
+    private Consumer<SyncMessage> receiver;
+    private BukkitTask pollTask;
+    private long lastId = -1;
+    private long lastCleanup = System.currentTimeMillis();
+
+    public DatabaseSyncTransport(@NotNull QuickShop plugin, @NotNull SimpleDatabaseHelperV2 databaseHelper, long pollIntervalSeconds) {
+        this.plugin = plugin;
+        this.databaseHelper = databaseHelper;
+        this.pollIntervalTicks = Math.max(1, pollIntervalSeconds) * 20L;
+    }
+
+    @Override
+    public void start(@NotNull Consumer<SyncMessage> receiver) {
+        this.receiver = receiver;
+        this.pollTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                poll();
+            }
+        }.runTaskTimerAsynchronously(plugin.getJavaPlugin(), 0, pollIntervalTicks);
+    }
+
+    @Override
+    public void publish(@NotNull SyncMessage message) {
+        DataTables.SYNC_EVENTS.createInsert()
+                .setColumnNames("origin", "type", "target", "payload", "version")
+                .setParams(message.origin(), message.type().name(), message.target(), message.payload(), message.version())
+                .executeFuture(lines -> lines)
+                .exceptionally(e -> {
+                    plugin.logger().warn("Failed to publish the sync message", e);
+                    return null;
+                });
+    }
+
+    @Override
+    public void stop() {
+        if (pollTask != null) {
+            pollTask.cancel();
+        }
+    }
+
+    private void poll() {
+        String table = DataTables.SYNC_EVENTS.getName();
+        if (lastId == -1) {
+            // Only the messages after startup are interesting, everything older is already in the database
+            try (SQLQuery query = databaseHelper.getManager().createQuery().withPreparedSQL("SELECT MAX(id) AS max_id FROM " + table).execute()) {
+                ResultSet set = query.getResultSet();
+                lastId = set.next() ? set.getLong("max_id") : 0;
+            } catch (SQLException e) {
+                plugin.logger().warn("Failed to poll the sync messages", e);
+            }
+            return;
+        }
+        try (SQLQuery query = databaseHelper.getManager().createQuery()
+                .withPreparedSQL("SELECT * FROM " + table + " WHERE id > ? ORDER BY id")
+                .setParams(lastId)
+                .execute()) {
+            ResultSet set = query.getResultSet();
+            while (set.next()) {
+                lastId = set.getLong("id");
+                try {
+                    receiver.accept(new SyncMessage(set.getString("origin"), SyncMessage.Type.valueOf(set.getString("type")),
+                            set.getString("target"), set.getString("payload"), set.getLong("version")));
+                } catch (IllegalArgumentException e) {
+                    Log.debug("Skipping unknown sync message type " + set.getString("type"));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.logger().warn("Failed to poll the sync messages", e);
+        }
+        if (System.currentTimeMillis() - lastCleanup > KEEP_ROWS) {
+            lastCleanup = System.currentTimeMillis();
+            DataTables.SYNC_EVENTS.createDelete()
+                    .addTimeCondition("time", -1L, System.currentTimeMillis() - KEEP_ROWS)
+                    .build()
+                    .executeFuture();
+        }
+    }
+}
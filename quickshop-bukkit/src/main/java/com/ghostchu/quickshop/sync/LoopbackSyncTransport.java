@@ -0,0 +1,42 @@
+package com.ghostchu.quickshop.sync;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the messages to all loopback transports in the same JVM, including itself.
+ * Used for testing the synchronization without a proxy or a shared database, the own messages are applied
+ * like they came from another server.
+ */
+public class LoopbackSyncTransport implements SyncTransport {
+    private static final List<Consumer<SyncMessage>> RECEIVERS = new CopyOnWriteArrayList<>();
+    private Consumer<SyncMessage> receiver;
+
+    @Override
+    public void start(@NotNull Consumer<SyncMessage> receiver) {
+        this.receiver = receiver;
+        RECEIVERS.add(receiver);
+    }
+
+    @Override
+    public void publish(@NotNull SyncMessage message) {
+        // Pass through the wire format, so the serialization is tested too
+        byte[] bytes = message.toBytes();
+        for (Consumer<SyncMessage> consumer : RECEIVERS) {
+            consumer.accept(SyncMessage.fromBytes(bytes));
+        }
+    }
+
+    @Override
+    public boolean isLoopback() {
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        RECEIVERS.remove(receiver);
+    }
+}
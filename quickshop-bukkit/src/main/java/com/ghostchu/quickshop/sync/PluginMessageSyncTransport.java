@@ -0,0 +1,77 @@
+package com.ghostchu.quickshop.sync;
+
+import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.util.logger.Log;
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Delivers the messages with the BungeeCord "Forward" plugin message, works on both BungeeCord and Velocity.
+ * <p>
+ * Plugin messages are sent through a player connection, the messages can't be sent or received by the servers
+ * those have no online players. Those servers have nothing to display, and will be refreshed on the next startup.
+ */
+public class PluginMessageSyncTransport implements SyncTransport, PluginMessageListener {
+    private static final String BUNGEE_CHANNEL = "BungeeCord";
+    private static final String SUB_CHANNEL = "QuickShopSync";
+    private final QuickShop plugin;
+    private Consumer<SyncMessage> receiver;
+
+    public PluginMessageSyncTransport(@NotNull QuickShop plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void start(@NotNull Consumer<SyncMessage> receiver) {
+        this.receiver = receiver;
+        Bukkit.getMessenger().registerIncomingPluginChannel(plugin.getJavaPlugin(), BUNGEE_CHANNEL, this);
+    }
+
+    @Override
+    public void publish(@NotNull SyncMessage message) {
+        Player player = Iterables.getFirst(Bukkit.getOnlinePlayers(), null);
+        if (player == null) {
+            Log.debug("No online players, the sync message " + message + " can't be sent.");
+            return;
+        }
+        byte[] bytes = message.toBytes();
+        ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        out.writeUTF("Forward");
+        out.writeUTF("ALL");
+        out.writeUTF(SUB_CHANNEL);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+        player.sendPluginMessage(plugin.getJavaPlugin(), BUNGEE_CHANNEL, out.toByteArray());
+    }
+
+    @Override
+    public void stop() {
+        Bukkit.getMessenger().unregisterIncomingPluginChannel(plugin.getJavaPlugin(), BUNGEE_CHANNEL, this);
+    }
+
+    @Override
+    public void onPluginMessageReceived(@NotNull String channel, @NotNull Player player, byte @NotNull [] bytes) {
+        if (!BUNGEE_CHANNEL.equals(channel)) {
+            return;
+        }
+        ByteArrayDataInput in = ByteStreams.newDataInput(bytes);
+        if (!SUB_CHANNEL.equals(in.readUTF())) {
+            return;
+        }
+        byte[] messageBytes = new byte[in.readShort()];
+        in.readFully(messageBytes);
+        try {
+            receiver.accept(SyncMessage.fromBytes(messageBytes));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            Log.debug("Failed to read the sync message: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ghostchu.quickshop.sync;
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A cache invalidation message sent between the servers those share the same database.
+ *
+ * @param origin  The server unique id of the sender
+ * @param type    The message type
+ * @param target  The target of this message, e.g. shop id or player uuid
+ * @param payload The extra data for the receiver to locate the target, may be empty
+ * @param version The version of the target, the messages with older version will be ignored
+ */
+public record SyncMessage(@NotNull String origin, @NotNull Type type, @NotNull String target, @NotNull String payload,
+                          long version) {
+
+    @NotNull
+    public static SyncMessage fromBytes(byte @NotNull [] bytes) {
+        ByteArrayDataInput in = ByteStreams.newDataInput(bytes);
+        return new SyncMessage(in.readUTF(), Type.valueOf(in.readUTF()), in.readUTF(), in.readUTF(), in.readLong());
+    }
+
+    public byte @NotNull [] toBytes() {
+        ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        out.writeUTF(origin);
+        out.writeUTF(type.name());
+        out.writeUTF(target);
+        out.writeUTF(payload);
+        out.writeLong(version);
+        return out.toByteArray();
+    }
+
+    public enum Type {
+        SHOP_CREATE,
+        SHOP_UPDATE,
+        SHOP_DELETE,
+        PLAYER_PROFILE
+    }
+}
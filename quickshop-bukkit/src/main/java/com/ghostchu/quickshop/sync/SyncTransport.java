@@ -0,0 +1,36 @@
+package com.ghostchu.quickshop.sync;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * The transport to deliver the {@link SyncMessage} to the other servers.
+ */
+public interface SyncTransport {
+    /**
+     * Start the transport.
+     *
+     * @param receiver The receiver for the messages from the other servers, may be called on any thread
+     */
+    void start(@NotNull Consumer<SyncMessage> receiver);
+
+    /**
+     * Publish the message to the other servers.
+     *
+     * @param message The message
+     */
+    void publish(@NotNull SyncMessage message);
+
+    /**
+     * Gets if this transport delivers the messages back to the sender itself, the sender applies its own
+     * messages like they came from another server then.
+     *
+     * @return true if the messages are delivered back to the sender
+     */
+    default boolean isLoopback() {
+        return false;
+    }
+
+    void stop();
+}
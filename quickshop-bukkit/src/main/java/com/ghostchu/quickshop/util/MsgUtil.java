@@ -9,10 +9,14 @@ import com.ghostchu.quickshop.common.util.CommonUtil;
 import com.ghostchu.quickshop.common.util.RomanNumber;
 import com.ghostchu.quickshop.util.logger.Log;
 import com.ghostchu.quickshop.util.logging.container.PluginGlobalAlertLog;
+import com.ghostchu.quickshop.watcher.OfflineMessageWatcher;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
 import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
 import net.kyori.adventure.text.TextReplacementConfig;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -34,11 +38,19 @@ import org.jetbrains.annotations.Nullable;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.logging.Level;
 
 
 public class MsgUtil {
     private static final QuickShop PLUGIN = QuickShop.getInstance();
+    // Repeated notifications (e.g. out-of-stock warnings of a busy shop) in the same locale are rendered only once
+    private static final Cache<String, Component> RENDERED_NOTIFICATIONS = CacheBuilder.newBuilder()
+            .maximumSize(256)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
     private static DecimalFormat decimalFormat;
     private static volatile Entry<String, String> cachedGameLanguageCode = null;
 
@@ -153,11 +165,21 @@ public class MsgUtil {
             return false;
         }
         UUID playerUniqueId = player.getUniqueId();
+        // Messages not saved into database yet
+        for (Component pending : PLUGIN.getOfflineMessageWatcher().drain(playerUniqueId)) {
+            PLUGIN.getPlatform().sendMessage(player, pending);
+        }
         PLUGIN.getDatabaseHelper().selectPlayerMessages(playerUniqueId)
                 .thenAccept(msgs -> {
+                    if (msgs.isEmpty()) {
+                        return;
+                    }
+                    // Send them as one message, thousands of chat packets will flood the client
+                    List<Component> components = new ArrayList<>(msgs.size());
                     for (String msg : msgs) {
-                        PLUGIN.getPlatform().sendMessage(player, GsonComponentSerializer.gson().deserialize(msg));
+                        components.add(GsonComponentSerializer.gson().deserialize(msg));
                     }
+                    PLUGIN.getPlatform().sendMessage(player, Component.join(JoinConfiguration.newlines(), components));
                     PLUGIN.getDatabaseHelper().cleanMessageForPlayer(playerUniqueId)
                             .exceptionally(error -> {
                                 PLUGIN.logger().warn("Error on cleaning the purchase messages from the database", error);
@@ -306,36 +328,74 @@ public class MsgUtil {
         if (uuid == null) {
             return;
         }
-        String serialized = GsonComponentSerializer.gson().serialize(shopTransactionMessage);
-        Log.debug(serialized);
-        OfflinePlayer p = Bukkit.getOfflinePlayer(uuid);
-        if (!p.isOnline()) {
-            PLUGIN.getDatabaseHelper().saveOfflineTransactionMessage(uuid, serialized, System.currentTimeMillis())
-                    .thenAccept(v -> {
-                    })
-                    .exceptionally(err -> {
-                        PLUGIN.logger().warn("Could not save transaction message to database", err);
-                        return null;
-                    });
-            try {
-                if (p.getName() != null && PLUGIN.getConfig().getBoolean("bungee-cross-server-msg", true)) {
-                    PLUGIN.getDatabaseHelper().getPlayerLocale(uuid).whenCompleteAsync((locale, err) -> {
-                        if (locale != null) {
-                            sendBungeeMessage(p.getName(), shopTransactionMessage, locale);
-                        }
-                    });
-                }
-            } catch (Exception e) {
-                Log.debug("Could not send shop transaction message to player " + p.getName() + " via BungeeCord: " + e.getMessage());
-            }
+        Player player = Bukkit.getPlayer(uuid);
+        if (player != null) {
+            PLUGIN.getPlatform().sendMessage(player, shopTransactionMessage);
         } else {
-            Player player = p.getPlayer();
+            // Buffered and saved in batch, cross-server message also sent while flushing
+            PLUGIN.getOfflineMessageWatcher().queue(uuid, shopTransactionMessage);
+        }
+    }
+
+    /**
+     * Send a trade message that can be merged to multiple receivers, the message will be rendered only once for each
+     * locale of the online receivers. If a receiver is offline, the messages with same key will be merged into
+     * one summary message before saving into database.
+     *
+     * @param shop        The shop
+     * @param receivers   The uuids of the players to message
+     * @param coalesceKey The key to merge messages, the messages have same key should be only different in amounts
+     * @param amount      The item amount
+     * @param total       The total price
+     * @param tax         The tax
+     * @param cacheKey    The key to reuse the rendered message of this shop in a short time, must contain everything the message
+     *                    depends on except the shop item, null to disable. See {@link #invalidateRenderedNotifications(long)}
+     * @param renderers   The locale code to renderer function
+     */
+    public static void sendCoalesced(@NotNull Shop shop, @NotNull Collection<UUID> receivers, @NotNull String coalesceKey, int amount, double total, double tax, @Nullable String cacheKey, @NotNull Function<String, OfflineMessageWatcher.Renderer> renderers) {
+        if (shop.isUnlimited() && PLUGIN.getConfig().getBoolean("shop.ignore-unlimited-shop-messages")) {
+            return; // Ignore unlimited shops messages.
+        }
+        Map<String, List<Player>> onlineByLocale = new HashMap<>();
+        for (UUID uuid : receivers) {
+            if (uuid == null) {
+                continue;
+            }
+            String locale = PLUGIN.text().findRelativeLanguages(uuid, true).getLocale();
+            Player player = Bukkit.getPlayer(uuid);
             if (player != null) {
-                PLUGIN.getPlatform().sendMessage(player, shopTransactionMessage);
+                onlineByLocale.computeIfAbsent(locale, k -> new ArrayList<>()).add(player);
+            } else {
+                PLUGIN.getOfflineMessageWatcher().queue(uuid, shop.getShopId() + ":" + coalesceKey, amount, total, tax, renderers.apply(locale));
+            }
+        }
+        for (Entry<String, List<Player>> entry : onlineByLocale.entrySet()) {
+            String locale = entry.getKey();
+            Component message;
+            if (cacheKey == null) {
+                message = renderers.apply(locale).render(amount, total, tax);
+            } else {
+                try {
+                    message = RENDERED_NOTIFICATIONS.get(shop.getShopId() + "|" + locale + "|" + cacheKey, () -> renderers.apply(locale).render(amount, total, tax));
+                } catch (ExecutionException e) {
+                    PLUGIN.logger().warn("Failed to render the notification {} for locale {}", cacheKey, locale, e);
+                    continue;
+                }
             }
+            PLUGIN.getPlatform().sendMessage(entry.getValue(), message);
         }
     }
 
+    /**
+     * Drop the rendered notifications of the shop, should be called when the shop item changed.
+     *
+     * @param shopId The shop id
+     */
+    public static void invalidateRenderedNotifications(long shopId) {
+        String prefix = shopId + "|";
+        RENDERED_NOTIFICATIONS.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
     public static void sendBungeeMessage(@NotNull String playerName, @NotNull Component message, @NotNull String locale) {
         Component csmMessage = PLUGIN.text().of("bungee-cross-server-msg", message).forLocale(locale);
         ByteArrayDataOutput out = ByteStreams.newDataOutput();
@@ -460,11 +520,7 @@ public class MsgUtil {
      * @param message The message you want send
      */
     public static void sendMessageToOps(@NotNull String message) {
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (QuickShop.getPermissionManager().hasPermission(player, "quickshop.alerts")) {
-                MsgUtil.sendDirectMessage(player, LegacyComponentSerializer.legacySection().deserialize(message));
-            }
-        }
+        sendMessageToOps(LegacyComponentSerializer.legacySection().deserialize(message));
     }
 
     /**
@@ -473,11 +529,16 @@ public class MsgUtil {
      * @param message The message you want send
      */
     public static void sendMessageToOps(@NotNull Component message) {
+        if (Util.isEmptyComponent(message)) {
+            return;
+        }
+        List<Player> receivers = new ArrayList<>();
         for (Player player : Bukkit.getOnlinePlayers()) {
             if (QuickShop.getPermissionManager().hasPermission(player, "quickshop.alerts")) {
-                MsgUtil.sendDirectMessage(player, message);
+                receivers.add(player);
             }
         }
+        PLUGIN.getPlatform().sendMessage(receivers, message);
     }
 
     @NotNull
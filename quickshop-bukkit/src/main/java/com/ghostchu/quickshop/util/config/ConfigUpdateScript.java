@@ -21,6 +21,61 @@ public class ConfigUpdateScript {
         this.plugin = plugin;
     }
 
+    @UpdateScript(version = 1039)
+    public void purgeBatches() {
+        getConfig().set("purge.batch-size", 50);
+        getConfig().set("purge.batch-interval", 20);
+    }
+
+    @UpdateScript(version = 1038)
+    public void displayCheckTimeBudget() {
+        getConfig().set("shop.display-items-check-time-budget", 2);
+    }
+
+    @UpdateScript(version = 1037)
+    public void papiCacheOverrides() {
+        getConfig().createSection("plugin.PlaceHolderAPI.cache-overrides");
+    }
+
+    @UpdateScript(version = 1036)
+    public void executorProfiles() {
+        getConfig().set("executor.virtual-threads", true);
+        getConfig().set("executor.database-concurrency", 0);
+        getConfig().set("executor.profile-io-concurrency", 16);
+    }
+
+    @UpdateScript(version = 1035)
+    public void crossServerSync() {
+        getConfig().set("cross-server-sync.transport", "none");
+        getConfig().set("cross-server-sync.poll-interval", 2);
+    }
+
+    @UpdateScript(version = 1034)
+    public void lazyShopLoading() {
+        getConfig().set("lazy-shop-loading.enabled", true);
+        getConfig().set("lazy-shop-loading.evict-after", 30);
+    }
+
+    @UpdateScript(version = 1033)
+    public void shopSnapshot() {
+        getConfig().set("shop-snapshot.enabled", false);
+    }
+
+    @UpdateScript(version = 1032)
+    public void offlineMessageCoalesceWindow() {
+        getConfig().set("offline-message-coalesce-window", 5);
+    }
+
+    @UpdateScript(version = 1031)
+    public void economyAsyncSafe() {
+        getConfig().set("economy-cache.async-safe", false);
+    }
+
+    @UpdateScript(version = 1030)
+    public void economyBalanceSnapshotCache() {
+        getConfig().set("economy-cache.balance-snapshot-ttl", 1000);
+    }
+
     @UpdateScript(version = 1029)
     public void configWorldLoadingBlacklist() {
         getConfig().set("database-loading-blacklist-worlds", Collections.emptyList());
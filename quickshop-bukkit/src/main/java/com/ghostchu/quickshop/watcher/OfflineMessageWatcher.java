@@ -0,0 +1,158 @@
+package com.ghostchu.quickshop.watcher;
+
+import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.util.MsgUtil;
+import com.ghostchu.quickshop.util.logger.Log;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.apache.commons.lang3.tuple.ImmutableTriple;
+import org.apache.commons.lang3.tuple.Triple;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers the messages for offline players and writes them into database in batches.
+ * <p>
+ * Messages queued with the same coalesce key within a flush window will be merged into one summary message,
+ * e.g. a player bought from the same shop a hundred times only produces one "X bought Y" row.
+ */
+public class OfflineMessageWatcher extends BukkitRunnable {
+    private final QuickShop plugin;
+    // The inner maps are only touched inside compute of their receiver, or after removed from here
+    private final Map<UUID, Map<String, PendingMessage>> pending = new ConcurrentHashMap<>();
+
+    public OfflineMessageWatcher(@NotNull QuickShop plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Queue a message that won't be merged with others.
+     *
+     * @param receiver The receiver
+     * @param message  The message
+     */
+    public void queue(@NotNull UUID receiver, @NotNull Component message) {
+        queue(receiver, UUID.randomUUID().toString(), 0, 0, 0, (amount, total, tax) -> message);
+    }
+
+    /**
+     * Queue a message that will be merged with the messages have same key and receiver in this window.
+     * The amounts will be summed and rendered by the renderer of the latest message while flushing.
+     *
+     * @param receiver    The receiver
+     * @param coalesceKey The key to merge messages
+     * @param amount      The item amount
+     * @param total       The total price
+     * @param tax         The tax
+     * @param renderer    The renderer to render the summed message
+     */
+    public void queue(@NotNull UUID receiver, @NotNull String coalesceKey, int amount, double total, double tax, @NotNull Renderer renderer) {
+        // Merged inside the receiver's compute, so it never lands in a map that drain or flush already took away
+        pending.compute(receiver, (k, messages) -> {
+            if (messages == null) {
+                messages = new LinkedHashMap<>();
+            }
+            messages.merge(coalesceKey, new PendingMessage(amount, total, tax, renderer, System.currentTimeMillis()),
+                    (exists, added) -> new PendingMessage(exists.amount + added.amount, exists.total + added.total, exists.tax + added.tax, added.renderer, exists.time));
+            return messages;
+        });
+    }
+
+    /**
+     * Take the pending messages of the player out of the queue, used while the player joining.
+     *
+     * @param receiver The receiver
+     * @return The rendered messages
+     */
+    @NotNull
+    public List<Component> drain(@NotNull UUID receiver) {
+        Map<String, PendingMessage> messages = pending.remove(receiver);
+        if (messages == null) {
+            return List.of();
+        }
+        List<Component> components = new ArrayList<>(messages.size());
+        for (PendingMessage message : messages.values()) {
+            components.add(message.render());
+        }
+        return components;
+    }
+
+    @Override
+    public void run() {
+        flush();
+    }
+
+    /**
+     * Write all pending messages into database.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Triple<UUID, String, Long>> rows = new ArrayList<>();
+        Map<UUID, List<Component>> crossServer = new LinkedHashMap<>();
+        boolean sendCrossServer = plugin.getConfig().getBoolean("bungee-cross-server-msg", true);
+        for (UUID receiver : new ArrayList<>(pending.keySet())) {
+            Map<String, PendingMessage> messages = pending.remove(receiver);
+            if (messages == null) {
+                continue;
+            }
+            for (PendingMessage message : messages.values()) {
+                Component component = message.render();
+                rows.add(new ImmutableTriple<>(receiver, GsonComponentSerializer.gson().serialize(component), message.time));
+                if (sendCrossServer) {
+                    crossServer.computeIfAbsent(receiver, k -> new ArrayList<>()).add(component);
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        plugin.getDatabaseHelper().saveOfflineTransactionMessageInBatch(rows)
+                .thenAccept(lines -> Log.debug("Saved " + rows.size() + " offline messages in batch."))
+                .exceptionally(err -> {
+                    plugin.logger().warn("Could not save transaction messages to database", err);
+                    return null;
+                }).join();
+        crossServer.forEach(this::sendCrossServer);
+    }
+
+    private void sendCrossServer(@NotNull UUID receiver, @NotNull List<Component> messages) {
+        OfflinePlayer player = Bukkit.getOfflinePlayer(receiver);
+        if (player.getName() == null) {
+            return;
+        }
+        try {
+            String locale = plugin.getDatabaseHelper().getPlayerLocale(receiver).join();
+            if (locale == null) {
+                return;
+            }
+            for (Component message : messages) {
+                MsgUtil.sendBungeeMessage(player.getName(), message, locale);
+            }
+        } catch (Exception e) {
+            Log.debug("Could not send shop transaction message to player " + player.getName() + " via BungeeCord: " + e.getMessage());
+        }
+    }
+
+    public interface Renderer {
+        @NotNull
+        Component render(int amount, double total, double tax);
+    }
+
+    private record PendingMessage(int amount, double total, double tax, Renderer renderer, long time) {
+        @NotNull
+        private Component render() {
+            return renderer.render(amount, total, tax);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ghostchu.quickshop.watcher;
+
+import com.ghostchu.quickshop.QuickShop;
+import com.ghostchu.quickshop.api.shop.Shop;
+import com.ghostchu.quickshop.shop.ContainerShop;
+import com.ghostchu.quickshop.util.logger.Log;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases the decoded item, extra and permissions of the shops those chunks stayed unloaded for a long time.
+ */
+public class ShopDataEvictWatcher extends BukkitRunnable {
+    private final QuickShop plugin;
+    private final long evictAfter;
+
+    public ShopDataEvictWatcher(QuickShop plugin, long evictAfterMinutes) {
+        this.plugin = plugin;
+        this.evictAfter = TimeUnit.MINUTES.toMillis(evictAfterMinutes);
+    }
+
+    @Override
+    public void run() {
+        int evicted = 0;
+        for (Shop shop : plugin.getShopManager().getAllShops()) {
+            if (shop instanceof ContainerShop containerShop && containerShop.dehydrate(evictAfter)) {
+                evicted++;
+            }
+        }
+        if (evicted != 0) {
+            Log.debug("Released the decoded data of " + evicted + " idle shops.");
+        }
+    }
+}
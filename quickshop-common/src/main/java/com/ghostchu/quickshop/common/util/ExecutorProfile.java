@@ -0,0 +1,30 @@
+package com.ghostchu.quickshop.common.util;
+
+/**
+ * Describes how an executor of {@link QuickExecutor} should be created.
+ *
+ * @param virtualThreads Use virtual threads when the runtime supports them (Java 21+)
+ * @param threads        The platform threads count, used when virtual threads are disabled or unsupported, 0 for unbounded
+ * @param maxConcurrency The max tasks running at the same time, 0 for unlimited
+ */
+public record ExecutorProfile(boolean virtualThreads, int threads, int maxConcurrency) {
+    /**
+     * A profile for blocking I/O tasks, runs on virtual threads and falls back to a platform pool of maxConcurrency threads.
+     *
+     * @param maxConcurrency The max tasks running at the same time
+     * @return The profile
+     */
+    public static ExecutorProfile blockingIo(int maxConcurrency) {
+        return new ExecutorProfile(true, maxConcurrency, maxConcurrency);
+    }
+
+    /**
+     * A profile that always uses platform threads.
+     *
+     * @param threads The platform threads count, 0 for unbounded
+     * @return The profile
+     */
+    public static ExecutorProfile platform(int threads) {
+        return new ExecutorProfile(false, threads, 0);
+    }
+}
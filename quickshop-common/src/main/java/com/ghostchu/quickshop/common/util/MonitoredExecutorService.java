@@ -0,0 +1,185 @@
+package com.ghostchu.quickshop.common.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An executor wrapper that limits the concurrent running tasks and records the queue depth and latency.
+ * <p>
+ * Tasks waiting for a permit count as queued, so the queue depth also includes the tasks those
+ * already have a (virtual) thread but still waiting for a database connection slot.
+ */
+public class MonitoredExecutorService extends AbstractExecutorService {
+    private final String name;
+    private final ExecutorService delegate;
+    private final boolean virtualThreads;
+    private final int maxConcurrency;
+    @Nullable
+    private final Semaphore semaphore;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    public MonitoredExecutorService(@NotNull String name, @NotNull ExecutorService delegate, boolean virtualThreads, int maxConcurrency) {
+        this.name = name;
+        this.delegate = delegate;
+        this.virtualThreads = virtualThreads;
+        this.maxConcurrency = maxConcurrency;
+        this.semaphore = maxConcurrency > 0 ? new Semaphore(maxConcurrency, true) : null;
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        long submitted = System.nanoTime();
+        queued.incrementAndGet();
+        try {
+            delegate.execute(new MonitoredTask(command, submitted));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void run(@NotNull Runnable command, long submitted) {
+        if (semaphore != null) {
+            try {
+                semaphore.acquire();
+            } catch (InterruptedException e) {
+                queued.decrementAndGet();
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        long started = System.nanoTime();
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        recordMax(maxWaitNanos, started - submitted);
+        totalWaitNanos.add(started - submitted);
+        try {
+            command.run();
+            completed.increment();
+        } catch (Throwable throwable) {
+            failed.increment();
+            throw throwable;
+        } finally {
+            long runNanos = System.nanoTime() - started;
+            totalRunNanos.add(runNanos);
+            recordMax(maxRunNanos, runNanos);
+            active.decrementAndGet();
+            if (semaphore != null) {
+                semaphore.release();
+            }
+        }
+    }
+
+    private static void recordMax(@NotNull AtomicLong holder, long value) {
+        holder.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Take a snapshot of the metrics of this executor.
+     *
+     * @return The metrics
+     */
+    @NotNull
+    public Stats getStats() {
+        long finished = completed.sum() + failed.sum();
+        return new Stats(name, virtualThreads, maxConcurrency, queued.get(), active.get(), completed.sum(), failed.sum(),
+                finished == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / finished),
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+                finished == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalRunNanos.sum() / finished),
+                TimeUnit.NANOSECONDS.toMillis(maxRunNanos.get()));
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @NotNull
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoredExecutorService{name=" + name + ", delegate=" + delegate + "}";
+    }
+
+    /**
+     * The metrics of an executor.
+     *
+     * @param name           The executor name
+     * @param virtualThreads Whether it runs on virtual threads
+     * @param maxConcurrency The max running tasks, 0 for unlimited
+     * @param queued         The tasks waiting for a thread or permit
+     * @param active         The running tasks
+     * @param completed      The tasks completed normally
+     * @param failed         The tasks completed exceptionally
+     * @param avgWaitMillis  The average time between submitting and starting
+     * @param maxWaitMillis  The max time between submitting and starting
+     * @param avgRunMillis   The average running time
+     * @param maxRunMillis   The max running time
+     */
+    public record Stats(String name, boolean virtualThreads, int maxConcurrency, int queued, int active,
+                        long completed, long failed, long avgWaitMillis, long maxWaitMillis,
+                        long avgRunMillis, long maxRunMillis) {
+    }
+
+    private final class MonitoredTask implements Runnable {
+        private final Runnable command;
+        private final long submitted;
+
+        private MonitoredTask(@NotNull Runnable command, long submitted) {
+            this.command = command;
+            this.submitted = submitted;
+        }
+
+        @Override
+        public void run() {
+            MonitoredExecutorService.this.run(command, submitted);
+        }
+
+        @Override
+        public String toString() {
+            // Keep the original task readable in shutdownNow() results
+            return command.toString();
+        }
+    }
+}
@@ -1,30 +1,185 @@
 package com.ghostchu.quickshop.common.util;
 
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class QuickExecutor {
-    private static ExecutorService HIKARICP_EXECUTOR;
-    private static ExecutorService SHOP_HISTORY_QUERY_EXECUTOR;
-    private static ExecutorService SHOP_SAVE_EXECUTOR = Executors.newWorkStealingPool(2);
-    private static ExecutorService COMMON_EXECUTOR = Executors.newCachedThreadPool();
-    private static ExecutorService PRIMARY_PROFILE_IO_EXECUTOR = Executors.newWorkStealingPool(16);
-    private static ExecutorService SECONDARY_PROFILE_IO_EXECUTOR = Executors.newWorkStealingPool(2);
+    public static final String COMMON = "common";
+    public static final String HIKARICP = "hikaricp";
+    public static final String SHOP_HISTORY_QUERY = "shop-history-query";
+    public static final String SHOP_SAVE = "shop-save";
+    public static final String PRIMARY_PROFILE_IO = "primary-profile-io";
+    public static final String SECONDARY_PROFILE_IO = "secondary-profile-io";
+    private static final Map<String, ExecutorProfile> PROFILES = new ConcurrentHashMap<>(Map.of(
+            COMMON, ExecutorProfile.platform(0),
+            HIKARICP, ExecutorProfile.platform(8),
+            SHOP_HISTORY_QUERY, ExecutorProfile.platform(2),
+            SHOP_SAVE, ExecutorProfile.platform(2),
+            PRIMARY_PROFILE_IO, ExecutorProfile.platform(16),
+            SECONDARY_PROFILE_IO, ExecutorProfile.platform(2)
+    ));
+    private static final boolean VIRTUAL_THREAD_SUPPORTED = Runtime.version().feature() >= 21;
+    private static ExecutorService HIKARICP_EXECUTOR = create(HIKARICP);
+    private static ExecutorService SHOP_HISTORY_QUERY_EXECUTOR = create(SHOP_HISTORY_QUERY);
+    private static ExecutorService SHOP_SAVE_EXECUTOR = create(SHOP_SAVE);
+    private static ExecutorService COMMON_EXECUTOR = create(COMMON);
+    private static ExecutorService PRIMARY_PROFILE_IO_EXECUTOR = create(PRIMARY_PROFILE_IO);
+    private static ExecutorService SECONDARY_PROFILE_IO_EXECUTOR = create(SECONDARY_PROFILE_IO);
 
-    static {
-        HIKARICP_EXECUTOR = provideHikariCPExecutor();
-        SHOP_HISTORY_QUERY_EXECUTOR = provideShopHistoryQueryExecutor();
-    }
     private QuickExecutor() {
 
 
     }
 
+    /**
+     * Replace the executors with the given profiles, the executors not in the map keep unchanged.
+     * The replaced executors will be shut down after their submitted tasks finished.
+     * <p>
+     * Should be called once while the plugin enabling, before anything grabs the executors.
+     *
+     * @param profiles The executor name to profile mapping
+     */
+    public static synchronized void applyProfiles(@NotNull Map<String, ExecutorProfile> profiles) {
+        PROFILES.putAll(profiles);
+        for (String name : profiles.keySet()) {
+            ExecutorService old;
+            switch (name) {
+                case COMMON -> {
+                    old = COMMON_EXECUTOR;
+                    COMMON_EXECUTOR = create(COMMON);
+                }
+                case HIKARICP -> {
+                    old = HIKARICP_EXECUTOR;
+                    HIKARICP_EXECUTOR = create(HIKARICP);
+                }
+                case SHOP_HISTORY_QUERY -> {
+                    old = SHOP_HISTORY_QUERY_EXECUTOR;
+                    SHOP_HISTORY_QUERY_EXECUTOR = create(SHOP_HISTORY_QUERY);
+                }
+                case SHOP_SAVE -> {
+                    old = SHOP_SAVE_EXECUTOR;
+                    SHOP_SAVE_EXECUTOR = create(SHOP_SAVE);
+                }
+                case PRIMARY_PROFILE_IO -> {
+                    old = PRIMARY_PROFILE_IO_EXECUTOR;
+                    PRIMARY_PROFILE_IO_EXECUTOR = create(PRIMARY_PROFILE_IO);
+                }
+                case SECONDARY_PROFILE_IO -> {
+                    old = SECONDARY_PROFILE_IO_EXECUTOR;
+                    SECONDARY_PROFILE_IO_EXECUTOR = create(SECONDARY_PROFILE_IO);
+                }
+                default -> throw new IllegalArgumentException("Unknown executor " + name);
+            }
+            old.shutdown();
+        }
+    }
+
+    /**
+     * Create a new executor with the current profile of given executor name.
+     *
+     * @param name The executor name
+     * @return The executor
+     */
+    @NotNull
+    public static ExecutorService create(@NotNull String name) {
+        ExecutorProfile profile = PROFILES.get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown executor " + name);
+        }
+        if (profile.virtualThreads()) {
+            ExecutorService virtual = createVirtualThreadExecutor("QuickShop-" + name + "-");
+            if (virtual != null) {
+                return new MonitoredExecutorService(name, virtual, true, profile.maxConcurrency());
+            }
+        }
+        ThreadFactory factory = createPlatformThreadFactory("QuickShop-" + name + "-");
+        ThreadPoolExecutor platform;
+        if (profile.threads() <= 0) {
+            platform = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), factory);
+        } else {
+            platform = new ThreadPoolExecutor(profile.threads(), profile.threads(), 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory);
+            platform.allowCoreThreadTimeOut(true);
+        }
+        return new MonitoredExecutorService(name, platform, false, profile.maxConcurrency());
+    }
+
+    /**
+     * Check if the virtual threads are available on current runtime.
+     *
+     * @return true if Java 21 or newer
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_SUPPORTED;
+    }
+
+    @Nullable
+    private static ExecutorService createVirtualThreadExecutor(@NotNull String prefix) {
+        if (!VIRTUAL_THREAD_SUPPORTED) {
+            return null;
+        }
+        // We compile against Java 17, so use reflection to reach Thread.ofVirtual()
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    private static ThreadFactory createPlatformThreadFactory(@NotNull String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Get the metrics of the executors.
+     *
+     * @return The metrics of the monitored executors
+     */
+    @NotNull
+    public static List<MonitoredExecutorService.Stats> getStats() {
+        List<MonitoredExecutorService.Stats> stats = new ArrayList<>();
+        for (ExecutorService service : List.of(COMMON_EXECUTOR, HIKARICP_EXECUTOR, SHOP_HISTORY_QUERY_EXECUTOR, SHOP_SAVE_EXECUTOR, PRIMARY_PROFILE_IO_EXECUTOR, SECONDARY_PROFILE_IO_EXECUTOR)) {
+            if (service instanceof MonitoredExecutorService monitored) {
+                stats.add(monitored.getStats());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Get the current executor profiles.
+     *
+     * @return The copy of executor name to profile mapping
+     */
+    @NotNull
+    public static Map<String, ExecutorProfile> getProfiles() {
+        return new HashMap<>(PROFILES);
+    }
+
     public static ExecutorService provideShopHistoryQueryExecutor() {
-        return new ThreadPoolExecutor(1, 2, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        return create(SHOP_HISTORY_QUERY);
     }
 
     public static ExecutorService provideHikariCPExecutor() {
-        return new ThreadPoolExecutor(2, 8, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        return create(HIKARICP);
     }
 
     public static ExecutorService getCommonExecutor() {